@@ -0,0 +1,52 @@
+plugins {
+    java
+    id("org.jetbrains.intellij")
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmhImplementation(project(":"))
+}
+
+// The benchmarks are not a plugin, the IntelliJ plugin only provides the IDE classes and the test framework
+intellij {
+    version.set("2021.2")
+    type.set("IC")
+
+    plugins.set(listOf("java"))
+    instrumentCode.set(false)
+}
+
+configurations.named("jmhImplementation") {
+    extendsFrom(configurations["compileOnly"], configurations["testImplementation"])
+}
+
+jmh {
+    // e.g. ./gradlew :benchmarks:jmh -PjmhIncludes=selectBestConstructor
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
+    jvmArgsAppend.addAll(intellij.ideaDependency.map {
+        listOf(
+            "-Djava.awt.headless=true",
+            "-Didea.home.path=${it.classes.path}",
+            "-Didea.config.path=${buildDir}/idea-sandbox/config",
+            "-Didea.system.path=${buildDir}/idea-sandbox/system",
+            "-Didea.force.use.core.classloader=true"
+        )
+    })
+}
+
+tasks {
+    withType<JavaCompile> {
+        sourceCompatibility = "11"
+        targetCompatibility = "11"
+    }
+
+    listOf("buildPlugin", "buildSearchableOptions", "jarSearchableOptions", "patchPluginXml", "prepareSandbox", "verifyPlugin", "runIde")
+        .forEach { named(it) { enabled = false } }
+}
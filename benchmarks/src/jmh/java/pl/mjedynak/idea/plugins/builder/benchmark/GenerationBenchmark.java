@@ -0,0 +1,146 @@
+package pl.mjedynak.idea.plugins.builder.benchmark;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.JavaCodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.JavaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.testFramework.fixtures.TestFixtureBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiClassAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiClassAnalysis;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.GenerationOptions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures field selection, best constructor selection and builder synthesis over synthetic classes
+ * loaded into a headless light code insight fixture.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+    private static final String METHOD_PREFIX = "with";
+
+    @Param({"10", "100", "1000", "5000"})
+    public int fieldCount;
+
+    @Param({"1", "10", "50"})
+    public int constructorCount;
+
+    private final PsiFieldVerifier psiFieldVerifier = new PsiFieldVerifier();
+    private final BestConstructorSelector bestConstructorSelector = new BestConstructorSelector(psiFieldVerifier);
+    private final PsiClassAnalysisCache psiClassAnalysisCache = new PsiClassAnalysisCache(psiFieldVerifier);
+    private final PsiClassAnalysisCache uncachedAnalysis = new PsiClassAnalysisCache(psiFieldVerifier) {
+        @Override
+        public PsiClassAnalysis getAnalysis(PsiClass psiClass) {
+            return new PsiClassAnalysis(psiFieldVerifier.accessorsOf(psiClass));
+        }
+    };
+    private final PsiFieldSelector psiFieldSelector = new PsiFieldSelector(new PsiElementClassMemberFactory(), psiFieldVerifier, uncachedAnalysis);
+    private final PsiFieldSelector cachedPsiFieldSelector = new PsiFieldSelector(new PsiElementClassMemberFactory(), psiFieldVerifier, psiClassAnalysisCache);
+    private final PsiFieldsForBuilderFactory psiFieldsForBuilderFactory = new PsiFieldsForBuilderFactory(psiFieldVerifier, bestConstructorSelector, uncachedAnalysis);
+    private final BuilderPsiClassBuilder builderPsiClassBuilder = new BuilderPsiClassBuilder();
+
+    private JavaCodeInsightTestFixture fixture;
+    private PsiClass srcClass;
+    private List<PsiField> allFields;
+
+    @Setup(Level.Trial)
+    public void setUpFixture() throws Throwable {
+        TestFixtureBuilder<IdeaProjectTestFixture> projectBuilder =
+                IdeaTestFixtureFactory.getFixtureFactory().createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_11);
+        fixture = JavaTestFixtureFactory.getFixtureFactory().createCodeInsightFixture(projectBuilder.getFixture());
+        EdtTestUtil.runInEdtAndWait(() -> fixture.setUp());
+        srcClass = EdtTestUtil.runInEdtAndGet(() -> fixture.addClass(SyntheticClasses.sourceOf(fieldCount, constructorCount)));
+        allFields = ReadAction.compute(() -> Arrays.asList(srcClass.getFields()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownFixture() throws Throwable {
+        EdtTestUtil.runInEdtAndWait(() -> fixture.tearDown());
+    }
+
+    @Benchmark
+    public List<PsiElementClassMember> selectFields() {
+        return ReadAction.compute(() -> psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false));
+    }
+
+    @Benchmark
+    public List<PsiElementClassMember> selectFieldsFromCachedAnalysis() {
+        return ReadAction.compute(() -> cachedPsiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false));
+    }
+
+    @Benchmark
+    public PsiMethod selectBestConstructor() {
+        return ReadAction.compute(() -> bestConstructorSelector.getBestConstructor(allFields, srcClass));
+    }
+
+    @Benchmark
+    public PsiClass synthesizeBuilderInSinglePass(SynthesisState state) {
+        return ReadAction.compute(() -> builderPsiClassBuilder.buildFromText(state.context));
+    }
+
+    @Benchmark
+    public PsiClass synthesizeBuilderMemberByMember(SynthesisState state) {
+        return ReadAction.compute(() -> builderPsiClassBuilder.anInnerBuilder(state.context)
+                .withFields()
+                .withPrivateConstructor()
+                .withPublicConstructorGenerator()
+                .withSetMethods(METHOD_PREFIX)
+                .build());
+    }
+
+    /**
+     * Generation adds methods to the source class, so every invocation works on a fresh non-physical copy of it
+     * and builds an inner builder, which keeps the fixture unchanged between invocations.
+     */
+    @State(Scope.Thread)
+    public static class SynthesisState {
+
+        private BuilderContext context;
+
+        @Setup(Level.Invocation)
+        public void copySourceClass(GenerationBenchmark benchmark) {
+            context = ReadAction.compute(() -> {
+                PsiClass copy = (PsiClass) benchmark.srcClass.copy();
+                List<PsiElementClassMember> members = benchmark.psiFieldSelector.selectFieldsToIncludeInBuilder(copy, true, false, false);
+                PsiFieldsForBuilder psiFieldsForBuilder = benchmark.psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, copy);
+                return new BuilderContext(benchmark.fixture.getProject(), psiFieldsForBuilder, null, copy.getName() + "Builder", copy, METHOD_PREFIX, GenerationOptions.builder().inner(true).singlePass(true).build());
+            });
+        }
+    }
+}
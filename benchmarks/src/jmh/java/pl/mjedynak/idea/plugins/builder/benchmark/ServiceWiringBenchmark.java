@@ -0,0 +1,109 @@
+package pl.mjedynak.idea.plugins.builder.benchmark;
+
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.intellij.util.pico.DefaultPicoContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.picocontainer.MutablePicoContainer;
+import pl.mjedynak.idea.plugins.builder.action.GenerateBuilderAction;
+import pl.mjedynak.idea.plugins.builder.action.GoToBuilderAction;
+import pl.mjedynak.idea.plugins.builder.action.handler.DisplayChoosers;
+import pl.mjedynak.idea.plugins.builder.action.handler.GenerateBuilderActionHandler;
+import pl.mjedynak.idea.plugins.builder.action.handler.GoToBuilderActionHandler;
+import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.GenerateBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PopupChooserBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiManagerFactory;
+import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.GenerateBuilderPopupDisplayer;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiClassAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorApplicationService;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorProjectService;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold cost of loading the editor actions, which is all the plugin adds to IDE startup, and of wiring
+ * the services, which used to happen in the static initializer of the actions and now happens on first invocation.
+ * Every fork measures a single call, so class loading is included. {@link #legacyStaticWiring()} is the baseline:
+ * the same components registered in a {@link DefaultPicoContainer}, as the static initializers of the actions used to.
+ * Startup used to pay for it in full, and now pays only for {@link #loadActions()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ServiceWiringBenchmark {
+
+    private static final Class<?>[] LEGACY_COMPONENTS = {
+            PsiHelper.class, BuilderVerifier.class, ClassFinder.class, BuilderPsiClassBuilder.class, BuilderFinder.class,
+            PopupChooserBuilderFactory.class, PsiManagerFactory.class, CreateBuilderDialogFactory.class, GuiHelper.class,
+            PsiFieldVerifier.class, PsiElementClassMemberFactory.class, ReferenceEditorComboWithBrowseButtonFactory.class,
+            MemberChooserDialogFactory.class, BuilderWriter.class, PsiFieldSelector.class, PsiFieldsForBuilderFactory.class,
+            DisplayChoosers.class, BestConstructorSelector.class, PsiClassAnalysisCache.class,
+            GenerateBuilderActionHandler.class, GenerateBuilderPopupDisplayer.class, GenerateBuilderPopupListFactory.class,
+            GoToBuilderActionHandler.class, GoToBuilderPopupDisplayer.class, GoToBuilderPopupListFactory.class};
+
+    private IdeaProjectTestFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUpFixture() throws Throwable {
+        fixture = IdeaTestFixtureFactory.getFixtureFactory().createLightFixtureBuilder(LightJavaCodeInsightFixtureTestCase.JAVA_11).getFixture();
+        EdtTestUtil.runInEdtAndWait(() -> fixture.setUp());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownFixture() throws Throwable {
+        EdtTestUtil.runInEdtAndWait(() -> fixture.tearDown());
+    }
+
+    @Benchmark
+    public Object[] loadActions() {
+        return new Object[]{new GenerateBuilderAction(), new GoToBuilderAction()};
+    }
+
+    @Benchmark
+    public Object[] wireServices() {
+        return new Object[]{BuilderGeneratorApplicationService.getInstance(), BuilderGeneratorProjectService.getInstance(fixture.getProject())};
+    }
+
+    @Benchmark
+    public Object[] legacyStaticWiring() {
+        MutablePicoContainer picoContainer = new DefaultPicoContainer();
+        for (Class<?> component : LEGACY_COMPONENTS) {
+            picoContainer.registerComponentImplementation(component);
+        }
+        return new Object[]{picoContainer.getComponentInstanceOfType(GenerateBuilderActionHandler.class),
+                picoContainer.getComponentInstanceOfType(GoToBuilderActionHandler.class)};
+    }
+}
@@ -0,0 +1,94 @@
+package pl.mjedynak.idea.plugins.builder.benchmark;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Renders source of classes with any number of fields and constructors. Even fields get a setter, every field
+ * gets a getter and constructors take consecutive runs of fields, so all analysis paths are exercised. Each constructor
+ * gets a distinct parameter type list; when a small class has fewer of them than requested, the rest are left out.
+ */
+final class SyntheticClasses {
+
+    static final String PACKAGE_NAME = "bench";
+    private static final int MAX_CONSTRUCTOR_PARAMETERS = 200;
+    private static final String[] TYPES = {"int", "String", "long", "java.util.List<String>", "boolean"};
+
+    private SyntheticClasses() {
+    }
+
+    static String className(int fieldCount, int constructorCount) {
+        return "Synthetic" + fieldCount + "Fields" + constructorCount + "Constructors";
+    }
+
+    static String sourceOf(int fieldCount, int constructorCount) {
+        String className = className(fieldCount, constructorCount);
+        StringBuilder text = new StringBuilder("package ").append(PACKAGE_NAME).append(";\n\npublic class ").append(className).append(" {\n");
+        for (int i = 0; i < fieldCount; i++) {
+            text.append("    private ").append(typeOf(i)).append(' ').append(fieldName(i)).append(";\n");
+        }
+        Set<String> signatures = new HashSet<>();
+        for (int constructor = 1; constructor <= constructorCount; constructor++) {
+            appendConstructor(text, className, fieldCount, constructor, constructorCount, signatures);
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            String capitalizedName = "Field" + i;
+            text.append("    public ").append(typeOf(i)).append(" get").append(capitalizedName).append("() { return ").append(fieldName(i)).append("; }\n");
+            if (i % 2 == 0) {
+                text.append("    public void set").append(capitalizedName).append('(').append(typeOf(i)).append(' ').append(fieldName(i))
+                        .append(") { this.").append(fieldName(i)).append(" = ").append(fieldName(i)).append("; }\n");
+            }
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static void appendConstructor(StringBuilder text, String className, int fieldCount, int constructor, int constructorCount,
+                                          Set<String> signatures) {
+        int maxParameterCount = Math.min(fieldCount, MAX_CONSTRUCTOR_PARAMETERS);
+        int preferredParameterCount = maxParameterCount * constructor / constructorCount;
+        for (int distance = 0; distance <= maxParameterCount; distance++) {
+            for (int parameterCount : new int[]{preferredParameterCount - distance, preferredParameterCount + distance}) {
+                if (parameterCount < 0 || parameterCount > maxParameterCount) {
+                    continue;
+                }
+                for (int shift = 0; shift < Math.max(fieldCount, 1); shift++) {
+                    int firstField = fieldCount == 0 ? 0 : (constructor - 1 + shift) % fieldCount;
+                    if (signatures.add(signatureOf(fieldCount, firstField, parameterCount))) {
+                        appendConstructor(text, className, fieldCount, firstField, parameterCount);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static String signatureOf(int fieldCount, int firstField, int parameterCount) {
+        StringBuilder signature = new StringBuilder();
+        for (int i = 0; i < parameterCount; i++) {
+            signature.append(typeOf((firstField + i) % fieldCount)).append(',');
+        }
+        return signature.toString();
+    }
+
+    private static void appendConstructor(StringBuilder text, String className, int fieldCount, int firstField, int parameterCount) {
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < parameterCount; i++) {
+            int field = (firstField + i) % fieldCount;
+            if (i > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(typeOf(field)).append(' ').append(fieldName(field));
+            assignments.append(" this.").append(fieldName(field)).append(" = ").append(fieldName(field)).append(';');
+        }
+        text.append("    public ").append(className).append('(').append(parameters).append(") {").append(assignments).append(" }\n");
+    }
+
+    private static String typeOf(int field) {
+        return TYPES[field % TYPES.length];
+    }
+
+    private static String fieldName(int field) {
+        return "field" + field;
+    }
+}
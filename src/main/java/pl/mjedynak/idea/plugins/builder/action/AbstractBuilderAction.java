@@ -1,56 +1,46 @@
 package pl.mjedynak.idea.plugins.builder.action;
 
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.editor.Caret;
+import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.actionSystem.EditorAction;
-import com.intellij.util.pico.DefaultPicoContainer;
-import org.picocontainer.MutablePicoContainer;
+import com.intellij.openapi.editor.actionSystem.EditorActionHandler;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
 import pl.mjedynak.idea.plugins.builder.action.handler.AbstractBuilderActionHandler;
-import pl.mjedynak.idea.plugins.builder.action.handler.DisplayChoosers;
-import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
-import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
-import pl.mjedynak.idea.plugins.builder.factory.PopupChooserBuilderFactory;
-import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
-import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
-import pl.mjedynak.idea.plugins.builder.factory.PsiManagerFactory;
-import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
-import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
-import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
-import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
-import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
-import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
-import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
-import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
-import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
-import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
-import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorProjectService;
+
+import java.util.function.Function;
 
 public abstract class AbstractBuilderAction extends EditorAction {
 
-    protected static AbstractBuilderActionHandler builderActionHandler;
-
-    protected static MutablePicoContainer picoContainer = new DefaultPicoContainer();
-
-    static {
-        picoContainer.registerComponentImplementation(PsiHelper.class);
-        picoContainer.registerComponentImplementation(BuilderVerifier.class);
-        picoContainer.registerComponentImplementation(ClassFinder.class);
-        picoContainer.registerComponentImplementation(BuilderPsiClassBuilder.class);
-        picoContainer.registerComponentImplementation(BuilderFinder.class);
-        picoContainer.registerComponentImplementation(PopupChooserBuilderFactory.class);
-        picoContainer.registerComponentImplementation(PsiManagerFactory.class);
-        picoContainer.registerComponentImplementation(CreateBuilderDialogFactory.class);
-        picoContainer.registerComponentImplementation(GuiHelper.class);
-        picoContainer.registerComponentImplementation(PsiFieldVerifier.class);
-        picoContainer.registerComponentImplementation(PsiElementClassMemberFactory.class);
-        picoContainer.registerComponentImplementation(ReferenceEditorComboWithBrowseButtonFactory.class);
-        picoContainer.registerComponentImplementation(MemberChooserDialogFactory.class);
-        picoContainer.registerComponentImplementation(BuilderWriter.class);
-        picoContainer.registerComponentImplementation(PsiFieldSelector.class);
-        picoContainer.registerComponentImplementation(PsiFieldsForBuilderFactory.class);
-        picoContainer.registerComponentImplementation(DisplayChoosers.class);
-        picoContainer.registerComponentImplementation(BestConstructorSelector.class);
+    protected AbstractBuilderAction(Function<BuilderGeneratorProjectService, AbstractBuilderActionHandler> handlerOfProject) {
+        super(new ProjectHandlerDelegate(handlerOfProject));
     }
 
-    protected AbstractBuilderAction() {
-        super(builderActionHandler);
+    /**
+     * Looks the real handler up in the service of the editor's project on every invocation, so nothing is created
+     * before the action is first used. Updates only check for a project, as the handlers are enabled in any editor.
+     */
+    private static class ProjectHandlerDelegate extends EditorActionHandler {
+
+        private final Function<BuilderGeneratorProjectService, AbstractBuilderActionHandler> handlerOfProject;
+
+        ProjectHandlerDelegate(Function<BuilderGeneratorProjectService, AbstractBuilderActionHandler> handlerOfProject) {
+            this.handlerOfProject = handlerOfProject;
+        }
+
+        @Override
+        protected boolean isEnabledForCaret(@NotNull Editor editor, @NotNull Caret caret, DataContext dataContext) {
+            return editor.getProject() != null;
+        }
+
+        @Override
+        protected void doExecute(@NotNull Editor editor, Caret caret, DataContext dataContext) {
+            Project project = editor.getProject();
+            if (project != null) {
+                handlerOfProject.apply(BuilderGeneratorProjectService.getInstance(project)).execute(editor, caret, dataContext);
+            }
+        }
     }
 }
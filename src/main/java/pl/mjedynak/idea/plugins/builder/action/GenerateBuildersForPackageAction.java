@@ -0,0 +1,60 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiPackage;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorProjectService;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class GenerateBuildersForPackageAction extends AnAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(!getDirectories(e).isEmpty());
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        List<PsiDirectory> directories = getDirectories(e);
+        if (!directories.isEmpty()) {
+            BuilderGeneratorProjectService.getInstance(e.getProject()).getBatchBuilderGenerator().generate(e.getProject(), directories);
+        }
+    }
+
+    private List<PsiDirectory> getDirectories(AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            return Collections.emptyList();
+        }
+        PsiElement element = e.getData(CommonDataKeys.PSI_ELEMENT);
+        if (element instanceof PsiDirectory) {
+            return Collections.singletonList((PsiDirectory) element);
+        }
+        if (element instanceof PsiPackage) {
+            return Arrays.asList(((PsiPackage) element).getDirectories());
+        }
+        Module module = e.getData(LangDataKeys.MODULE_CONTEXT);
+        if (module != null) {
+            PsiManager psiManager = PsiManager.getInstance(project);
+            return Arrays.stream(ModuleRootManager.getInstance(module).getSourceRoots(false))
+                    .map(psiManager::findDirectory)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+}
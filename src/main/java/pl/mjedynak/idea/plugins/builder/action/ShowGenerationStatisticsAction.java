@@ -0,0 +1,32 @@
+package pl.mjedynak.idea.plugins.builder.action;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.ui.Messages;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
+
+import java.awt.datatransfer.StringSelection;
+
+/**
+ * Shows rolling percentiles of the generation phases, so they can be copied into a bug report.
+ */
+public class ShowGenerationStatisticsAction extends AnAction {
+
+    static final String TITLE = "Builder Generation Statistics";
+    static final String COPY = "Copy to Clipboard";
+    static final String RESET = "Reset";
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        GenerationTimings generationTimings = GenerationTimings.getInstance();
+        String statistics = GenerationTimings.describe(generationTimings.getStatistics());
+        int choice = Messages.showDialog(e.getProject(), statistics, TITLE, new String[]{COPY, RESET, Messages.getCancelButton()}, 0, Messages.getInformationIcon());
+        if (choice == 0) {
+            CopyPasteManager.getInstance().setContents(new StringSelection(statistics));
+        } else if (choice == 1) {
+            generationTimings.reset();
+        }
+    }
+}
@@ -10,16 +10,21 @@ import pl.mjedynak.idea.plugins.builder.factory.AbstractPopupListFactory;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.AbstractPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationPhase;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
 public abstract class AbstractBuilderActionHandler extends EditorActionHandler {
 
+    static final String FIND_CLASS_TO_GO_TITLE = "Looking for builder";
+
     protected PsiHelper psiHelper;
     private BuilderVerifier builderVerifier;
     private BuilderFinder builderFinder;
     protected AbstractPopupDisplayer popupDisplayer;
     protected AbstractPopupListFactory popupListFactory;
     protected DisplayChoosers displayChoosers;
+    private GenerationTimings generationTimings = GenerationTimings.getInstance();
 
     public AbstractBuilderActionHandler(PsiHelper psiHelper, BuilderVerifier builderVerifier, BuilderFinder builderFinder, AbstractPopupDisplayer popupDisplayer,
                                         AbstractPopupListFactory popupListFactory, DisplayChoosers displayChoosers) {
@@ -33,40 +38,62 @@ public abstract class AbstractBuilderActionHandler extends EditorActionHandler {
 
     @Override
     public void execute(Editor editor, DataContext dataContext) {
-        Project project = (Project) dataContext.getData(CommonDataKeys.PROJECT.getName());
-        PsiClass psiClassFromEditor = psiHelper.getPsiClassFromEditor(editor, project);
-        prepareDisplayChoosers(editor, psiClassFromEditor, dataContext);
+        PsiClass psiClassFromEditor = psiHelper.getPsiClassFromEditor(editor, getProject(dataContext));
         if (psiClassFromEditor != null) {
             forwardToSpecificAction(editor, psiClassFromEditor, dataContext);
         }
     }
 
-    private void prepareDisplayChoosers(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext) {
-        Project project = (Project) dataContext.getData(CommonDataKeys.PROJECT.getName());
-        displayChoosers.setEditor(editor);
-        displayChoosers.setProject(project);
-        displayChoosers.setPsiClassFromEditor(psiClassFromEditor);
-    }
-
     private void forwardToSpecificAction(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext) {
-        boolean isBuilder = builderVerifier.isBuilder(psiClassFromEditor);
-        PsiClass classToGo = findClassToGo(psiClassFromEditor, isBuilder);
-        if (classToGo != null) {
-            doActionWhenClassToGoIsFound(editor, psiClassFromEditor, dataContext, isBuilder, classToGo);
-        } else {
-            doActionWhenClassToGoIsNotFound(editor, psiClassFromEditor, dataContext, isBuilder);
-        }
+        Project project = getProject(dataContext);
+        psiHelper.runReadActionInBackground(project, FIND_CLASS_TO_GO_TITLE, () -> findClassToGo(psiClassFromEditor), search -> {
+            if (search == null || editor.isDisposed() || !search.isValid()) {
+                return;
+            }
+            if (search.classToGo != null) {
+                doActionWhenClassToGoIsFound(editor, psiClassFromEditor, dataContext, search.isBuilder, search.classToGo);
+            } else {
+                doActionWhenClassToGoIsNotFound(editor, psiClassFromEditor, dataContext, search.isBuilder);
+            }
+        });
     }
 
-    private PsiClass findClassToGo(PsiClass psiClassFromEditor, boolean isBuilder) {
-        if (isBuilder) {
-            return builderFinder.findClassForBuilder(psiClassFromEditor);
+    private ClassToGoSearch findClassToGo(PsiClass psiClassFromEditor) {
+        if (!psiClassFromEditor.isValid()) {
+            return null;
         }
-        return builderFinder.findBuilderForClass(psiClassFromEditor);
+        long start = generationTimings.start();
+        boolean isBuilder = builderVerifier.isBuilder(psiClassFromEditor);
+        PsiClass classToGo = isBuilder ? builderFinder.findClassForBuilder(psiClassFromEditor) : builderFinder.findBuilderForClass(psiClassFromEditor);
+        generationTimings.record(GenerationPhase.FIND_CLASS_TO_GO, psiClassFromEditor, start);
+        return new ClassToGoSearch(psiClassFromEditor, isBuilder, classToGo);
     }
 
     protected abstract void doActionWhenClassToGoIsFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder, PsiClass classToGo);
 
     protected abstract void doActionWhenClassToGoIsNotFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder);
 
+    protected static Project getProject(DataContext dataContext) {
+        return (Project) dataContext.getData(CommonDataKeys.PROJECT.getName());
+    }
+
+    /**
+     * Result of the background search, handed over to the EDT where its classes may have been invalidated meanwhile.
+     */
+    private static final class ClassToGoSearch {
+        private final PsiClass psiClassFromEditor;
+        private final boolean isBuilder;
+        private final PsiClass classToGo;
+
+        ClassToGoSearch(PsiClass psiClassFromEditor, boolean isBuilder, PsiClass classToGo) {
+            this.psiClassFromEditor = psiClassFromEditor;
+            this.isBuilder = isBuilder;
+            this.classToGo = classToGo;
+        }
+
+        boolean isValid() {
+            return psiClassFromEditor.isValid() && (classToGo == null || classToGo.isValid());
+        }
+    }
+
 }
@@ -0,0 +1,230 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.google.common.collect.Lists;
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+import pl.mjedynak.idea.plugins.builder.writer.GenerationOptions;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates builders for all classes below the given directories using the default settings, without any dialog.
+ * Classes are analysed concurrently in non-blocking read actions and the builders are written in batches
+ * which are merged into a single undoable command.
+ */
+public class BatchBuilderGenerator {
+
+    static final String GENERATE_BUILDERS_TITLE = "Generating builders";
+    static final String RESULT_TITLE = "Builder Generation";
+    static final String BUILDER_SUFFIX = "Builder";
+    static final int WRITE_BATCH_SIZE = 20;
+    private static final double ANALYSIS_PROGRESS_SHARE = 0.5;
+
+    private PsiHelper psiHelper;
+    private PsiFieldSelector psiFieldSelector;
+    private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private BuilderFinder builderFinder;
+    private BuilderVerifier builderVerifier;
+    private BuilderWriter builderWriter;
+
+    public BatchBuilderGenerator(PsiHelper psiHelper, PsiFieldSelector psiFieldSelector, PsiFieldsForBuilderFactory psiFieldsForBuilderFactory,
+                                 BuilderFinder builderFinder, BuilderVerifier builderVerifier, BuilderWriter builderWriter) {
+        this.psiHelper = psiHelper;
+        this.psiFieldSelector = psiFieldSelector;
+        this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
+        this.builderFinder = builderFinder;
+        this.builderVerifier = builderVerifier;
+        this.builderWriter = builderWriter;
+    }
+
+    public void generate(Project project, List<PsiDirectory> directories) {
+        BuilderGeneratorSettingsState settings = BuilderGeneratorSettingsState.getInstance();
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, GENERATE_BUILDERS_TITLE, true) {
+            private int generatedCount;
+            private long elapsedNanos;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                long start = System.nanoTime();
+                generatedCount = generateBuilders(project, directories, settings, indicator);
+                elapsedNanos = System.nanoTime() - start;
+            }
+
+            @Override
+            public void onSuccess() {
+                Messages.showInfoMessage(project, describeThroughput(generatedCount, elapsedNanos), RESULT_TITLE);
+            }
+        });
+    }
+
+    int generateBuilders(Project project, List<PsiDirectory> directories, BuilderGeneratorSettingsState settings, ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        indicator.setText("Collecting classes");
+        List<PsiClass> classes = psiHelper.computeInNonBlockingReadAction(project, () -> collectClasses(directories));
+
+        indicator.setText("Analysing classes");
+        BatchItem[] analysed = new BatchItem[classes.size()];
+        AtomicInteger analysedCount = new AtomicInteger();
+        List<Integer> indexes = IntStream.range(0, classes.size()).boxed().collect(Collectors.toList());
+        psiHelper.processConcurrently(indexes, indicator, index -> {
+            analysed[index] = psiHelper.computeInNonBlockingReadAction(project, () -> analyse(classes.get(index), settings));
+            indicator.setFraction(ANALYSIS_PROGRESS_SHARE * analysedCount.incrementAndGet() / classes.size());
+            return true;
+        });
+        indicator.checkCanceled();
+
+        indicator.setText("Writing builders");
+        List<BatchItem> items = Arrays.stream(analysed).filter(Objects::nonNull).collect(Collectors.toList());
+        Object commandGroupId = new Object();
+        AtomicInteger writtenCount = new AtomicInteger();
+        int processedCount = 0;
+        for (List<BatchItem> batch : Lists.partition(items, WRITE_BATCH_SIZE)) {
+            indicator.checkCanceled();
+            psiHelper.invokeAndWait(() -> writtenCount.addAndGet(writeValidItems(project, batch, commandGroupId)));
+            processedCount += batch.size();
+            indicator.setFraction(ANALYSIS_PROGRESS_SHARE + (1 - ANALYSIS_PROGRESS_SHARE) * processedCount / items.size());
+        }
+        return writtenCount.get();
+    }
+
+    /**
+     * Generates the builder of a single class from a background thread, returning false when there is nothing to build.
+     */
+    public boolean generateBuilder(Project project, PsiClass psiClass, BuilderGeneratorSettingsState settings, Object commandGroupId) {
+        BatchItem item = psiHelper.computeInNonBlockingReadAction(project, () -> analyse(psiClass, settings));
+        if (item == null) {
+            return false;
+        }
+        AtomicInteger writtenCount = new AtomicInteger();
+        psiHelper.invokeAndWait(() -> writtenCount.set(writeValidItems(project, Collections.singletonList(item), commandGroupId)));
+        return writtenCount.get() > 0;
+    }
+
+    /**
+     * Items were analysed in earlier read actions, so any of their PSI may have been changed or deleted since.
+     * Such items are skipped.
+     */
+    private int writeValidItems(Project project, List<BatchItem> batch, Object commandGroupId) {
+        Map<BuilderContext, PsiClass> buildersWithExistingOnes = new LinkedHashMap<>();
+        batch.stream().filter(BatchItem::isValid).forEach(item -> buildersWithExistingOnes.put(item.context, item.existingBuilder));
+        if (!buildersWithExistingOnes.isEmpty()) {
+            builderWriter.writeBuilders(project, buildersWithExistingOnes, commandGroupId);
+        }
+        return buildersWithExistingOnes.size();
+    }
+
+    private List<PsiClass> collectClasses(List<PsiDirectory> directories) {
+        List<PsiClass> classes = Lists.newArrayList();
+        Set<PsiDirectory> visited = new HashSet<>();
+        Deque<PsiDirectory> toVisit = new ArrayDeque<>(directories);
+        while (!toVisit.isEmpty()) {
+            PsiDirectory directory = toVisit.pop();
+            if (visited.add(directory)) {
+                for (PsiClass psiClass : psiHelper.getJavaDirectoryService().getClasses(directory)) {
+                    if (isEligible(psiClass)) {
+                        classes.add(psiClass);
+                    }
+                }
+                toVisit.addAll(Arrays.asList(directory.getSubdirectories()));
+            }
+        }
+        return classes;
+    }
+
+    private boolean isEligible(PsiClass psiClass) {
+        return psiClass.getName() != null && !psiClass.isInterface() && !psiClass.isEnum() && !psiClass.isAnnotationType()
+                && !psiClass.hasModifierProperty(PsiModifier.ABSTRACT) && !builderVerifier.isBuilder(psiClass);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private BatchItem analyse(PsiClass psiClass, BuilderGeneratorSettingsState settings) {
+        if (!psiClass.isValid()) {
+            return null;
+        }
+        List<PsiElementClassMember> members = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, settings.isInnerBuilder, settings.isUseSinglePrefix, settings.isButMethod);
+        if (members.isEmpty()) {
+            return null;
+        }
+        PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, psiClass);
+        GenerationOptions options = GenerationOptions.fromSettings(settings).build();
+        PsiClass existingBuilder = builderFinder.findBuilderForClass(psiClass);
+        if (!isAccessibleFromBuilder(psiFieldsForBuilder.getBestConstructor(), existingBuilder, options)) {
+            return null;
+        }
+        PsiDirectory targetDirectory = psiClass.getContainingFile().getContainingDirectory();
+        BuilderContext context = new BuilderContext(psiClass.getProject(), psiFieldsForBuilder, targetDirectory, psiClass.getName() + BUILDER_SUFFIX, psiClass,
+                settings.defaultMethodPrefix, options);
+        return new BatchItem(context, existingBuilder);
+    }
+
+    /**
+     * An inner builder may call any constructor. A patched builder stays where it is, while a new one is written next
+     * to the class, so only a private constructor is out of its reach.
+     */
+    private boolean isAccessibleFromBuilder(PsiMethod bestConstructor, PsiClass existingBuilder, GenerationOptions options) {
+        if (bestConstructor == null || options.isInner()) {
+            return true;
+        }
+        if (existingBuilder != null && options.isPatchExisting()) {
+            return psiHelper.isAccessibleFrom(bestConstructor, existingBuilder);
+        }
+        return !bestConstructor.hasModifierProperty(PsiModifier.PRIVATE);
+    }
+
+    public static String describeThroughput(int generatedCount, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / (double) TimeUnit.SECONDS.toNanos(1);
+        return String.format(Locale.ROOT, "Generated %d builders in %.2f s (%.1f classes/s)", generatedCount, seconds, generatedCount / seconds);
+    }
+
+    private static final class BatchItem {
+        private final BuilderContext context;
+        private final PsiClass existingBuilder;
+
+        BatchItem(BuilderContext context, PsiClass existingBuilder) {
+            this.context = context;
+            this.existingBuilder = existingBuilder;
+        }
+
+        boolean isValid() {
+            PsiFieldsForBuilder psiFieldsForBuilder = context.getPsiFieldsForBuilder();
+            PsiMethod bestConstructor = psiFieldsForBuilder.getBestConstructor();
+            return context.getPsiClassFromEditor().isValid()
+                    && (existingBuilder == null || existingBuilder.isValid())
+                    && (bestConstructor == null || bestConstructor.isValid())
+                    && psiFieldsForBuilder.getAllSelectedFields().stream().allMatch(PsiField::isValid);
+        }
+    }
+}
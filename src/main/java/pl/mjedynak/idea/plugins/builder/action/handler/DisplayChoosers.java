@@ -13,22 +13,27 @@ import pl.mjedynak.idea.plugins.builder.gui.CreateBuilderDialog;
 import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationPhase;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+import pl.mjedynak.idea.plugins.builder.writer.GenerationOptions;
 
 import java.util.List;
 
 public class DisplayChoosers {
 
-    private PsiClass psiClassFromEditor;
-    private Project project;
-    private Editor editor;
+    static final String SELECT_FIELDS_TITLE = "Selecting fields for builder";
+    static final String ANALYSE_FIELDS_TITLE = "Analysing selected fields";
+
     private PsiHelper psiHelper;
     private CreateBuilderDialogFactory createBuilderDialogFactory;
     private PsiFieldSelector psiFieldSelector;
     private MemberChooserDialogFactory memberChooserDialogFactory;
     private BuilderWriter builderWriter;
     private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    private GenerationTimings generationTimings = GenerationTimings.getInstance();
 
     public DisplayChoosers(PsiHelper psiHelper, CreateBuilderDialogFactory createBuilderDialogFactory,
                            PsiFieldSelector psiFieldSelector, MemberChooserDialogFactory memberChooserDialogFactory,
@@ -41,57 +46,88 @@ public class DisplayChoosers {
         this.psiFieldsForBuilderFactory = psiFieldsForBuilderFactory;
     }
 
+    /**
+     * Everything the choosers work on is passed in and captured by the background continuations, as this instance
+     * is shared by all editors of the project.
+     */
     @SuppressWarnings("rawtypes")
-    public void run(PsiClass existingBuilder) {
-        CreateBuilderDialog createBuilderDialog = showDialog(existingBuilder);
+    public void run(Editor editor, Project srcProject, PsiClass srcClass, PsiClass existingBuilder) {
+        CreateBuilderDialog createBuilderDialog = showDialog(editor, srcProject, srcClass, existingBuilder);
         if (createBuilderDialog.isOK()) {
-            PsiDirectory targetDirectory = createBuilderDialog.getTargetDirectory();
-            String className = createBuilderDialog.getClassName();
-            String methodPrefix = createBuilderDialog.getMethodPrefix();
             boolean innerBuilder = createBuilderDialog.isInnerBuilder();
             boolean useSingleField = createBuilderDialog.useSingleField();
             boolean hasButMethod = createBuilderDialog.hasButMethod();
-            List<PsiElementClassMember> fieldsToDisplay = getFieldsToIncludeInBuilder(psiClassFromEditor, innerBuilder, useSingleField, hasButMethod);
-            com.intellij.ide.util.MemberChooser<PsiElementClassMember> memberChooserDialog = memberChooserDialogFactory.getMemberChooserDialog(fieldsToDisplay, project);
-            memberChooserDialog.show();
-            writeBuilderIfNecessary(targetDirectory, className, methodPrefix, memberChooserDialog, createBuilderDialog, existingBuilder);
+            psiHelper.runReadActionInBackground(srcProject, SELECT_FIELDS_TITLE,
+                    () -> getFieldsToIncludeInBuilder(srcClass, innerBuilder, useSingleField, hasButMethod),
+                    fieldsToDisplay -> {
+                        if (isStillValid(srcClass, existingBuilder)) {
+                            showMemberChooser(srcProject, srcClass, fieldsToDisplay, createBuilderDialog, existingBuilder);
+                        }
+                    });
         }
     }
 
+    @SuppressWarnings("rawtypes")
+    private void showMemberChooser(Project srcProject, PsiClass srcClass, List<PsiElementClassMember> fieldsToDisplay, CreateBuilderDialog createBuilderDialog, PsiClass existingBuilder) {
+        long start = generationTimings.start();
+        com.intellij.ide.util.MemberChooser<PsiElementClassMember> memberChooserDialog = memberChooserDialogFactory.getMemberChooserDialog(fieldsToDisplay, srcProject);
+        generationTimings.record(GenerationPhase.MEMBER_CHOOSER, srcClass, start);
+        memberChooserDialog.show();
+        writeBuilderIfNecessary(srcProject, srcClass, memberChooserDialog, createBuilderDialog, existingBuilder);
+    }
+
     @SuppressWarnings("rawtypes")
     private void writeBuilderIfNecessary(
-            PsiDirectory targetDirectory, String className, String methodPrefix, com.intellij.ide.util.MemberChooser<PsiElementClassMember> memberChooserDialog, CreateBuilderDialog createBuilderDialog, PsiClass existingBuilder) {
+            Project srcProject, PsiClass srcClass, com.intellij.ide.util.MemberChooser<PsiElementClassMember> memberChooserDialog, CreateBuilderDialog createBuilderDialog, PsiClass existingBuilder) {
         if (memberChooserDialog.isOK()) {
             List<PsiElementClassMember> selectedElements = memberChooserDialog.getSelectedElements();
-            PsiFieldsForBuilder psiFieldsForBuilder = psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedElements, psiClassFromEditor);
-            BuilderContext context = new BuilderContext(
-                    project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix, createBuilderDialog.isInnerBuilder(), createBuilderDialog.hasButMethod(), createBuilderDialog.useSingleField());
-            builderWriter.writeBuilder(context, existingBuilder);
+            PsiDirectory targetDirectory = createBuilderDialog.getTargetDirectory();
+            String className = createBuilderDialog.getClassName();
+            String methodPrefix = createBuilderDialog.getMethodPrefix();
+            GenerationOptions options = GenerationOptions.fromSettings(BuilderGeneratorSettingsState.getInstance())
+                    .inner(createBuilderDialog.isInnerBuilder())
+                    .butMethod(createBuilderDialog.hasButMethod())
+                    .singleField(createBuilderDialog.useSingleField())
+                    .staged(createBuilderDialog.isStagedBuilder())
+                    .reusable(createBuilderDialog.isReusableBuilder())
+                    .directWithers(createBuilderDialog.hasDirectWithers())
+                    .sparse(createBuilderDialog.isSparseBuilder())
+                    .profile(createBuilderDialog.getGeneratorProfile())
+                    .collectionAccumulators(createBuilderDialog.hasCollectionAccumulators())
+                    .collectionHandoff(createBuilderDialog.getCollectionHandoff())
+                    .build();
+            psiHelper.runReadActionInBackground(srcProject, ANALYSE_FIELDS_TITLE,
+                    () -> psiFieldsForBuilderFactory.createPsiFieldsForBuilder(selectedElements, srcClass),
+                    psiFieldsForBuilder -> {
+                        if (!isStillValid(srcClass, existingBuilder)) {
+                            return;
+                        }
+                        BuilderContext context = new BuilderContext(srcProject, psiFieldsForBuilder, targetDirectory, className, srcClass, methodPrefix, options);
+                        builderWriter.writeBuilder(context, existingBuilder);
+                    });
         }
     }
 
-    private CreateBuilderDialog showDialog(PsiClass existingBuilder) {
-        PsiDirectory srcDir = psiHelper.getPsiFileFromEditor(editor, project).getContainingDirectory();
+    /**
+     * The classes may have been changed or deleted while the fields were read in the background.
+     */
+    private static boolean isStillValid(PsiClass srcClass, PsiClass existingBuilder) {
+        return srcClass.isValid() && (existingBuilder == null || existingBuilder.isValid());
+    }
+
+    private CreateBuilderDialog showDialog(Editor editor, Project srcProject, PsiClass srcClass, PsiClass existingBuilder) {
+        PsiDirectory srcDir = psiHelper.getPsiFileFromEditor(editor, srcProject).getContainingDirectory();
         PsiPackage srcPackage = psiHelper.getPackage(srcDir);
-        CreateBuilderDialog dialog = createBuilderDialogFactory.createBuilderDialog(psiClassFromEditor, project, srcPackage, existingBuilder);
+        CreateBuilderDialog dialog = createBuilderDialogFactory.createBuilderDialog(srcClass, srcProject, srcPackage, existingBuilder);
         dialog.show();
         return dialog;
     }
 
     @SuppressWarnings("rawtypes")
     private List<PsiElementClassMember> getFieldsToIncludeInBuilder(PsiClass clazz, boolean innerBuilder, boolean useSingleField, boolean hasButMethod) {
-        return psiFieldSelector.selectFieldsToIncludeInBuilder(clazz, innerBuilder, useSingleField, hasButMethod);
-    }
-
-    public void setPsiClassFromEditor(PsiClass psiClassFromEditor) {
-        this.psiClassFromEditor = psiClassFromEditor;
-    }
-
-    public void setProject(Project project) {
-        this.project = project;
-    }
-
-    public void setEditor(Editor editor) {
-        this.editor = editor;
+        long start = generationTimings.start();
+        List<PsiElementClassMember> fields = psiFieldSelector.selectFieldsToIncludeInBuilder(clazz, innerBuilder, useSingleField, hasButMethod);
+        generationTimings.record(GenerationPhase.SELECT_FIELDS, clazz, start);
+        return fields;
     }
 }
@@ -22,25 +22,25 @@ public class GenerateBuilderActionHandler extends AbstractBuilderActionHandler {
     @Override
     protected void doActionWhenClassToGoIsFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder, PsiClass classToGo) {
         if (!isBuilder) {
-            displayPopup(editor, classToGo);
+            displayPopup(editor, psiClassFromEditor, dataContext, classToGo);
         }
     }
 
     @Override
     protected void doActionWhenClassToGoIsNotFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder) {
         if (!isBuilder) {
-            displayChoosers.run(null);
+            displayChoosers.run(editor, getProject(dataContext), psiClassFromEditor, null);
         }
     }
 
     @SuppressWarnings("rawtypes")
-    private void displayPopup(Editor editor, PsiClass classToGo) {
+    private void displayPopup(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, PsiClass classToGo) {
         JList popupList = popupListFactory.getPopupList();
         popupDisplayer.displayPopupChooser(editor, popupList, () -> {
             if (popupList.getSelectedValue() instanceof GoToBuilderAdditionalAction) {
                 psiHelper.navigateToClass(classToGo);
             } else if (popupList.getSelectedValue() instanceof RegenerateBuilderAdditionalAction) {
-                displayChoosers.run(classToGo);
+                displayChoosers.run(editor, getProject(dataContext), psiClassFromEditor, classToGo);
             }
         });
     }
@@ -25,13 +25,13 @@ public class GoToBuilderActionHandler extends AbstractBuilderActionHandler {
     @Override
     protected void doActionWhenClassToGoIsNotFound(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext, boolean isBuilder) {
         if (!isBuilder) {
-            displayPopup(editor);
+            displayPopup(editor, psiClassFromEditor, dataContext);
         }
     }
 
     @SuppressWarnings("rawtypes")
-    private void displayPopup(Editor editor) {
+    private void displayPopup(Editor editor, PsiClass psiClassFromEditor, DataContext dataContext) {
         JList popupList = popupListFactory.getPopupList();
-        popupDisplayer.displayPopupChooser(editor, popupList, () -> displayChoosers.run(null));
+        popupDisplayer.displayPopupChooser(editor, popupList, () -> displayChoosers.run(editor, getProject(dataContext), psiClassFromEditor, null));
     }
 }
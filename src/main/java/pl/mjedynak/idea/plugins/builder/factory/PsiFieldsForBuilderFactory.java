@@ -7,48 +7,81 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiClassAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiClassAnalysis;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationPhase;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class PsiFieldsForBuilderFactory {
 
     private PsiFieldVerifier psiFieldVerifier;
     private BestConstructorSelector bestConstructorSelector;
+    private PsiClassAnalysisCache psiClassAnalysisCache;
+    private GenerationTimings generationTimings = GenerationTimings.getInstance();
 
-    public PsiFieldsForBuilderFactory(PsiFieldVerifier psiFieldVerifier, BestConstructorSelector bestConstructorSelector) {
+    public PsiFieldsForBuilderFactory(PsiFieldVerifier psiFieldVerifier, BestConstructorSelector bestConstructorSelector, PsiClassAnalysisCache psiClassAnalysisCache) {
         this.psiFieldVerifier = psiFieldVerifier;
         this.bestConstructorSelector = bestConstructorSelector;
+        this.psiClassAnalysisCache = psiClassAnalysisCache;
     }
 
     @SuppressWarnings("rawtypes")
     public PsiFieldsForBuilder createPsiFieldsForBuilder(List<PsiElementClassMember> psiElementClassMembers, PsiClass psiClass) {
+        long start = generationTimings.start();
         List<PsiField> allSelectedPsiFields = Lists.newArrayList();
-        List<PsiField> psiFieldsFoundInSetters = Lists.newArrayList();
         for (PsiElementClassMember psiElementClassMember : psiElementClassMembers) {
             PsiElement psiElement = psiElementClassMember.getPsiElement();
             if (psiElement instanceof PsiField) {
                 allSelectedPsiFields.add((PsiField) psiElement);
-                if (psiFieldVerifier.isSetInSetterMethod((PsiField) psiElement, psiClass)) {
-                    psiFieldsFoundInSetters.add((PsiField) psiElement);
-                }
+            }
+        }
+        PsiClassAnalysis analysis = psiClassAnalysisCache.getAnalysis(psiClass);
+        PsiFieldsForBuilder psiFieldsForBuilder = analysis.getFieldsForBuilder(allSelectedPsiFields,
+                () -> psiClass.isRecord()
+                        ? createRecordFieldsForBuilder(allSelectedPsiFields, psiClass)
+                        : createPsiFieldsForBuilder(allSelectedPsiFields, analysis.getAccessors()));
+        generationTimings.record(GenerationPhase.ANALYSE_FIELDS, psiClass, start);
+        return psiFieldsForBuilder;
+    }
+
+    /**
+     * A record is always built by its canonical constructor, which takes the components in declaration order,
+     * so neither setters nor the other constructors have to be looked at.
+     */
+    private PsiFieldsForBuilder createRecordFieldsForBuilder(List<PsiField> allSelectedPsiFields, PsiClass psiClass) {
+        List<PsiField> psiFieldsForConstructor = psiFieldVerifier.getRecordFields(psiClass).stream()
+                .filter(allSelectedPsiFields::contains)
+                .collect(Collectors.toList());
+        return new PsiFieldsForBuilder(Lists.newArrayList(), psiFieldsForConstructor, allSelectedPsiFields, psiFieldVerifier.findCanonicalConstructor(psiClass));
+    }
+
+    private PsiFieldsForBuilder createPsiFieldsForBuilder(List<PsiField> allSelectedPsiFields, PsiClassAccessors accessors) {
+        List<PsiField> psiFieldsFoundInSetters = Lists.newArrayList();
+        for (PsiField selectedPsiField : allSelectedPsiFields) {
+            if (psiFieldVerifier.isSetInSetterMethod(selectedPsiField, accessors)) {
+                psiFieldsFoundInSetters.add(selectedPsiField);
             }
         }
         List<PsiField> psiFieldsToFindInConstructor = getSubList(allSelectedPsiFields, psiFieldsFoundInSetters);
         List<PsiField> psiFieldsForConstructor = Lists.newArrayList();
-        PsiMethod bestConstructor = bestConstructorSelector.getBestConstructor(psiFieldsToFindInConstructor, psiClass);
+        PsiMethod bestConstructor = bestConstructorSelector.getBestConstructor(psiFieldsToFindInConstructor, accessors);
         if (bestConstructor != null) {
-            buildPsiFieldsForConstructor(psiFieldsForConstructor, allSelectedPsiFields, bestConstructor);
+            buildPsiFieldsForConstructor(psiFieldsForConstructor, allSelectedPsiFields, bestConstructor, accessors);
         }
         List<PsiField> psiFieldsForSetters = getSubList(psiFieldsFoundInSetters, psiFieldsForConstructor);
 
         return new PsiFieldsForBuilder(psiFieldsForSetters, psiFieldsForConstructor, allSelectedPsiFields, bestConstructor);
     }
 
-    private void buildPsiFieldsForConstructor(List<PsiField> psiFieldsForConstructor, List<PsiField> allSelectedPsiFields, PsiMethod bestConstructor) {
+    private void buildPsiFieldsForConstructor(List<PsiField> psiFieldsForConstructor, List<PsiField> allSelectedPsiFields, PsiMethod bestConstructor, PsiClassAccessors accessors) {
         for (PsiField selectedPsiField : allSelectedPsiFields) {
-            if (psiFieldVerifier.checkConstructor(selectedPsiField, bestConstructor)) {
+            if (psiFieldVerifier.checkConstructor(selectedPsiField, bestConstructor, accessors)) {
                 psiFieldsForConstructor.add(selectedPsiField);
             }
         }
@@ -17,10 +17,14 @@ public class BuilderFinder {
         PsiClass innerBuilderClass = tryFindInnerBuilder(psiClass);
         if (innerBuilderClass != null) {
             return innerBuilderClass;
-        } else {
-            String searchName = psiClass.getName() + SEARCH_PATTERN;
-            return findClass(psiClass, searchName);
         }
+        PsiClass indexedBuilderClass = typeIsCorrect(psiClass) ? classFinder.findBuilderForClass(psiClass) : null;
+        if (indexedBuilderClass != null) {
+            return indexedBuilderClass;
+        }
+        String searchName = psiClass.getName() + SEARCH_PATTERN;
+        PsiClass builderClass = findClass(psiClass, searchName);
+        return builderClass != null && buildsOtherClass(builderClass, psiClass) ? null : builderClass;
     }
 
     private PsiClass tryFindInnerBuilder(PsiClass psiClass) {
@@ -36,8 +40,34 @@ public class BuilderFinder {
     }
 
     public PsiClass findClassForBuilder(PsiClass psiClass) {
+        PsiClass builtClass = findClassBuiltBy(psiClass);
+        if (builtClass != null) {
+            return builtClass;
+        }
         String searchName = psiClass.getName().replaceFirst(SEARCH_PATTERN, EMPTY_STRING);
-        return findClass(psiClass, searchName);
+        PsiClass classFoundByName = findClass(psiClass, searchName);
+        return classFoundByName != null && hasOtherBuilder(classFoundByName, psiClass) ? null : classFoundByName;
+    }
+
+    /**
+     * Finds the class from the {@code build()} method of the builder alone, without guessing it from the names.
+     */
+    public PsiClass findClassBuiltBy(PsiClass builder) {
+        return typeIsCorrect(builder) ? classFinder.findClassBuiltBy(builder) : null;
+    }
+
+    /**
+     * A builder found by name alone is only taken when its {@code build()} cannot be resolved, so a same-named
+     * builder of a class from another package is not mistaken for the builder of this one.
+     */
+    private boolean buildsOtherClass(PsiClass builderClass, PsiClass psiClass) {
+        PsiClass builtClass = classFinder.findClassBuiltBy(builderClass);
+        return builtClass != null && !psiClass.isEquivalentTo(builtClass);
+    }
+
+    private boolean hasOtherBuilder(PsiClass psiClass, PsiClass builderClass) {
+        PsiClass indexedBuilderClass = classFinder.findBuilderForClass(psiClass);
+        return indexedBuilderClass != null && !builderClass.isEquivalentTo(indexedBuilderClass);
     }
 
     private PsiClass findClass(PsiClass psiClass, String searchName) {
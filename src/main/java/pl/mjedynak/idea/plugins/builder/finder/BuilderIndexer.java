@@ -0,0 +1,181 @@
+package pl.mjedynak.idea.plugins.builder.finder;
+
+import com.intellij.lang.java.lexer.JavaLexer;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.pom.java.LanguageLevel;
+import com.intellij.psi.JavaTokenType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiTypeElement;
+import com.intellij.psi.impl.source.tree.ElementType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileContent;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Indexes every class with a no-argument {@code build()} method under the qualified name of the returned class.
+ * Names are worked out from the source text only, as an indexer must not resolve references,
+ * so callers verify every hit against the resolved return type. The class implementing the stages
+ * of a staged builder is indexed as the builder enclosing it. Files are lexed first and only those which
+ * declare such a method are parsed.
+ */
+class BuilderIndexer implements DataIndexer<String, String, FileContent> {
+
+    static final String BUILD_METHOD_NAME = "build";
+
+    private static final TokenSet RETURN_TYPE_ENDS = TokenSet.create(JavaTokenType.IDENTIFIER, JavaTokenType.GT, JavaTokenType.RBRACKET);
+    private static final TokenSet METHOD_BODY_STARTS = TokenSet.create(JavaTokenType.LBRACE, JavaTokenType.THROWS_KEYWORD, JavaTokenType.SEMICOLON);
+
+    @NotNull
+    @Override
+    public Map<String, String> map(@NotNull FileContent inputData) {
+        if (!declaresBuildMethod(inputData.getContentAsText())) {
+            return Collections.emptyMap();
+        }
+        PsiFile psiFile = inputData.getPsiFile();
+        return psiFile instanceof PsiJavaFile ? indexBuilders((PsiJavaFile) psiFile) : Collections.emptyMap();
+    }
+
+    /**
+     * Looks for the tokens of {@code Type build()} followed by a body, {@code throws} or {@code ;}, which calls
+     * such as {@code builder.build()} do not match.
+     */
+    static boolean declaresBuildMethod(CharSequence text) {
+        if (!StringUtil.contains(text, BUILD_METHOD_NAME)) {
+            return false;
+        }
+        Lexer lexer = new JavaLexer(LanguageLevel.HIGHEST);
+        lexer.start(text);
+        int matchedTokens = 0;
+        for (IElementType tokenType = lexer.getTokenType(); tokenType != null; lexer.advance(), tokenType = lexer.getTokenType()) {
+            if (ElementType.JAVA_COMMENT_OR_WHITESPACE_BIT_SET.contains(tokenType)) {
+                continue;
+            }
+            if (matchedTokens == 1 && tokenType == JavaTokenType.IDENTIFIER
+                    && StringUtil.equals(text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()), BUILD_METHOD_NAME)) {
+                matchedTokens = 2;
+            } else if (matchedTokens == 2 && tokenType == JavaTokenType.LPARENTH) {
+                matchedTokens = 3;
+            } else if (matchedTokens == 3 && tokenType == JavaTokenType.RPARENTH) {
+                matchedTokens = 4;
+            } else if (matchedTokens == 4 && METHOD_BODY_STARTS.contains(tokenType)) {
+                return true;
+            } else {
+                matchedTokens = RETURN_TYPE_ENDS.contains(tokenType) ? 1 : 0;
+            }
+        }
+        return false;
+    }
+
+    Map<String, String> indexBuilders(PsiJavaFile javaFile) {
+        Map<String, String> builtClassesToBuilders = new HashMap<>();
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            indexBuilders(javaFile, psiClass, builtClassesToBuilders);
+        }
+        return builtClassesToBuilders;
+    }
+
+    private void indexBuilders(PsiJavaFile javaFile, PsiClass psiClass, Map<String, String> builtClassesToBuilders) {
+        String builderName = getBuilderName(psiClass);
+        String builtClassName = getBuiltClassName(javaFile, psiClass);
+        if (builderName != null && builtClassName != null) {
+            builtClassesToBuilders.putIfAbsent(builtClassName, builderName);
+        }
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            indexBuilders(javaFile, innerClass, builtClassesToBuilders);
+        }
+    }
+
+    private String getBuilderName(PsiClass psiClass) {
+        PsiClass containingClass = psiClass.getContainingClass();
+        if (containingClass != null && GenerationSession.STEPS_CLASS_NAME.equals(psiClass.getName())) {
+            return containingClass.getQualifiedName();
+        }
+        return psiClass.getQualifiedName();
+    }
+
+    private String getBuiltClassName(PsiJavaFile javaFile, PsiClass psiClass) {
+        for (PsiMethod method : psiClass.findMethodsByName(BUILD_METHOD_NAME, false)) {
+            PsiTypeElement returnTypeElement = method.getReturnTypeElement();
+            if (method.getParameterList().getParametersCount() == 0 && returnTypeElement != null) {
+                PsiJavaCodeReferenceElement reference = returnTypeElement.getInnermostComponentReferenceElement();
+                return reference != null ? qualify(javaFile, psiClass, reference) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Qualifies the first name of the reference by the classes of the file, as seen from the builder, then by the
+     * single-type imports. A reference starting with a lower case name is taken as already qualified by its package,
+     * and any other as a class of the same package.
+     */
+    private String qualify(PsiJavaFile javaFile, PsiClass builder, PsiJavaCodeReferenceElement reference) {
+        String name = reference.getReferenceName();
+        if (name == null) {
+            return null;
+        }
+        PsiElement qualifier = reference.getQualifier();
+        String referenceText = qualifier != null ? qualifier.getText() + "." + name : name;
+        int firstDot = referenceText.indexOf('.');
+        String firstName = firstDot < 0 ? referenceText : referenceText.substring(0, firstDot);
+        String qualifiedFirstName = findClassOfFile(javaFile, builder, firstName);
+        if (qualifiedFirstName == null) {
+            qualifiedFirstName = findSingleTypeImport(javaFile, firstName);
+        }
+        if (qualifiedFirstName != null) {
+            return qualifiedFirstName + referenceText.substring(firstName.length());
+        }
+        if (qualifier != null && Character.isLowerCase(firstName.charAt(0))) {
+            return referenceText;
+        }
+        String packageName = javaFile.getPackageName();
+        return packageName.isEmpty() ? referenceText : packageName + "." + referenceText;
+    }
+
+    private static String findClassOfFile(PsiJavaFile javaFile, PsiClass builder, String name) {
+        for (PsiClass scope = builder; scope != null; scope = scope.getContainingClass()) {
+            if (name.equals(scope.getName())) {
+                return scope.getQualifiedName();
+            }
+            for (PsiClass innerClass : scope.getInnerClasses()) {
+                if (name.equals(innerClass.getName())) {
+                    return innerClass.getQualifiedName();
+                }
+            }
+        }
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            if (name.equals(psiClass.getName())) {
+                return psiClass.getQualifiedName();
+            }
+        }
+        return null;
+    }
+
+    private static String findSingleTypeImport(PsiJavaFile javaFile, String name) {
+        PsiImportList importList = javaFile.getImportList();
+        if (importList != null) {
+            for (PsiImportStatement importStatement : importList.getImportStatements()) {
+                String importedName = importStatement.getQualifiedName();
+                if (!importStatement.isOnDemand() && importedName != null && importedName.endsWith("." + name)) {
+                    return importedName;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -2,8 +2,13 @@ package pl.mjedynak.idea.plugins.builder.finder;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiTypeParameter;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiShortNamesCache;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
 public class ClassFinder {
@@ -23,6 +28,42 @@ public class ClassFinder {
         return result;
     }
 
+    /**
+     * Looks the builder up in {@link BuilderIndex} by the qualified name of the class it builds,
+     * accepting only a builder whose {@code build()} method really returns that class.
+     */
+    public PsiClass findBuilderForClass(PsiClass psiClass) {
+        String qualifiedName = psiClass.getQualifiedName();
+        if (qualifiedName == null) {
+            return null;
+        }
+        Project project = psiClass.getProject();
+        GlobalSearchScope projectScope = GlobalSearchScope.projectScope(project);
+        for (String builderName : psiHelper.getFileBasedIndex().getValues(BuilderIndex.NAME, qualifiedName, projectScope)) {
+            PsiClass builder = psiHelper.getJavaPsiFacade(project).findClass(builderName, projectScope);
+            if (builder != null && psiClass.isEquivalentTo(findClassBuiltBy(builder))) {
+                return builder;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the return type of {@code build()}. Only a class declared in the project sources counts, so a builder
+     * returning a library type or a type parameter is not taken for a builder of that type.
+     */
+    public PsiClass findClassBuiltBy(PsiClass builder) {
+        for (PsiMethod method : builder.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)) {
+            PsiType returnType = method.getReturnType();
+            if (method.getParameterList().getParametersCount() == 0 && returnType instanceof PsiClassType) {
+                PsiClass builtClass = ((PsiClassType) returnType).resolve();
+                return builtClass != null && !(builtClass instanceof PsiTypeParameter) && psiHelper.isInProjectSources(builtClass) ? builtClass : null;
+            }
+        }
+        PsiClass steps = builder.findInnerClassByName(GenerationSession.STEPS_CLASS_NAME, false);
+        return steps != null ? findClassBuiltBy(steps) : null;
+    }
+
     private PsiClass getPsiClass(PsiClass[] classesArray) {
         return (classesArray != null && classesArray.length != 0) ? classesArray[0] : null;
     }
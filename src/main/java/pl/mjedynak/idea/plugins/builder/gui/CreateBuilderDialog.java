@@ -8,6 +8,7 @@ import com.intellij.openapi.actionSystem.CustomShortcutSet;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.Messages;
 import com.intellij.psi.JavaPsiFacade;
@@ -26,6 +27,8 @@ import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseBu
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+import pl.mjedynak.idea.plugins.builder.settings.GeneratorProfile;
 
 import javax.swing.Action;
 import javax.swing.JCheckBox;
@@ -63,6 +66,13 @@ public class CreateBuilderDialog extends DialogWrapper {
     private JCheckBox innerBuilder;
     private JCheckBox butMethod;
     private JCheckBox useSingleField;
+    private JCheckBox stagedBuilder;
+    private JCheckBox reusableBuilder;
+    private JCheckBox directWithers;
+    private JCheckBox sparseBuilder;
+    private JCheckBox collectionAccumulators;
+    private ComboBox<GeneratorProfile> generatorProfile;
+    private ComboBox<CollectionHandoff> collectionHandoff;
     private ReferenceEditorComboWithBrowseButton targetPackageField;
     private PsiClass existingBuilder;
 
@@ -253,6 +263,153 @@ public class CreateBuilderDialog extends DialogWrapper {
         panel.add(useSingleField, gbConstraints);
         // useSingleField
 
+
+        // staged builder
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 7;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Staged builder"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        stagedBuilder = new JCheckBox();
+        stagedBuilder.setSelected(defaultStates.isStagedBuilder);
+        panel.add(stagedBuilder, gbConstraints);
+        // staged builder
+
+
+        // reusable builder
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 8;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("reset() and buildInto()"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        reusableBuilder = new JCheckBox();
+        reusableBuilder.setSelected(defaultStates.isReusableBuilder);
+        panel.add(reusableBuilder, gbConstraints);
+        // reusable builder
+
+
+        // direct withers
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 9;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Direct withers"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        directWithers = new JCheckBox();
+        directWithers.setSelected(defaultStates.isDirectWithers);
+        panel.add(directWithers, gbConstraints);
+        // direct withers
+
+
+        // sparse builder
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 10;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Sparse builder"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        sparseBuilder = new JCheckBox();
+        sparseBuilder.setSelected(defaultStates.isSparseBuilder);
+        panel.add(sparseBuilder, gbConstraints);
+        // sparse builder
+
+
+        // generator profile
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 11;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Generated artifacts"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        generatorProfile = new ComboBox<>(GeneratorProfile.values());
+        generatorProfile.setSelectedItem(defaultStates.generatorProfile);
+        panel.add(generatorProfile, gbConstraints);
+        // generator profile
+
+
+        // collection accumulators
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 12;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Collection accumulators"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        collectionAccumulators = new JCheckBox();
+        collectionAccumulators.setSelected(defaultStates.isCollectionAccumulators);
+        panel.add(collectionAccumulators, gbConstraints);
+        // collection accumulators
+
+
+        // collection handoff
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 0;
+        gbConstraints.weightx = 0;
+        gbConstraints.gridy = 13;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        panel.add(new JLabel("Collection handoff"), gbConstraints);
+
+        gbConstraints.insets = new Insets(4, 8, 4, 8);
+        gbConstraints.gridx = 1;
+        gbConstraints.weightx = 1;
+        gbConstraints.gridwidth = 1;
+        gbConstraints.fill = GridBagConstraints.HORIZONTAL;
+        gbConstraints.anchor = GridBagConstraints.WEST;
+        collectionHandoff = new ComboBox<>(CollectionHandoff.values());
+        collectionHandoff.setSelectedItem(defaultStates.collectionHandoff);
+        panel.add(collectionHandoff, gbConstraints);
+        // collection handoff
+
         return panel;
     }
 
@@ -347,6 +504,34 @@ public class CreateBuilderDialog extends DialogWrapper {
         return useSingleField.isSelected();
     }
 
+    public boolean isStagedBuilder() {
+        return stagedBuilder.isSelected();
+    }
+
+    public boolean isReusableBuilder() {
+        return reusableBuilder.isSelected();
+    }
+
+    public boolean hasDirectWithers() {
+        return directWithers.isSelected();
+    }
+
+    public boolean isSparseBuilder() {
+        return sparseBuilder.isSelected();
+    }
+
+    public boolean hasCollectionAccumulators() {
+        return collectionAccumulators.isSelected();
+    }
+
+    public GeneratorProfile getGeneratorProfile() {
+        return (GeneratorProfile) generatorProfile.getSelectedItem();
+    }
+
+    public CollectionHandoff getCollectionHandoff() {
+        return (CollectionHandoff) collectionHandoff.getSelectedItem();
+    }
+
     public PsiDirectory getTargetDirectory() {
         return targetDirectory;
     }
@@ -0,0 +1,187 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.psi.CollectionAccumulator;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorApplicationService;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+import pl.mjedynak.idea.plugins.builder.settings.GeneratorProfile;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.GenerationOptions;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Adds the fields the builder lacks, with their methods and the statements of {@code build()} and the copy constructor
+ * using them, leaving every other member as it is. The options the builder was generated with are read back from its shape.
+ */
+public class AddMissingBuilderFieldsQuickFix implements LocalQuickFix {
+
+    static final String NAME = "Add missing fields to builder";
+
+    private final NameNormalizer nameNormalizer = new NameNormalizer(new CodeStyleSettings());
+
+    @NotNull
+    @Override
+    public String getFamilyName() {
+        return NAME;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiClass builder = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class);
+        if (builder == null) {
+            return;
+        }
+        BuilderGeneratorApplicationService services = BuilderGeneratorApplicationService.getInstance();
+        PsiClass builtClass = services.getBuilderSyncChecker().findBuiltClass(builder);
+        if (builtClass == null) {
+            return;
+        }
+        boolean innerBuilder = BuilderSyncChecker.isInnerBuilder(builder, builtClass);
+        boolean hasButMethod = hasMethod(builder, "but");
+        PsiClass fieldHolder = BuilderSyncChecker.getFieldHolder(builder);
+        List<PsiElementClassMember> members = services.getPsiFieldSelector().selectFieldsToIncludeInBuilder(builtClass, innerBuilder, false, hasButMethod);
+        PsiFieldsForBuilder psiFieldsForBuilder = services.getPsiFieldsForBuilderFactory().createPsiFieldsForBuilder(members, builtClass);
+        String methodPrefix = findMethodPrefix(fieldHolder);
+        GenerationOptions options = GenerationOptions.builder()
+                .inner(innerBuilder)
+                .butMethod(hasButMethod)
+                .singlePass(true)
+                .patchExisting(true)
+                .staged(fieldHolder != builder)
+                .reusable(hasMethod(builder, "reset"))
+                .directWithers(hasDirectWithers(builtClass, fieldHolder, methodPrefix))
+                .sparse(fieldHolder.findFieldByName(GenerationSession.FIELDS_SET_MASK, false) != null)
+                .profile(findProfile(builder, builtClass))
+                .collectionAccumulators(hasCapacityMethod(builder))
+                .collectionHandoff(findCollectionHandoff(fieldHolder))
+                .build();
+        BuilderContext context = new BuilderContext(project, psiFieldsForBuilder, null, builder.getName(), builtClass, methodPrefix, options);
+        services.getBuilderPsiClassBuilder().addMissingMembers(context, builder);
+    }
+
+    private static boolean hasMethod(PsiClass psiClass, String methodName) {
+        return psiClass.findMethodsByName(methodName, false).length > 0;
+    }
+
+    /**
+     * Direct withers are added for the missing fields only when the built class has them for the fields the builder
+     * already holds, and each of them was generated. A hand-written method of the same shape does not count.
+     */
+    private boolean hasDirectWithers(PsiClass builtClass, PsiClass fieldHolder, String methodPrefix) {
+        boolean hasDirectWither = false;
+        for (PsiField builderField : fieldHolder.getFields()) {
+            PsiField psiField = builtClass.findFieldByName(builderField.getName(), false);
+            if (psiField == null) {
+                continue;
+            }
+            for (PsiMethod method : builtClass.findMethodsByName(nameNormalizer.of(psiField).getBuilderMethodName(methodPrefix), false)) {
+                PsiType returnType = method.getReturnType();
+                if (method.getParameterList().getParametersCount() == 1 && returnType instanceof PsiClassType
+                        && builtClass.equals(((PsiClassType) returnType).resolve())) {
+                    if (!GenerationSession.isDirectWither(method, psiField, nameNormalizer)) {
+                        return false;
+                    }
+                    hasDirectWither = true;
+                }
+            }
+        }
+        return hasDirectWither;
+    }
+
+    private static boolean hasCapacityMethod(PsiClass builder) {
+        return Arrays.stream(builder.getMethods())
+                .anyMatch(method -> method.getName().endsWith(CollectionAccumulator.getCapacityMethodName(""))
+                        && method.getParameterList().getParametersCount() == 1
+                        && PsiType.INT.equals(method.getParameterList().getParameters()[0].getType()));
+    }
+
+    /**
+     * Reads the strategy back from {@code build()}, which must hand every collection field of the builder over exactly
+     * as that strategy renders it. Anything else, including a builder without collection fields, is shared.
+     */
+    private CollectionHandoff findCollectionHandoff(PsiClass fieldHolder) {
+        StringBuilder buildText = new StringBuilder();
+        for (PsiMethod method : fieldHolder.findMethodsByName("build", false)) {
+            buildText.append(normalize(method.getText()));
+        }
+        CollectionHandoff collectionHandoff = null;
+        for (PsiField psiField : fieldHolder.getFields()) {
+            CollectionAccumulator accumulator = CollectionAccumulator.of(psiField, nameNormalizer);
+            if (accumulator == null) {
+                continue;
+            }
+            CollectionHandoff fieldHandoff = findCollectionHandoff(accumulator, buildText.toString());
+            if (collectionHandoff != null && collectionHandoff != fieldHandoff) {
+                return CollectionHandoff.SHARE;
+            }
+            collectionHandoff = fieldHandoff;
+        }
+        return collectionHandoff != null ? collectionHandoff : CollectionHandoff.SHARE;
+    }
+
+    private static CollectionHandoff findCollectionHandoff(CollectionAccumulator accumulator, String buildText) {
+        if (buildText.contains(normalize(accumulator.getHandoffExpression(CollectionHandoff.COPY_ON_BUILD, true)))
+                || buildText.contains(normalize(accumulator.getHandoffExpression(CollectionHandoff.COPY_ON_BUILD, false)))) {
+            return CollectionHandoff.COPY_ON_BUILD;
+        }
+        if (buildText.contains(normalize(accumulator.getHandoffExpression(CollectionHandoff.TRANSFER, false)))
+                && buildText.contains(normalize(accumulator.getReleaseStatement()))) {
+            return CollectionHandoff.TRANSFER;
+        }
+        return CollectionHandoff.SHARE;
+    }
+
+    /**
+     * Generated references to {@code java.util} are shortened and the code reformatted, so neither is compared.
+     */
+    private static String normalize(String text) {
+        return text.replaceAll("\\s+", "").replace("java.util.", "");
+    }
+
+    private static GeneratorProfile findProfile(PsiClass builder, PsiClass builtClass) {
+        if (builder.findInnerClassByName(GenerationSession.WITHER_INTERFACE_NAME, false) != null) {
+            return GeneratorProfile.FULL;
+        }
+        return hasMethod(builtClass, "builder") ? GeneratorProfile.STANDARD : GeneratorProfile.MINIMAL;
+    }
+
+    /**
+     * Takes the prefix from the first builder method named after a field, falling back to the default prefix.
+     */
+    private String findMethodPrefix(PsiClass fieldHolder) {
+        for (PsiField psiField : fieldHolder.getFields()) {
+            NameNormalizer.FieldNames names = nameNormalizer.of(psiField);
+            for (PsiMethod method : fieldHolder.getMethods()) {
+                String methodName = method.getName();
+                if (method.isConstructor() || method.getParameterList().getParametersCount() != 1) {
+                    continue;
+                }
+                if (methodName.equals(names.getName())) {
+                    return "";
+                }
+                if (methodName.endsWith(names.getCapitalizedName()) && methodName.length() > names.getCapitalizedName().length()) {
+                    return methodName.substring(0, methodName.length() - names.getCapitalizedName().length());
+                }
+            }
+        }
+        return BuilderGeneratorSettingsState.getInstance().defaultMethodPrefix;
+    }
+}
@@ -0,0 +1,35 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInspection.AbstractBaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiIdentifier;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorApplicationService;
+
+import java.util.List;
+
+/**
+ * Reports a builder which lacks fields of the class it builds, typically because they were added after the builder
+ * had been generated, and offers to patch them in.
+ */
+public class BuilderOutOfSyncInspection extends AbstractBaseJavaLocalInspectionTool {
+
+    @Override
+    public ProblemDescriptor[] checkClass(@NotNull PsiClass aClass, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        PsiIdentifier nameIdentifier = aClass.getNameIdentifier();
+        if (nameIdentifier == null) {
+            return null;
+        }
+        List<String> missingFieldNames = BuilderGeneratorApplicationService.getInstance().getBuilderSyncChecker().getMissingFieldNames(aClass);
+        if (missingFieldNames.isEmpty()) {
+            return null;
+        }
+        String message = "Builder lacks " + (missingFieldNames.size() == 1 ? "field " : "fields ") + String.join(", ", missingFieldNames);
+        return new ProblemDescriptor[]{manager.createProblemDescriptor(nameIdentifier, message, isOnTheFly,
+                new LocalQuickFix[]{new AddMissingBuilderFieldsQuickFix()}, ProblemHighlightType.GENERIC_ERROR_OR_WARNING)};
+    }
+}
@@ -0,0 +1,126 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the fields of a class which its builder lacks. The result is cached on the builder until the Java structure
+ * of the project changes, which covers fields inherited from other files and a changed built class,
+ * so highlighting does not repeat the comparison on every pass.
+ */
+public class BuilderSyncChecker {
+
+    private static final Key<CachedValue<List<String>>> MISSING_FIELDS_KEY = Key.create("BuilderGenerator.MissingFields");
+
+    private BuilderVerifier builderVerifier;
+    private BuilderFinder builderFinder;
+    private PsiFieldSelector psiFieldSelector;
+
+    public BuilderSyncChecker(BuilderVerifier builderVerifier, BuilderFinder builderFinder, PsiFieldSelector psiFieldSelector) {
+        this.builderVerifier = builderVerifier;
+        this.builderFinder = builderFinder;
+        this.psiFieldSelector = psiFieldSelector;
+    }
+
+    public List<String> getMissingFieldNames(PsiClass builder) {
+        if (builder.getName() == null || builder.isInterface() || !builderVerifier.isBuilder(builder)) {
+            return Collections.emptyList();
+        }
+        return CachedValuesManager.getCachedValue(builder, MISSING_FIELDS_KEY, () -> {
+            ModificationTracker javaStructure = PsiModificationTracker.getInstance(builder.getProject()).getJavaStructureModificationTracker();
+            PsiClass builtClass = findBuiltClass(builder);
+            if (builtClass == null || builtClass.getContainingFile() == null || !hasGeneratedShape(builder, builtClass)) {
+                return CachedValueProvider.Result.create(Collections.<String>emptyList(), builder.getContainingFile(), javaStructure);
+            }
+            return CachedValueProvider.Result.create(findMissingFieldNames(builder, builtClass), builder.getContainingFile(), builtClass.getContainingFile(), javaStructure);
+        });
+    }
+
+    public PsiClass findBuiltClass(PsiClass builder) {
+        return builderFinder.findClassBuiltBy(builder);
+    }
+
+    /**
+     * A generated builder is either staged or has the copy constructor taking the built class, which tells it apart
+     * from a hand-written builder whose fields need not follow the class it builds.
+     */
+    static boolean hasGeneratedShape(PsiClass builder, PsiClass builtClass) {
+        if (builder.findInnerClassByName(GenerationSession.STEPS_CLASS_NAME, false) != null) {
+            return true;
+        }
+        for (PsiMethod constructor : builder.getConstructors()) {
+            PsiParameter[] parameters = constructor.getParameterList().getParameters();
+            if (parameters.length == 1 && isOfClass(parameters[0].getType(), builtClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the resolved class rather than the text, which for a generic class carries its type arguments.
+     */
+    private static boolean isOfClass(PsiType type, PsiClass psiClass) {
+        return type instanceof PsiClassType && psiClass.equals(((PsiClassType) type).resolve());
+    }
+
+    /**
+     * Holds the builder state, which for a staged builder is its nested class implementing the stages.
+     */
+    public static PsiClass getFieldHolder(PsiClass builder) {
+        PsiClass steps = builder.findInnerClassByName(GenerationSession.STEPS_CLASS_NAME, false);
+        return steps != null ? steps : builder;
+    }
+
+    public static boolean isInnerBuilder(PsiClass builder, PsiClass builtClass) {
+        return builtClass.equals(builder.getContainingClass());
+    }
+
+    @SuppressWarnings("rawtypes")
+    List<String> findMissingFieldNames(PsiClass builder, PsiClass builtClass) {
+        PsiClass fieldHolder = getFieldHolder(builder);
+        if (usesSingleField(fieldHolder, builtClass)) {
+            return Collections.emptyList();
+        }
+        List<String> missingFieldNames = new ArrayList<>();
+        for (PsiElementClassMember member : psiFieldSelector.selectFieldsToIncludeInBuilder(builtClass, isInnerBuilder(builder, builtClass), false, false)) {
+            PsiElement psiElement = member.getPsiElement();
+            if (psiElement instanceof PsiField) {
+                String fieldName = ((PsiField) psiElement).getName();
+                if (fieldHolder.findFieldByName(fieldName, false) == null && !missingFieldNames.contains(fieldName)) {
+                    missingFieldNames.add(fieldName);
+                }
+            }
+        }
+        return missingFieldNames;
+    }
+
+    private boolean usesSingleField(PsiClass fieldHolder, PsiClass builtClass) {
+        for (PsiField psiField : fieldHolder.getFields()) {
+            if (isOfClass(psiField.getType(), builtClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
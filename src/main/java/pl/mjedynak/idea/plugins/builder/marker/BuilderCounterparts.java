@@ -0,0 +1,64 @@
+package pl.mjedynak.idea.plugins.builder.marker;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps every class of a file to its builder and every builder to the class it builds. The mapping is computed once
+ * per file and kept until the structure of some Java file changes, so editing method bodies does not repeat the lookups.
+ */
+public class BuilderCounterparts {
+
+    private static final Key<CachedValue<Map<PsiClass, PsiClass>>> COUNTERPARTS_KEY = Key.create("BuilderGenerator.Counterparts");
+
+    private BuilderVerifier builderVerifier;
+    private BuilderFinder builderFinder;
+
+    public BuilderCounterparts(BuilderVerifier builderVerifier, BuilderFinder builderFinder) {
+        this.builderVerifier = builderVerifier;
+        this.builderFinder = builderFinder;
+    }
+
+    public PsiClass findCounterpart(PsiClass psiClass) {
+        PsiFile psiFile = psiClass.getContainingFile();
+        if (psiFile == null) {
+            return null;
+        }
+        Map<PsiClass, PsiClass> counterparts = CachedValuesManager.getCachedValue(psiFile, COUNTERPARTS_KEY, () -> CachedValueProvider.Result.create(
+                findCounterparts(PsiTreeUtil.findChildrenOfType(psiFile, PsiClass.class)),
+                PsiModificationTracker.getInstance(psiFile.getProject()).getJavaStructureModificationTracker()));
+        PsiClass counterpart = counterparts.get(psiClass);
+        return counterpart != null && counterpart.isValid() ? counterpart : null;
+    }
+
+    public boolean isBuilder(PsiClass psiClass) {
+        return builderVerifier.isBuilder(psiClass);
+    }
+
+    Map<PsiClass, PsiClass> findCounterparts(Collection<PsiClass> psiClasses) {
+        Map<PsiClass, PsiClass> counterparts = new HashMap<>();
+        for (PsiClass psiClass : psiClasses) {
+            if (psiClass.getName() == null || psiClass.getQualifiedName() == null) {
+                continue;
+            }
+            PsiClass counterpart = isBuilder(psiClass) ? builderFinder.findClassForBuilder(psiClass) : builderFinder.findBuilderForClass(psiClass);
+            if (counterpart != null && !counterpart.equals(psiClass)) {
+                counterparts.put(psiClass, counterpart);
+            }
+        }
+        return counterparts.isEmpty() ? Collections.emptyMap() : counterparts;
+    }
+}
@@ -0,0 +1,43 @@
+package pl.mjedynak.idea.plugins.builder.marker;
+
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo;
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerProvider;
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiIdentifier;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorApplicationService;
+
+import java.util.Collection;
+
+/**
+ * Shows a gutter icon on a class which has a builder and on the builder, navigating from one to the other.
+ */
+public class BuilderLineMarkerProvider extends RelatedItemLineMarkerProvider {
+
+    static final String GO_TO_BUILDER = "Go to builder ";
+    static final String GO_TO_BUILT_CLASS = "Go to built class ";
+
+    @Override
+    protected void collectNavigationMarkers(@NotNull PsiElement element, @NotNull Collection<? super RelatedItemLineMarkerInfo<?>> result) {
+        if (!(element instanceof PsiIdentifier) || !(element.getParent() instanceof PsiClass)) {
+            return;
+        }
+        PsiClass psiClass = (PsiClass) element.getParent();
+        if (psiClass.getNameIdentifier() != element) {
+            return;
+        }
+        BuilderCounterparts builderCounterparts = BuilderGeneratorApplicationService.getInstance().getBuilderCounterparts();
+        PsiClass counterpart = builderCounterparts.findCounterpart(psiClass);
+        if (counterpart == null) {
+            return;
+        }
+        boolean builder = builderCounterparts.isBuilder(psiClass);
+        result.add(NavigationGutterIconBuilder.create(builder ? AllIcons.Gutter.ImplementingMethod : AllIcons.Gutter.ImplementedMethod)
+                .setTarget(counterpart)
+                .setTooltipText((builder ? GO_TO_BUILT_CLASS : GO_TO_BUILDER) + counterpart.getName())
+                .createLineMarkerInfo(element));
+    }
+}
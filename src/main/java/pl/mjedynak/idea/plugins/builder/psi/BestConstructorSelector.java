@@ -2,129 +2,121 @@ package pl.mjedynak.idea.plugins.builder.psi;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.verifier.ConstructorSignature;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.TreeSet;
 
+/**
+ * Picks the constructor matching most of the given fields. Holds no state between calls,
+ * so it can be shared by analyses running in parallel.
+ * <p>
+ * Constructors with more parameters than fields are tried from the fewest parameters up, and among those with the
+ * same parameter count the first declared one matching all fields wins. Every one of them is considered, so a
+ * matching constructor is found even if an earlier one has the same number of parameters.
+ */
 public class BestConstructorSelector {
 
-    private PsiFieldVerifier psiFieldVerifier;
-
-    private List<ConstructorWithExtraData> constructorsWithEqualParameterCount;
-    private TreeSet<ConstructorWithExtraData> constructorsWithHigherParameterCount;
-    private List<ConstructorWithExtraData> constructorsWithLowerParameterCount;
+    private final PsiFieldVerifier psiFieldVerifier;
 
     public BestConstructorSelector(PsiFieldVerifier psiFieldVerifier) {
         this.psiFieldVerifier = psiFieldVerifier;
     }
 
     public PsiMethod getBestConstructor(Collection<PsiField> psiFieldsToFindInConstructor, PsiClass psiClass) {
+        return getBestConstructor(psiFieldsToFindInConstructor, psiFieldVerifier.accessorsOf(psiClass));
+    }
+
+    public PsiMethod getBestConstructor(Collection<PsiField> psiFieldsToFindInConstructor, PsiClassAccessors accessors) {
         int fieldsToFindCount = psiFieldsToFindInConstructor.size();
-        createConstructorLists(psiFieldsToFindInConstructor, psiClass);
+        List<ScoredConstructor> constructorsWithEqualParameterCount = Lists.newArrayList();
+        List<ScoredConstructor> constructorsWithHigherParameterCount = Lists.newArrayList();
+        List<ScoredConstructor> constructorsWithLowerParameterCount = Lists.newArrayList();
+        for (ConstructorSignature signature : accessors.getConstructorSignatures()) {
+            ScoredConstructor constructor = new ScoredConstructor(signature);
+            if (signature.getParameterCount() > fieldsToFindCount) {
+                constructorsWithHigherParameterCount.add(constructor);
+            } else if (signature.getParameterCount() == fieldsToFindCount) {
+                constructorsWithEqualParameterCount.add(constructor);
+            } else {
+                constructorsWithLowerParameterCount.add(constructor);
+            }
+        }
+        constructorsWithHigherParameterCount.sort(Comparator.comparingInt(ScoredConstructor::getParametersCount));
 
-        computeNumberOfMatchingFields(constructorsWithEqualParameterCount, psiFieldsToFindInConstructor);
+        NameNormalizer nameNormalizer = accessors.getNameNormalizer();
+        computeNumberOfMatchingFields(constructorsWithEqualParameterCount, psiFieldsToFindInConstructor, nameNormalizer);
         PsiMethod bestConstructor = findConstructorWithAllFieldsToFind(constructorsWithEqualParameterCount, fieldsToFindCount);
         if (bestConstructor != null) {
             return bestConstructor;
         }
 
-        computeNumberOfMatchingFields(constructorsWithHigherParameterCount, psiFieldsToFindInConstructor);
+        computeNumberOfMatchingFields(constructorsWithHigherParameterCount, psiFieldsToFindInConstructor, nameNormalizer);
         bestConstructor = findConstructorWithAllFieldsToFind(constructorsWithHigherParameterCount, fieldsToFindCount);
         if (bestConstructor != null) {
             return bestConstructor;
         }
 
-        computeNumberOfMatchingFields(constructorsWithLowerParameterCount, psiFieldsToFindInConstructor);
-        return findConstructorWithMaximumOfFieldsToFind();
+        computeNumberOfMatchingFields(constructorsWithLowerParameterCount, psiFieldsToFindInConstructor, nameNormalizer);
+        return findConstructorWithMaximumOfFieldsToFind(
+                Iterables.concat(constructorsWithEqualParameterCount, constructorsWithHigherParameterCount, constructorsWithLowerParameterCount));
     }
 
-    private void createConstructorLists(Collection<PsiField> psiFieldsToFindInConstructor, PsiClass psiClass) {
-        constructorsWithEqualParameterCount = Lists.newArrayList();
-        constructorsWithHigherParameterCount = Sets.newTreeSet();
-        constructorsWithLowerParameterCount = Lists.newArrayList();
-        PsiMethod[] constructors = psiClass.getConstructors();
-        for (PsiMethod constructor : constructors) {
-            int parameterCount = constructor.getParameterList().getParametersCount();
-            if (parameterCount > psiFieldsToFindInConstructor.size()) {
-                constructorsWithHigherParameterCount.add(new ConstructorWithExtraData(constructor));
-            } else if (parameterCount == psiFieldsToFindInConstructor.size()) {
-                constructorsWithEqualParameterCount.add(new ConstructorWithExtraData(constructor));
-            } else if (parameterCount >= 0) {
-                constructorsWithLowerParameterCount.add(new ConstructorWithExtraData(constructor));
-            }
-        }
-    }
-
-    private void computeNumberOfMatchingFields(Iterable<ConstructorWithExtraData> constuctorsWithExtraData, Iterable<PsiField> psiFieldsToFindInConstructor) {
-        for (ConstructorWithExtraData constructorWithExtraData : constuctorsWithExtraData) {
+    private void computeNumberOfMatchingFields(Iterable<ScoredConstructor> constructors, Iterable<PsiField> psiFieldsToFindInConstructor, NameNormalizer nameNormalizer) {
+        for (ScoredConstructor constructor : constructors) {
             int matchingFieldsCount = 0;
             for (PsiField psiField : psiFieldsToFindInConstructor) {
-                if (psiFieldVerifier.checkConstructor(psiField, constructorWithExtraData.getConstructor())) {
+                if (constructor.signature.hasParameterFor(psiField, nameNormalizer)) {
                     matchingFieldsCount++;
                 }
             }
-            constructorWithExtraData.setMatchingFieldsCount(matchingFieldsCount);
+            constructor.matchingFieldsCount = matchingFieldsCount;
         }
     }
 
-    private PsiMethod findConstructorWithAllFieldsToFind(Iterable<ConstructorWithExtraData> constructorsWithExtraData, int fieldsToFindCount) {
-        for (ConstructorWithExtraData constructorWithExtraData : constructorsWithExtraData) {
-            if (constructorWithExtraData.getMatchingFieldsCount() == fieldsToFindCount) {
-                return constructorWithExtraData.getConstructor();
+    private PsiMethod findConstructorWithAllFieldsToFind(Iterable<ScoredConstructor> constructors, int fieldsToFindCount) {
+        for (ScoredConstructor constructor : constructors) {
+            if (constructor.matchingFieldsCount == fieldsToFindCount) {
+                return constructor.getConstructor();
             }
         }
         return null;
     }
 
-    private PsiMethod findConstructorWithMaximumOfFieldsToFind() {
-        Iterable<ConstructorWithExtraData> allConstructors = Iterables.concat(constructorsWithEqualParameterCount, constructorsWithHigherParameterCount, constructorsWithLowerParameterCount);
+    private PsiMethod findConstructorWithMaximumOfFieldsToFind(Iterable<ScoredConstructor> allConstructors) {
         int matchingFieldCount = -1;
         int parameterCount = 0;
         PsiMethod bestConstructor = null;
-        for (ConstructorWithExtraData constructor : allConstructors) {
-            if (constructor.getMatchingFieldsCount() > matchingFieldCount || constructor.getMatchingFieldsCount() == matchingFieldCount && constructor.getParametersCount() < parameterCount) {
+        for (ScoredConstructor constructor : allConstructors) {
+            if (constructor.matchingFieldsCount > matchingFieldCount || constructor.matchingFieldsCount == matchingFieldCount && constructor.getParametersCount() < parameterCount) {
                 bestConstructor = constructor.getConstructor();
-                matchingFieldCount = constructor.getMatchingFieldsCount();
+                matchingFieldCount = constructor.matchingFieldsCount;
                 parameterCount = constructor.getParametersCount();
             }
         }
         return bestConstructor;
     }
 
-    private class ConstructorWithExtraData implements Comparable<ConstructorWithExtraData> {
-        private PsiMethod constructor;
-        private Integer matchingFieldsCount;
-
-        ConstructorWithExtraData(PsiMethod constructor) {
-            this.constructor = constructor;
-        }
+    private static final class ScoredConstructor {
+        private final ConstructorSignature signature;
+        private int matchingFieldsCount;
 
-        @Override
-        public int compareTo(@NotNull ConstructorWithExtraData constructorToCompare) {
-            return this.getParametersCount().compareTo(constructorToCompare.getParametersCount());
+        ScoredConstructor(ConstructorSignature signature) {
+            this.signature = signature;
         }
 
         PsiMethod getConstructor() {
-            return constructor;
-        }
-
-        Integer getMatchingFieldsCount() {
-            return matchingFieldsCount;
-        }
-
-        void setMatchingFieldsCount(Integer matchingFieldsCount) {
-            this.matchingFieldsCount = matchingFieldsCount;
+            return signature.getConstructor();
         }
 
-        Integer getParametersCount() {
-            return constructor == null ? null : constructor.getParameterList().getParametersCount();
+        int getParametersCount() {
+            return signature.getParameterCount();
         }
     }
 }
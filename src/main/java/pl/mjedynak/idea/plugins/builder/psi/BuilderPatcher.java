@@ -0,0 +1,315 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiDeclarationStatement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Brings an existing builder in line with a freshly rendered one, rewriting only the members which differ.
+ * Fields and inner classes are matched by name and methods by signature. Package qualifiers are ignored when comparing,
+ * as the rendered members use fully qualified names which the existing ones had shortened. Members the generator
+ * does not produce are left untouched, so hand-written code survives regeneration, while members of options
+ * turned off since are removed.
+ */
+public class BuilderPatcher {
+
+    private final PsiHelper psiHelper;
+    private final NameNormalizer nameNormalizer;
+    private final String methodPrefix;
+
+    public BuilderPatcher(PsiHelper psiHelper, NameNormalizer nameNormalizer, String methodPrefix) {
+        this.psiHelper = psiHelper;
+        this.nameNormalizer = nameNormalizer;
+        this.methodPrefix = methodPrefix;
+    }
+
+    private static final String RESET_METHOD_NAME = "reset";
+    private static final String BUILD_INTO_METHOD_NAME = "buildInto";
+
+    public void patch(PsiClass existingBuilder, PsiClass desiredBuilder) {
+        removeStaleFields(existingBuilder, desiredBuilder);
+        removeMembersOfDisabledOptions(existingBuilder, desiredBuilder);
+        for (PsiField desiredField : desiredBuilder.getFields()) {
+            patchField(existingBuilder, desiredField);
+        }
+        for (PsiMethod desiredMethod : desiredBuilder.getMethods()) {
+            patchMethod(existingBuilder, desiredMethod);
+        }
+        for (PsiClass desiredInnerClass : desiredBuilder.getInnerClasses()) {
+            patchInnerClass(existingBuilder, desiredInnerClass);
+        }
+    }
+
+    /**
+     * Adds only what concerns the fields {@code existingBuilder} lacks: the fields themselves, their methods and
+     * the statements of existing methods, such as {@code build()} and the copy constructor, which use them.
+     * A statement replaces the existing one declaring the same variable or returning, and is otherwise inserted before
+     * the final {@code return}. Every other member is left as it is.
+     */
+    public void addMissingMembers(PsiClass existingBuilder, PsiClass desiredBuilder) {
+        List<String> missingFieldNames = new ArrayList<>();
+        for (PsiField desiredField : desiredBuilder.getFields()) {
+            if (existingBuilder.findFieldByName(desiredField.getName(), false) == null) {
+                missingFieldNames.add(desiredField.getName());
+                patchField(existingBuilder, desiredField);
+            }
+        }
+        if (missingFieldNames.isEmpty()) {
+            return;
+        }
+        Pattern missingField = Pattern.compile(missingFieldNames.stream().map(Pattern::quote).collect(Collectors.joining("|", "\\b(", ")\\b")));
+        for (PsiMethod desiredMethod : desiredBuilder.getMethods()) {
+            PsiCodeBlock desiredBody = desiredMethod.getBody();
+            if (desiredBody == null || !missingField.matcher(desiredBody.getText()).find()) {
+                continue;
+            }
+            PsiMethod existingMethod = existingBuilder.findMethodBySignature(desiredMethod, false);
+            if (existingMethod == null) {
+                patchMethod(existingBuilder, desiredMethod);
+            } else if (existingMethod.getBody() != null) {
+                addMissingStatements(existingMethod, existingMethod.getBody(), desiredBody, missingField);
+            }
+        }
+    }
+
+    private void addMissingStatements(PsiMethod existingMethod, PsiCodeBlock existingBody, PsiCodeBlock desiredBody, Pattern missingField) {
+        Set<String> existingStatements = Arrays.stream(existingBody.getStatements()).map(this::normalize).collect(Collectors.toSet());
+        boolean changed = false;
+        for (PsiStatement desiredStatement : desiredBody.getStatements()) {
+            if (!missingField.matcher(desiredStatement.getText()).find() || existingStatements.contains(normalize(desiredStatement))) {
+                continue;
+            }
+            PsiStatement counterpart = findCounterpart(existingBody, desiredStatement);
+            if (counterpart != null) {
+                counterpart.replace(desiredStatement);
+            } else {
+                PsiStatement[] statements = existingBody.getStatements();
+                PsiStatement lastStatement = statements.length > 0 ? statements[statements.length - 1] : null;
+                existingBody.addBefore(desiredStatement, lastStatement instanceof PsiReturnStatement ? lastStatement : existingBody.getRBrace());
+            }
+            changed = true;
+        }
+        if (changed) {
+            shortenAndReformat(existingMethod);
+        }
+    }
+
+    private static PsiStatement findCounterpart(PsiCodeBlock existingBody, PsiStatement desiredStatement) {
+        String declaredName = declaredName(desiredStatement);
+        for (PsiStatement statement : existingBody.getStatements()) {
+            if (desiredStatement instanceof PsiReturnStatement && statement instanceof PsiReturnStatement
+                    || declaredName != null && declaredName.equals(declaredName(statement))) {
+                return statement;
+            }
+        }
+        return null;
+    }
+
+    private static String declaredName(PsiStatement statement) {
+        if (!(statement instanceof PsiDeclarationStatement)) {
+            return null;
+        }
+        return Arrays.stream(((PsiDeclarationStatement) statement).getDeclaredElements())
+                .filter(PsiNamedElement.class::isInstance)
+                .map(element -> ((PsiNamedElement) element).getName())
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Removes fields which are no longer wanted, together with their builder methods. A field without such a method
+     * was not generated and is kept.
+     */
+    private void removeStaleFields(PsiClass existingBuilder, PsiClass desiredBuilder) {
+        for (PsiField existingField : existingBuilder.getFields()) {
+            if (desiredBuilder.findFieldByName(existingField.getName(), false) == null) {
+                String builderMethodName = nameNormalizer.of(existingField).getBuilderMethodName(methodPrefix);
+                List<PsiMethod> builderMethods = Arrays.stream(existingBuilder.findMethodsByName(builderMethodName, false))
+                        .filter(method -> method.getParameterList().getParametersCount() == 1)
+                        .collect(Collectors.toList());
+                if (!builderMethods.isEmpty()) {
+                    builderMethods.forEach(PsiElement::delete);
+                    removeAccumulatorMethods(existingBuilder, desiredBuilder, existingField);
+                    existingField.delete();
+                }
+            }
+        }
+    }
+
+    private void removeMembersOfDisabledOptions(PsiClass existingBuilder, PsiClass desiredBuilder) {
+        PsiField fieldsSetMask = existingBuilder.findFieldByName(GenerationSession.FIELDS_SET_MASK, false);
+        if (fieldsSetMask != null && desiredBuilder.findFieldByName(GenerationSession.FIELDS_SET_MASK, false) == null) {
+            fieldsSetMask.delete();
+        }
+        removeMethodsNotDesired(existingBuilder, desiredBuilder, RESET_METHOD_NAME, 0);
+        removeMethodsNotDesired(existingBuilder, desiredBuilder, BUILD_INTO_METHOD_NAME, 1);
+        for (PsiField existingField : existingBuilder.getFields()) {
+            removeAccumulatorMethods(existingBuilder, desiredBuilder, existingField);
+        }
+        PsiClass witherInterface = existingBuilder.findInnerClassByName(GenerationSession.WITHER_INTERFACE_NAME, false);
+        if (witherInterface != null && witherInterface.isInterface()
+                && desiredBuilder.findInnerClassByName(GenerationSession.WITHER_INTERFACE_NAME, false) == null) {
+            witherInterface.delete();
+        }
+    }
+
+    private void removeAccumulatorMethods(PsiClass existingBuilder, PsiClass desiredBuilder, PsiField existingField) {
+        CollectionAccumulator accumulator = CollectionAccumulator.of(existingField, nameNormalizer);
+        if (accumulator != null) {
+            String builderMethodName = nameNormalizer.of(existingField).getBuilderMethodName(methodPrefix);
+            removeMethodsNotDesired(existingBuilder, desiredBuilder, accumulator.getAddMethodName(), accumulator.isMap() ? 2 : 1);
+            removeMethodsNotDesired(existingBuilder, desiredBuilder, CollectionAccumulator.getCapacityMethodName(builderMethodName), 1);
+        }
+    }
+
+    private void removeMethodsNotDesired(PsiClass existingBuilder, PsiClass desiredBuilder, String methodName, int parametersCount) {
+        if (desiredBuilder.findMethodsByName(methodName, false).length > 0) {
+            return;
+        }
+        for (PsiMethod method : existingBuilder.findMethodsByName(methodName, false)) {
+            if (method.getParameterList().getParametersCount() == parametersCount) {
+                method.delete();
+            }
+        }
+    }
+
+    private void patchField(PsiClass existingBuilder, PsiField desiredField) {
+        PsiField existingField = existingBuilder.findFieldByName(desiredField.getName(), false);
+        if (existingField == null) {
+            PsiField[] fields = existingBuilder.getFields();
+            PsiElement anchor = fields.length > 0 ? fields[fields.length - 1] : existingBuilder.getLBrace();
+            shortenAndReformat(existingBuilder.addAfter(desiredField, anchor));
+        } else if (!isSameField(existingField, desiredField)) {
+            shortenAndReformat(existingField.replace(desiredField));
+        }
+    }
+
+    private void patchMethod(PsiClass existingBuilder, PsiMethod desiredMethod) {
+        PsiMethod existingMethod = existingBuilder.findMethodBySignature(desiredMethod, false);
+        if (existingMethod == null) {
+            PsiClass[] innerClasses = existingBuilder.getInnerClasses();
+            shortenAndReformat(innerClasses.length > 0 ? existingBuilder.addBefore(desiredMethod, innerClasses[0]) : existingBuilder.add(desiredMethod));
+        } else if (!isSameMethod(existingMethod, desiredMethod)) {
+            shortenAndReformat(existingMethod.replace(desiredMethod));
+        }
+    }
+
+    private void patchInnerClass(PsiClass existingBuilder, PsiClass desiredInnerClass) {
+        PsiClass existingInnerClass = existingBuilder.findInnerClassByName(desiredInnerClass.getName(), false);
+        if (existingInnerClass == null) {
+            shortenAndReformat(existingBuilder.add(desiredInnerClass));
+        } else if (!isSameClass(existingInnerClass, desiredInnerClass)) {
+            shortenAndReformat(existingInnerClass.replace(desiredInnerClass));
+        }
+    }
+
+    private boolean isSameField(PsiField existingField, PsiField desiredField) {
+        return isSameType(existingField.getType(), desiredField.getType())
+                && normalize(existingField.getModifierList()).equals(normalize(desiredField.getModifierList()))
+                && normalize(existingField.getInitializer()).equals(normalize(desiredField.getInitializer()));
+    }
+
+    private boolean isSameMethod(PsiMethod existingMethod, PsiMethod desiredMethod) {
+        return isSameType(existingMethod.getReturnType(), desiredMethod.getReturnType())
+                && normalize(existingMethod.getModifierList()).equals(normalize(desiredMethod.getModifierList()))
+                && parameterNames(existingMethod).equals(parameterNames(desiredMethod))
+                && normalize(existingMethod.getBody()).equals(normalize(desiredMethod.getBody()));
+    }
+
+    private boolean isSameClass(PsiClass existingClass, PsiClass desiredClass) {
+        if (existingClass.getMethods().length != desiredClass.getMethods().length) {
+            return false;
+        }
+        for (PsiMethod desiredMethod : desiredClass.getMethods()) {
+            PsiMethod existingMethod = existingClass.findMethodBySignature(desiredMethod, false);
+            if (existingMethod == null || !isSameMethod(existingMethod, desiredMethod)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSameType(PsiType existingType, PsiType desiredType) {
+        return existingType == null || desiredType == null
+                ? existingType == desiredType
+                : existingType.getCanonicalText().equals(desiredType.getCanonicalText());
+    }
+
+    private List<String> parameterNames(PsiMethod method) {
+        return Arrays.stream(method.getParameterList().getParameters()).map(PsiParameter::getName).collect(Collectors.toList());
+    }
+
+    private String normalize(PsiElement element) {
+        if (element == null) {
+            return "";
+        }
+        String text = element.getText();
+        List<TextRange> packageQualifiers = findPackageQualifiers(element);
+        if (!packageQualifiers.isEmpty()) {
+            int startOffset = element.getTextRange().getStartOffset();
+            StringBuilder unqualified = new StringBuilder(text);
+            for (int i = packageQualifiers.size() - 1; i >= 0; i--) {
+                TextRange qualifier = packageQualifiers.get(i).shiftLeft(startOffset);
+                unqualified.delete(qualifier.getStartOffset(), text.indexOf('.', qualifier.getEndOffset()) + 1);
+            }
+            text = unqualified.toString();
+        }
+        return text.replaceAll("\\s+", "");
+    }
+
+    /**
+     * Finds the outermost package qualifiers of references, ordered by their position.
+     */
+    private static List<TextRange> findPackageQualifiers(PsiElement element) {
+        List<TextRange> qualifiers = new ArrayList<>();
+        element.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitReferenceElement(PsiJavaCodeReferenceElement reference) {
+                PsiElement qualifier = reference.getQualifier();
+                if (qualifier instanceof PsiJavaCodeReferenceElement && ((PsiJavaCodeReferenceElement) qualifier).resolve() instanceof PsiPackage) {
+                    qualifiers.add(qualifier.getTextRange());
+                    PsiElement parameterList = reference.getParameterList();
+                    if (parameterList != null) {
+                        parameterList.accept(this);
+                    }
+                } else {
+                    super.visitReferenceElement(reference);
+                }
+            }
+        });
+        qualifiers.sort(Comparator.comparingInt(TextRange::getStartOffset).thenComparing(TextRange::getEndOffset, Comparator.reverseOrder()));
+        List<TextRange> outermost = new ArrayList<>();
+        for (TextRange qualifier : qualifiers) {
+            if (outermost.isEmpty() || !outermost.get(outermost.size() - 1).contains(qualifier)) {
+                outermost.add(qualifier);
+            }
+        }
+        return outermost;
+    }
+
+    private void shortenAndReformat(PsiElement element) {
+        psiHelper.shortenClassReferencesAndReformat(element);
+    }
+}
@@ -2,18 +2,21 @@ package pl.mjedynak.idea.plugins.builder.psi;
 
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElementFactory;
+import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiParameterList;
-import org.apache.commons.lang.StringUtils;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer.FieldNames;
+
+import java.util.Collection;
 
 public class ButMethodCreator {
 
-    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
     private PsiElementFactory elementFactory;
+    private NameNormalizer nameNormalizer;
 
-    public ButMethodCreator(PsiElementFactory elementFactory) {
+    public ButMethodCreator(PsiElementFactory elementFactory, NameNormalizer nameNormalizer) {
         this.elementFactory = elementFactory;
+        this.nameNormalizer = nameNormalizer;
     }
 
     public PsiMethod butMethod(String builderClassName, PsiClass builderClass, PsiClass srcClass, String srcClassFieldName, boolean useSingleField) {
@@ -30,24 +33,39 @@ public class ButMethodCreator {
         return elementFactory.createMethodFromText(text.toString(), srcClass);
     }
 
+    public String butMethodText(String builderClassName, Collection<PsiField> fieldsWithSetMethods, String methodPrefix, String srcClassFieldName, boolean useSingleField) {
+        StringBuilder text = new StringBuilder("public " + builderClassName + " but() { return ");
+        for (PsiField psiField : fieldsWithSetMethods) {
+            FieldNames names = nameNormalizer.of(psiField);
+            text.append(names.getBuilderMethodName(methodPrefix)).append("(");
+            appendArgument(text, names, srcClassFieldName, useSingleField);
+            text.append(").");
+        }
+        deleteLastDot(text);
+        text.append("; }");
+        return text.toString();
+    }
+
     private void appendMethod(StringBuilder text, PsiMethod method, PsiParameterList parameterList, String srcClassFieldName, boolean useSingleField) {
         if (isInitializingMethod(parameterList)) {
             text.append(method.getName()).append("().");
         } else {
-            String parameterName = parameterList.getParameters()[0].getName();
-            String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
-            String parameterNameWithoutPrefix = parameterName.replaceFirst(parameterNamePrefix, "");
-            String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
+            String parameterNameWithoutPrefix = nameNormalizer.stripParameterPrefix(parameterList.getParameters()[0].getName());
+            FieldNames names = nameNormalizer.of(nameNormalizer.getFieldNamePrefix() + parameterNameWithoutPrefix);
             text.append(method.getName()).append("(");
-            if (useSingleField) {
-                text.append(srcClassFieldName).append(".get").append(StringUtils.capitalize(parameterNameWithoutPrefix)).append("()");
-            } else {
-                text.append(fieldNamePrefix).append(parameterNameWithoutPrefix);
-            }
+            appendArgument(text, names, srcClassFieldName, useSingleField);
             text.append(").");
         }
     }
 
+    private void appendArgument(StringBuilder text, FieldNames names, String srcClassFieldName, boolean useSingleField) {
+        if (useSingleField) {
+            text.append(srcClassFieldName).append(".").append(names.getGetterName()).append("()");
+        } else {
+            text.append(names.getName());
+        }
+    }
+
     private boolean isInitializingMethod(PsiParameterList parameterList) {
         return parameterList.getParametersCount() <= 0;
     }
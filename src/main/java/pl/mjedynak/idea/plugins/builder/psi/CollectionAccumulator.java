@@ -0,0 +1,156 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWildcardType;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+
+import javax.lang.model.SourceVersion;
+import java.util.Arrays;
+
+/**
+ * Describes a {@code List}, {@code Set}, {@code Collection} or {@code Map} field of the builder: how the builder fills it
+ * one element at a time and how {@code build()} hands it over. The builder owns the collection it accumulates,
+ * so it can hand it over as an unmodifiable view instead of copying it.
+ */
+public final class CollectionAccumulator {
+
+    private static final String CAPACITY_SUFFIX = "Capacity";
+    private static final String IES_SUFFIX = "ies";
+    private static final String ELEMENT_PARAMETER_NAME = "element";
+
+    private final Kind kind;
+    private final String fieldName;
+    private final String[] typeArguments;
+    private final String singularName;
+    private final String elementParameterName;
+
+    private CollectionAccumulator(Kind kind, NameNormalizer.FieldNames names, String[] typeArguments) {
+        this.kind = kind;
+        this.fieldName = names.getName();
+        this.typeArguments = typeArguments;
+        this.singularName = singularOf(names.getNameWithoutPrefix());
+        this.elementParameterName = SourceVersion.isKeyword(singularName) ? ELEMENT_PARAMETER_NAME : singularName;
+    }
+
+    /**
+     * Returns the accumulator of the field, or {@code null} when its type is not a parameterised collection interface
+     * the builder can instantiate. Wildcard element types are not supported as nothing could be added to them.
+     */
+    public static CollectionAccumulator of(PsiField psiField, NameNormalizer nameNormalizer) {
+        PsiType type = psiField.getType();
+        if (!(type instanceof PsiClassType)) {
+            return null;
+        }
+        PsiClassType classType = (PsiClassType) type;
+        Kind kind = Kind.of(classType.rawType().getCanonicalText());
+        PsiType[] parameters = classType.getParameters();
+        if (kind == null || parameters.length != kind.typeArgumentCount || Arrays.stream(parameters).anyMatch(PsiWildcardType.class::isInstance)) {
+            return null;
+        }
+        String[] typeArguments = Arrays.stream(parameters).map(PsiType::getCanonicalText).toArray(String[]::new);
+        return new CollectionAccumulator(kind, nameNormalizer.of(psiField), typeArguments);
+    }
+
+    public boolean isMap() {
+        return kind == Kind.MAP;
+    }
+
+    public String getAddMethodName() {
+        return (isMap() ? "put" : "add") + capitalize(singularName);
+    }
+
+    public static String getCapacityMethodName(String builderMethodName) {
+        return builderMethodName + CAPACITY_SUFFIX;
+    }
+
+    public String getAddMethodParameters() {
+        return isMap()
+                ? typeArguments[0] + " key, " + typeArguments[1] + " value"
+                : typeArguments[0] + " " + elementParameterName;
+    }
+
+    public String getAddStatement() {
+        return "this." + fieldName + (isMap() ? ".put(key, value);" : ".add(" + elementParameterName + ");");
+    }
+
+    public String getInitializationStatement(String capacity) {
+        return "if (this." + fieldName + " == null) { this." + fieldName + " = new " + kind.implementation + "<>(" + capacity + "); }";
+    }
+
+    /**
+     * Copies {@code source} into a collection owned by the builder, keeping {@code null} as it is.
+     */
+    public String copyOf(String source) {
+        return source + " == null ? null : new " + kind.implementation + "<>(" + source + ")";
+    }
+
+    /**
+     * Renders how {@code build()} passes the field on. Below Java 10, which has no {@code List.copyOf}, and for sets
+     * and maps, whose {@code copyOf} would lose the insertion order kept by the builder, copying on build wraps
+     * a copy into an unmodifiable view instead.
+     */
+    public String getHandoffExpression(CollectionHandoff handoff, boolean immutableCopyAvailable) {
+        switch (handoff) {
+            case COPY_ON_BUILD:
+                return fieldName + " == null ? null : " + (immutableCopyAvailable && kind.immutableCopy != null
+                        ? kind.immutableCopy + "(" + fieldName + ")"
+                        : "java.util.Collections." + kind.unmodifiableView + "(new " + kind.implementation + "<>(" + fieldName + "))");
+            case TRANSFER:
+                return fieldName + " == null ? null : java.util.Collections." + kind.unmodifiableView + "(" + fieldName + ")";
+            default:
+                return fieldName;
+        }
+    }
+
+    /**
+     * Drops the reference to the collection which was handed over, so adding to a reused builder cannot modify
+     * an object which was already built.
+     */
+    public String getReleaseStatement() {
+        return "this." + fieldName + " = null;";
+    }
+
+    static String singularOf(String name) {
+        if (name.endsWith(IES_SUFFIX) && name.length() > IES_SUFFIX.length()) {
+            return name.substring(0, name.length() - IES_SUFFIX.length()) + "y";
+        }
+        if (name.endsWith("sses") || name.endsWith("xes") || name.endsWith("ches") || name.endsWith("shes")) {
+            return name.substring(0, name.length() - 2);
+        }
+        if (name.endsWith("s") && !name.endsWith("ss") && name.length() > 1) {
+            return name.substring(0, name.length() - 1);
+        }
+        return name;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private enum Kind {
+        LIST("java.util.List", "java.util.ArrayList", "unmodifiableList", "java.util.List.copyOf", 1),
+        COLLECTION("java.util.Collection", "java.util.ArrayList", "unmodifiableCollection", "java.util.List.copyOf", 1),
+        SET("java.util.Set", "java.util.LinkedHashSet", "unmodifiableSet", null, 1),
+        MAP("java.util.Map", "java.util.LinkedHashMap", "unmodifiableMap", null, 2);
+
+        private final String interfaceName;
+        private final String implementation;
+        private final String unmodifiableView;
+        private final String immutableCopy;
+        private final int typeArgumentCount;
+
+        Kind(String interfaceName, String implementation, String unmodifiableView, String immutableCopy, int typeArgumentCount) {
+            this.interfaceName = interfaceName;
+            this.implementation = implementation;
+            this.unmodifiableView = unmodifiableView;
+            this.immutableCopy = immutableCopy;
+            this.typeArgumentCount = typeArgumentCount;
+        }
+
+        static Kind of(String interfaceName) {
+            return Arrays.stream(values()).filter(kind -> kind.interfaceName.equals(interfaceName)).findFirst().orElse(null);
+        }
+    }
+}
@@ -0,0 +1,874 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.pom.java.LanguageLevel;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiUtil;
+import org.apache.commons.lang.StringUtils;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+import pl.mjedynak.idea.plugins.builder.settings.GeneratorProfile;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.intellij.openapi.util.text.StringUtil.isVowel;
+
+/**
+ * State of a single builder generation, created by {@link BuilderPsiClassBuilder} for one {@link BuilderContext}
+ * and dropped together with the generated PSI once the run is over.
+ */
+public class GenerationSession {
+
+    private static final String SPACE = " ";
+    private static final String A_PREFIX = " a";
+    private static final String AN_PREFIX = " an";
+    private static final String SEMICOLON = ",";
+    static final String STATIC_MODIFIER = "static";
+    static final String FINAL_MODIFIER = "final";
+    public static final String STEPS_CLASS_NAME = "Steps";
+    static final String STAGE_SUFFIX = "Stage";
+    static final String BUILD_STAGE_NAME = "Build" + STAGE_SUFFIX;
+    public static final String FIELDS_SET_MASK = "fieldsSet";
+    public static final String WITHER_INTERFACE_NAME = "With";
+    static final String TO_BUILDER_METHOD_NAME = "toBuilder";
+
+    private final BuilderContext context;
+    private final PsiHelper psiHelper;
+    private final PsiFieldsModifier psiFieldsModifier;
+    private final PsiFieldVerifier psiFieldVerifier;
+    private final NameNormalizer nameNormalizer;
+    private ButMethodCreator butMethodCreator;
+    private MethodCreator methodCreator;
+
+    private final PsiClass srcClass;
+    private final String builderClassName;
+
+    private final List<PsiField> psiFieldsForSetters;
+    private final List<PsiField> psiFieldsForConstructor;
+    private final List<PsiField> allSelectedPsiFields;
+    private final PsiMethod bestConstructor;
+
+    private PsiClass builderClass = null;
+    private final PsiElementFactory elementFactory;
+    private final String srcClassName;
+    private final String srcClassFieldName;
+
+    private final boolean useSingleField;
+    private final boolean isInline;
+    private final boolean record;
+    private final boolean staged;
+    private final boolean reusable;
+    private final List<PsiField> trackedFields;
+    private final boolean accumulating;
+    private final CollectionHandoff collectionHandoff;
+    private final boolean immutableCopyAvailable;
+    private final Map<PsiField, CollectionAccumulator> collectionFields;
+    private final GeneratorProfile profile;
+
+    GenerationSession(BuilderContext context, PsiHelper psiHelper, PsiFieldsModifier psiFieldsModifier,
+                      PsiFieldVerifier psiFieldVerifier, CodeStyleSettings codeStyleSettings) {
+        this.context = context;
+        this.psiHelper = psiHelper;
+        this.psiFieldsModifier = psiFieldsModifier;
+        this.psiFieldVerifier = psiFieldVerifier;
+        JavaPsiFacade javaPsiFacade = psiHelper.getJavaPsiFacade(context.getProject());
+        elementFactory = javaPsiFacade.getElementFactory();
+        srcClass = context.getPsiClassFromEditor();
+        builderClassName = context.getClassName();
+        srcClassName = context.getPsiClassFromEditor().getName();
+        srcClassFieldName = StringUtils.uncapitalize(srcClassName);
+        psiFieldsForSetters = context.getPsiFieldsForBuilder().getFieldsForSetters();
+        psiFieldsForConstructor = context.getPsiFieldsForBuilder().getFieldsForConstructor();
+        allSelectedPsiFields = context.getPsiFieldsForBuilder().getAllSelectedFields();
+        useSingleField = context.useSingleField();
+        bestConstructor = context.getPsiFieldsForBuilder().getBestConstructor();
+        nameNormalizer = new NameNormalizer(codeStyleSettings);
+        methodCreator = new MethodCreator(elementFactory, builderClassName, nameNormalizer);
+        butMethodCreator = new ButMethodCreator(elementFactory, nameNormalizer);
+        isInline = allSelectedPsiFields.size() == psiFieldsForConstructor.size();
+        record = srcClass.isRecord();
+        staged = context.isStaged() && !useSingleField;
+        reusable = context.isReusable() && !staged;
+        profile = context.getProfile();
+        trackedFields = context.isSparse() && !useSingleField && !staged ? getTrackedFields(context.isInner()) : Collections.emptyList();
+        accumulating = context.hasCollectionAccumulators() && !useSingleField && !staged && !context.isSparse();
+        collectionHandoff = context.getCollectionHandoff();
+        immutableCopyAvailable = collectionHandoff == CollectionHandoff.COPY_ON_BUILD && psiHelper.isLanguageLevelAtLeast(srcClass, LanguageLevel.JDK_10);
+        collectionFields = !useSingleField && (accumulating || collectionHandoff != CollectionHandoff.SHARE)
+                ? getCollectionFields(context.isInner()) : Collections.emptyMap();
+    }
+
+    GenerationSession createTopLevelClass() {
+        JavaDirectoryService javaDirectoryService = psiHelper.getJavaDirectoryService();
+        builderClass = javaDirectoryService.createClass(context.getTargetDirectory(), builderClassName);
+        PsiModifierList modifierList = builderClass.getModifierList();
+        modifierList.setModifierProperty(FINAL_MODIFIER, true);
+        return this;
+    }
+
+    GenerationSession createInnerClass() {
+        builderClass = elementFactory.createClass(builderClassName);
+        PsiModifierList modifierList = builderClass.getModifierList();
+        modifierList.setModifierProperty(FINAL_MODIFIER, true);
+        modifierList.setModifierProperty(STATIC_MODIFIER, true);
+        return this;
+    }
+
+    PsiClass buildFromText() {
+        PsiClass renderedClass = renderBuilderClass();
+        if (context.isInner()) {
+            builderClass = renderedClass;
+        } else {
+            builderClass = (PsiClass) psiHelper.getJavaDirectoryService().createClass(context.getTargetDirectory(), builderClassName).replace(renderedClass);
+        }
+        if (hasSourceClassMethods()) {
+            createSourceClassMethods();
+        }
+        if (hasToBuilderMethod()) {
+            createToBuilderMethod();
+        }
+        if (hasDirectWithers()) {
+            createDirectWithers();
+        }
+        return builderClass;
+    }
+
+    /**
+     * A staged builder has its stages and their order derived from the fields, so it is replaced as a whole
+     * when either the existing or the desired builder is staged.
+     */
+    PsiClass patch(PsiClass existingBuilder) {
+        builderClass = existingBuilder;
+        if (staged || isStaged(existingBuilder)) {
+            replaceStagedBuilder(existingBuilder);
+        } else {
+            new BuilderPatcher(psiHelper, nameNormalizer, context.getMethodPrefix()).patch(existingBuilder, renderBuilderClass());
+        }
+        addMissingSourceClassMembers();
+        return builderClass;
+    }
+
+    /**
+     * Like {@link #patch(PsiClass)}, but only adds what concerns the fields the existing builder lacks.
+     */
+    PsiClass addMissingMembers(PsiClass existingBuilder) {
+        builderClass = existingBuilder;
+        if (staged || isStaged(existingBuilder)) {
+            replaceStagedBuilder(existingBuilder);
+        } else {
+            new BuilderPatcher(psiHelper, nameNormalizer, context.getMethodPrefix()).addMissingMembers(existingBuilder, renderBuilderClass());
+        }
+        addMissingSourceClassMembers();
+        return builderClass;
+    }
+
+    private void replaceStagedBuilder(PsiClass existingBuilder) {
+        builderClass = (PsiClass) existingBuilder.replace(renderBuilderClass());
+        psiHelper.shortenClassReferencesAndReformat(builderClass);
+    }
+
+    private void addMissingSourceClassMembers() {
+        if (hasSourceClassMethods()) {
+            addMissingSourceClassMethods();
+        }
+        if (hasToBuilderMethod()) {
+            createToBuilderMethod();
+        }
+        if (hasDirectWithers()) {
+            createDirectWithers();
+        }
+    }
+
+    private static boolean isStaged(PsiClass builder) {
+        return builder.findInnerClassByName(STEPS_CLASS_NAME, false) != null;
+    }
+
+    private PsiClass renderBuilderClass() {
+        if (staged) {
+            return renderStagedBuilderClass();
+        }
+        boolean innerBuilder = context.isInner();
+        List<PsiField> fieldsWithSetMethods = getFieldsWithSetMethods(innerBuilder);
+        StringBuilder text = new StringBuilder("public ");
+        if (innerBuilder) {
+            text.append(STATIC_MODIFIER).append(SPACE);
+        }
+        text.append(FINAL_MODIFIER).append(" class ").append(builderClassName).append(" {");
+        appendFieldsText(text, innerBuilder);
+        appendConstructorsText(text);
+        for (PsiField psiField : fieldsWithSetMethods) {
+            int index = trackedFields.indexOf(psiField);
+            CollectionAccumulator accumulator = accumulating ? collectionFields.get(psiField) : null;
+            if (accumulator != null) {
+                text.append(methodCreator.createAccumulatorMethodsText(psiField, context.getMethodPrefix(), accumulator));
+            } else {
+                text.append(index < 0
+                        ? methodCreator.createMethodText(psiField, context.getMethodPrefix(), srcClassFieldName, useSingleField)
+                        : methodCreator.createTrackedMethodText(psiField, context.getMethodPrefix(), FIELDS_SET_MASK + "[" + maskWord(index) + "] |= " + maskBit(index) + ";"));
+            }
+        }
+        if (context.hasButMethod()) {
+            text.append(butMethodCreator.butMethodText(builderClassName, fieldsWithSetMethods, context.getMethodPrefix(), srcClassFieldName, useSingleField));
+        }
+        if (reusable) {
+            appendReuseMethodsText(text, innerBuilder);
+        }
+        text.append(buildMethodText(innerBuilder));
+        if (hasSourceClassMethods() && profile.hasWitherInterface()) {
+            appendWitherInterfaceText(text);
+        }
+        text.append("}");
+        return elementFactory.createClassFromText(text.toString(), srcClass).getInnerClasses()[0];
+    }
+
+    /**
+     * Renders a builder whose entry method returns the stage of the first constructor field. Every constructor field
+     * has its own stage interface and only the last one offers the optional fields and {@code build()}.
+     * The stages are implemented by a private nested class, as a class cannot implement interfaces nested in itself.
+     */
+    private PsiClass renderStagedBuilderClass() {
+        boolean innerBuilder = context.isInner();
+        List<PsiField> mandatoryFields = psiFieldsForConstructor.stream().distinct().collect(Collectors.toList());
+        List<PsiField> optionalFields = getFieldsWithSetMethods(innerBuilder).stream()
+                .distinct()
+                .filter(psiField -> !mandatoryFields.contains(psiField))
+                .collect(Collectors.toList());
+        List<String> stageNames = new ArrayList<>();
+        for (PsiField mandatoryField : mandatoryFields) {
+            stageNames.add(nameNormalizer.of(mandatoryField).getCapitalizedName() + STAGE_SUFFIX);
+        }
+        stageNames.add(BUILD_STAGE_NAME);
+        String methodPrefix = context.getMethodPrefix();
+        StringBuilder text = new StringBuilder("public ");
+        if (innerBuilder) {
+            text.append(STATIC_MODIFIER).append(SPACE);
+        }
+        text.append(FINAL_MODIFIER).append(" class ").append(builderClassName).append(" {");
+        text.append("private ").append(builderClassName).append("() {}");
+        text.append("public static ").append(stageNames.get(0)).append(initializingMethodPrefix()).append(srcClassName)
+                .append("() { return new ").append(STEPS_CLASS_NAME).append("(); }");
+        for (int i = 0; i < mandatoryFields.size(); i++) {
+            text.append("public interface ").append(stageNames.get(i)).append(" {")
+                    .append(stageMethodSignature(mandatoryFields.get(i), methodPrefix, stageNames.get(i + 1))).append(";}");
+        }
+        text.append("public interface ").append(BUILD_STAGE_NAME).append(" {");
+        for (PsiField optionalField : optionalFields) {
+            text.append(stageMethodSignature(optionalField, methodPrefix, BUILD_STAGE_NAME)).append(";");
+        }
+        text.append(srcClassName).append(" build();}");
+        text.append("private static final class ").append(STEPS_CLASS_NAME).append(" implements ").append(String.join(", ", stageNames)).append(" {");
+        appendFieldsText(text, innerBuilder);
+        for (int i = 0; i < mandatoryFields.size(); i++) {
+            text.append(methodCreator.createStageMethodText(mandatoryFields.get(i), methodPrefix, stageNames.get(i + 1)));
+        }
+        for (PsiField optionalField : optionalFields) {
+            text.append(methodCreator.createStageMethodText(optionalField, methodPrefix, BUILD_STAGE_NAME));
+        }
+        text.append(buildMethodText(innerBuilder));
+        text.append("}}");
+        return elementFactory.createClassFromText(text.toString(), srcClass).getInnerClasses()[0];
+    }
+
+    private String stageMethodSignature(PsiField psiField, String methodPrefix, String nextStageName) {
+        NameNormalizer.FieldNames names = nameNormalizer.of(psiField);
+        return nextStageName + SPACE + names.getBuilderMethodName(methodPrefix)
+                + "(" + psiField.getType().getCanonicalText() + SPACE + names.getParameterName() + ")";
+    }
+
+    private String initializingMethodPrefix() {
+        return isVowel(srcClassName.toLowerCase(Locale.ENGLISH).charAt(0)) ? AN_PREFIX : A_PREFIX;
+    }
+
+    private boolean hasSourceClassMethods() {
+        return !useSingleField && !isInline && !staged;
+    }
+
+    /**
+     * Adds the methods the profile asks for to the source class. {@code empty()} goes through {@code builder()},
+     * so it is only added together with it.
+     */
+    private void createSourceClassMethods() {
+        if (profile.hasSourceClassMethods()) {
+            createAsBuilderMethod();
+            if (profile.hasEmptyMethod()) {
+                createStaticEmptyMethod();
+            }
+            createStaticBuilderConstructor();
+        }
+    }
+
+    /**
+     * A record exposes its components through accessors rather than getters, so it gets {@code toBuilder()}
+     * backed by the copy constructor reading them.
+     */
+    private boolean hasToBuilderMethod() {
+        return record && !useSingleField && !staged && profile.hasSourceClassMethods() && !hasMethodWithoutParameters(srcClass, TO_BUILDER_METHOD_NAME);
+    }
+
+    private void createToBuilderMethod() {
+        PsiMethod method = elementFactory.createMethodFromText(
+                "public " + builderClassName + SPACE + TO_BUILDER_METHOD_NAME + "() { return new " + builderClassName + "(this); }", srcClass);
+        srcClass.addBefore(method, srcClass.getLastChild());
+    }
+
+    private void addMissingSourceClassMethods() {
+        if (!profile.hasSourceClassMethods()) {
+            return;
+        }
+        if (!hasMethodWithoutParameters(srcClass, "with")) {
+            createAsBuilderMethod();
+        }
+        if (profile.hasEmptyMethod() && !hasMethodWithoutParameters(srcClass, "empty")) {
+            createStaticEmptyMethod();
+        }
+        if (!hasMethodWithoutParameters(srcClass, "builder")) {
+            createStaticBuilderConstructor();
+        }
+    }
+
+    private static boolean hasMethodWithoutParameters(PsiClass psiClass, String methodName) {
+        return Arrays.stream(psiClass.findMethodsByName(methodName, false))
+                .anyMatch(method -> method.getParameterList().getParametersCount() == 0);
+    }
+
+    private List<PsiField> getFieldsWithSetMethods(boolean innerBuilder) {
+        if (useSingleField || innerBuilder) {
+            return allSelectedPsiFields;
+        }
+        List<PsiField> fieldsWithSetMethods = new ArrayList<>(psiFieldsForSetters);
+        fieldsWithSetMethods.addAll(psiFieldsForConstructor);
+        return fieldsWithSetMethods;
+    }
+
+    private void appendFieldsText(StringBuilder text, boolean innerBuilder) {
+        if (useSingleField) {
+            text.append("private ").append(srcClassName).append(SPACE).append(srcClassFieldName).append(";");
+        } else {
+            for (PsiField psiField : getFieldsWithSetMethods(innerBuilder)) {
+                text.append("private ").append(psiField.getType().getCanonicalText()).append(SPACE).append(psiField.getName()).append(";");
+            }
+        }
+        if (!trackedFields.isEmpty()) {
+            text.append("private final long[] ").append(FIELDS_SET_MASK).append(" = new long[").append(maskWord(trackedFields.size() - 1) + 1).append("];");
+        }
+    }
+
+    /**
+     * A sparse builder records in a bit mask which of the fields applied after construction were set,
+     * so that {@code build()} applies only those and leaves the defaults of the others intact.
+     */
+    private List<PsiField> getTrackedFields(boolean innerBuilder) {
+        return getFieldsWithSetMethods(innerBuilder).stream()
+                .distinct()
+                .filter(psiField -> !psiFieldsForConstructor.contains(psiField))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Collection fields which {@code build()} hands over as the settings ask and, unless the builder is sparse or staged,
+     * which the builder fills element by element. A sparse builder is left out as its setters must also record
+     * that the field was set.
+     */
+    private Map<PsiField, CollectionAccumulator> getCollectionFields(boolean innerBuilder) {
+        Map<PsiField, CollectionAccumulator> result = new LinkedHashMap<>();
+        for (PsiField psiField : new LinkedHashSet<>(getFieldsWithSetMethods(innerBuilder))) {
+            CollectionAccumulator accumulator = CollectionAccumulator.of(psiField, nameNormalizer);
+            if (accumulator != null) {
+                result.put(psiField, accumulator);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the field for the built object, handing a collection over with the configured strategy.
+     */
+    private String handOff(PsiField psiField) {
+        CollectionAccumulator collectionField = collectionFields.get(psiField);
+        return collectionField != null ? collectionField.getHandoffExpression(handoffOf(psiField), immutableCopyAvailable) : "this." + nameNormalizer.of(psiField).getName();
+    }
+
+    /**
+     * A collection the builder accumulates is never shared, as adding to a reused builder would change an object
+     * which was already built, so it is transferred unless the settings ask for a copy.
+     */
+    private CollectionHandoff handoffOf(PsiField psiField) {
+        boolean accumulated = accumulating && collectionFields.containsKey(psiField);
+        return accumulated && collectionHandoff == CollectionHandoff.SHARE ? CollectionHandoff.TRANSFER : collectionHandoff;
+    }
+
+    private boolean releasesCollections() {
+        return collectionFields.keySet().stream().anyMatch(psiField -> handoffOf(psiField).releasesBuilderField());
+    }
+
+    private void appendReleaseStatements(StringBuilder text) {
+        collectionFields.forEach((psiField, collectionField) -> {
+            if (handoffOf(psiField).releasesBuilderField()) {
+                text.append(collectionField.getReleaseStatement());
+            }
+        });
+    }
+
+    private static int maskWord(int index) {
+        return index >>> 6;
+    }
+
+    private static String maskBit(int index) {
+        return "1L << " + (index & 63);
+    }
+
+    private void appendIfSet(StringBuilder text, PsiField psiField, String statement) {
+        int index = trackedFields.indexOf(psiField);
+        if (index < 0) {
+            text.append(statement);
+        } else {
+            text.append("if ((").append(FIELDS_SET_MASK).append("[").append(maskWord(index)).append("] & ").append(maskBit(index)).append(") != 0L) { ")
+                    .append(statement).append(" }");
+        }
+    }
+
+    private void appendConstructorsText(StringBuilder text) {
+        text.append("public ");
+        if (useSingleField) {
+            text.append(builderClassName).append("(){ ").append(srcClassFieldName).append(" = new ").append(srcClassName).append("(); }");
+        } else {
+            text.append(builderClassName).append("() {}");
+        }
+        String constructorSetters = generateConstructorSetters();
+        if (!trackedFields.isEmpty()) {
+            constructorSetters += "; java.util.Arrays.fill(" + FIELDS_SET_MASK + ", -1L)";
+        }
+        text.append("public ").append(MessageFormat.format("{0}({1} {2})'{' {3}; }",
+                builderClassName, srcClassName, srcClassFieldName, constructorSetters));
+    }
+
+    public GenerationSession withFields() {
+        if (useSingleField) {
+            String fieldText = "private " + srcClassName + " " + srcClassFieldName + ";";
+            PsiField singleField = elementFactory.createFieldFromText(fieldText, srcClass);
+            builderClass.add(singleField);
+        } else if (isInnerBuilder(builderClass)) {
+            psiFieldsModifier.modifyFieldsForInnerClass(allSelectedPsiFields, builderClass);
+        } else {
+            psiFieldsModifier.modifyFields(psiFieldsForSetters, psiFieldsForConstructor, builderClass);
+        }
+        return this;
+    }
+
+    public GenerationSession withPrivateConstructor() {
+        PsiMethod constructor;
+        if (useSingleField) {
+            constructor = elementFactory.createMethodFromText(builderClassName + "(){ " + srcClassFieldName + " = new " + srcClassName + "(); }", srcClass);
+        } else {
+            constructor = elementFactory.createConstructor();
+        }
+        constructor.getModifierList().setModifierProperty(PsiModifier.PUBLIC, true);
+        builderClass.add(constructor);
+        return this;
+    }
+
+    public GenerationSession withPublicConstructorGenerator() {
+        PsiMethod constructor;
+
+        String constructorStr = MessageFormat.format("{0}({1} {2})'{' {3}; }",
+                builderClassName, srcClassName, srcClassFieldName, generateConstructorSetters());
+
+        constructor = elementFactory.createMethodFromText(constructorStr, srcClass);
+
+        constructor.getModifierList().setModifierProperty(PsiModifier.PUBLIC, true);
+        builderClass.add(constructor);
+        return this;
+    }
+
+    public String generateConstructorSetters() {
+        StringBuilder sb = new StringBuilder();
+        for (PsiField field : new LinkedHashSet<>(allSelectedPsiFields)) {
+            NameNormalizer.FieldNames names = nameNormalizer.of(field);
+            String value = srcClassFieldName + "." + (record ? field.getName() : names.getGetterName()) + "()";
+            CollectionAccumulator accumulator = accumulating ? collectionFields.get(field) : null;
+            sb.append("this.").append(names.getName()).append(" = ")
+                    .append(accumulator != null ? accumulator.copyOf(value) : value).append(";");
+        }
+
+        removeLastSemicolon(sb);
+        return sb.toString();
+    }
+
+    public GenerationSession withInitializingMethod() {
+        PsiMethod staticMethod = elementFactory.createMethodFromText(
+                "public static " + builderClassName + initializingMethodPrefix() + srcClassName + "() { return new " + builderClassName + "(); }", srcClass);
+        builderClass.add(staticMethod);
+        return this;
+    }
+
+    public GenerationSession withSetMethods(String methodPrefix) {
+        if (useSingleField || isInnerBuilder(builderClass)) {
+            for (PsiField psiFieldForAssignment : allSelectedPsiFields) {
+                createAndAddMethod(psiFieldForAssignment, methodPrefix);
+            }
+        } else {
+            for (PsiField psiFieldForSetter : psiFieldsForSetters) {
+                createAndAddMethod(psiFieldForSetter, methodPrefix);
+            }
+            for (PsiField psiFieldForConstructor : psiFieldsForConstructor) {
+                createAndAddMethod(psiFieldForConstructor, methodPrefix);
+            }
+        }
+        return this;
+    }
+
+    private boolean isInnerBuilder(PsiClass aClass) {
+        return aClass.hasModifierProperty("static");
+    }
+
+    public GenerationSession withButMethod() {
+        PsiMethod method = butMethodCreator.butMethod(builderClassName, builderClass, srcClass, srcClassFieldName, useSingleField);
+        builderClass.add(method);
+        return this;
+    }
+
+    public GenerationSession withReuseMethods() {
+        StringBuilder text = new StringBuilder();
+        appendReuseMethodsText(text, isInnerBuilder(builderClass));
+        PsiClass methods = elementFactory.createClassFromText(text.toString(), srcClass);
+        for (PsiMethod method : methods.getMethods()) {
+            builderClass.add(method);
+        }
+        return this;
+    }
+
+    /**
+     * Lets one builder, and with {@code buildInto()} one built object, be used for any number of records.
+     * {@code buildInto()} is only generated when no field needs the constructor, as such a field cannot be written
+     * into an existing object.
+     */
+    private void appendReuseMethodsText(StringBuilder text, boolean innerBuilder) {
+        text.append("public ").append(builderClassName).append(" reset() { ");
+        if (useSingleField) {
+            text.append(srcClassFieldName).append(" = new ").append(srcClassName).append("();");
+        } else {
+            for (PsiField psiField : new LinkedHashSet<>(getFieldsWithSetMethods(innerBuilder))) {
+                text.append("this.").append(psiField.getName()).append(" = ").append(getDefaultValue(psiField.getType())).append(";");
+            }
+            if (!trackedFields.isEmpty()) {
+                text.append("java.util.Arrays.fill(").append(FIELDS_SET_MASK).append(", 0L);");
+            }
+        }
+        text.append("return this; }");
+        if (!useSingleField && psiFieldsForConstructor.isEmpty()) {
+            text.append("public ").append(srcClassName).append(" buildInto(").append(srcClassName).append(SPACE).append(srcClassFieldName).append(") { ");
+            appendSetMethodsOrAssignments(text, innerBuilder);
+            appendReleaseStatements(text);
+            text.append("return ").append(srcClassFieldName).append("; }");
+        }
+    }
+
+    private void createAndAddMethod(PsiField psiField, String methodPrefix) {
+        builderClass.add(methodCreator.createMethod(psiField, methodPrefix, srcClassFieldName, useSingleField));
+    }
+
+    public PsiClass build() {
+        if (useSingleField) {
+            return buildUseSingleField();
+        } else if (isInline) {
+            return buildIsInline();
+        } else {
+            return buildDefault();
+        }
+    }
+
+    private PsiClass buildUseSingleField() {
+        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText(false), srcClass);
+        builderClass.add(buildMethod);
+        return builderClass;
+    }
+
+    private PsiClass buildIsInline() {
+        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText(false), srcClass);
+        builderClass.add(buildMethod);
+        if (hasToBuilderMethod()) {
+            createToBuilderMethod();
+        }
+        if (hasDirectWithers()) {
+            createDirectWithers();
+        }
+        return builderClass;
+    }
+
+    private PsiClass buildDefault() {
+        PsiMethod buildMethod = elementFactory.createMethodFromText(buildMethodText(isInnerBuilder(builderClass)), srcClass);
+        builderClass.add(buildMethod);
+
+        createSourceClassMethods();
+        if (profile.hasWitherInterface()) {
+            createWitherInterface();
+        }
+
+        return builderClass;
+    }
+
+    private String buildMethodText(boolean innerBuilder) {
+        if (useSingleField) {
+            return "public " + srcClassName + " build() { "
+                    + "return " + srcClassFieldName + ";"
+                    + " }";
+        }
+        StringBuilder buildMethodText = new StringBuilder();
+        buildMethodText.append("public ").append(srcClassName).append(" build() { ");
+        if (isInline && !releasesCollections()) {
+            buildMethodText.append("return ");
+            appendConstructor(buildMethodText);
+        } else {
+            buildMethodText.append(srcClassName).append(SPACE).append(srcClassFieldName).append(" = ");
+            appendConstructor(buildMethodText);
+            if (!isInline) {
+                appendSetMethodsOrAssignments(buildMethodText, innerBuilder);
+            }
+            appendReleaseStatements(buildMethodText);
+            buildMethodText.append("return ").append(srcClassFieldName).append(";");
+        }
+        buildMethodText.append(" }");
+        return buildMethodText.toString();
+    }
+
+    private void appendConstructor(StringBuilder buildMethodText) {
+        String constructorParameters = createConstructorParameters();
+        buildMethodText.append("new ").append(srcClassName).append("(").append(constructorParameters).append(");");
+    }
+
+    private void appendSetMethodsOrAssignments(StringBuilder buildMethodText, boolean innerBuilder) {
+        appendSetMethods(buildMethodText, psiFieldsForSetters);
+        if (innerBuilder) {
+            Set<PsiField> fieldsSetViaAssignment = new HashSet<PsiField>(allSelectedPsiFields);
+            fieldsSetViaAssignment.removeAll(psiFieldsForSetters);
+            fieldsSetViaAssignment.removeAll(psiFieldsForConstructor);
+            appendAssignments(buildMethodText, fieldsSetViaAssignment);
+        }
+    }
+
+    private void appendSetMethods(StringBuilder buildMethodText, Collection<PsiField> fieldsToBeSetViaSetter) {
+        for (PsiField psiFieldsForSetter : fieldsToBeSetViaSetter) {
+            NameNormalizer.FieldNames names = nameNormalizer.of(psiFieldsForSetter);
+            String value = collectionFields.containsKey(psiFieldsForSetter) ? handOff(psiFieldsForSetter) : names.getName();
+            appendIfSet(buildMethodText, psiFieldsForSetter, srcClassFieldName + "." + names.getSetterName() + "(" + value + ");");
+        }
+    }
+
+    private void appendAssignments(StringBuilder buildMethodText, Collection<PsiField> fieldsSetViaAssignment) {
+        for (PsiField field : fieldsSetViaAssignment) {
+            appendIfSet(buildMethodText, field, srcClassFieldName + "." + field.getName() + "=" + handOff(field) + ";");
+        }
+    }
+
+    private String createConstructorParameters() {
+        if (bestConstructor == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (PsiParameter psiParameter : bestConstructor.getParameterList().getParameters()) {
+            PsiField psiField = findConstructorField(psiParameter);
+            if (psiField != null) {
+                sb.append(collectionFields.containsKey(psiField) ? handOff(psiField) : psiField.getName()).append(SEMICOLON);
+            } else {
+                sb.append(getDefaultValue(psiParameter.getType())).append(SEMICOLON);
+            }
+        }
+        removeLastSemicolon(sb);
+        return sb.toString();
+    }
+
+    private PsiField findConstructorField(PsiParameter psiParameter) {
+        for (PsiField psiField : psiFieldsForConstructor) {
+            if (psiFieldVerifier.areNameAndTypeEqual(psiField, psiParameter, nameNormalizer)) {
+                return psiField;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Direct withers copy the object with its constructor alone, so they are only generated when every selected field
+     * goes through the constructor and every constructor parameter has its field, readable from the source class.
+     */
+    private boolean hasDirectWithers() {
+        if (!context.hasDirectWithers() || useSingleField || !isInline || bestConstructor == null) {
+            return false;
+        }
+        return Arrays.stream(bestConstructor.getParameterList().getParameters()).allMatch(psiParameter -> {
+            PsiField psiField = findConstructorField(psiParameter);
+            return psiField != null && psiHelper.isAccessibleFrom(psiField, srcClass);
+        });
+    }
+
+    private void createDirectWithers() {
+        for (PsiField psiField : new LinkedHashSet<>(psiFieldsForConstructor)) {
+            PsiMethod method = elementFactory.createMethodFromText(directWitherText(psiField), srcClass);
+            PsiMethod existingMethod = srcClass.findMethodBySignature(method, false);
+            if (existingMethod != null && !isDirectWither(existingMethod, psiField, nameNormalizer)) {
+                continue;
+            }
+            PsiElement wither = existingMethod != null ? existingMethod.replace(method) : srcClass.addBefore(method, srcClass.getLastChild());
+            psiHelper.shortenClassReferencesAndReformat(wither);
+        }
+    }
+
+    /**
+     * Only a method generated as a direct wither is replaced, so that it follows constructor changes.
+     * A hand-written method with the same signature is kept.
+     */
+    public static boolean isDirectWither(PsiMethod method, PsiField psiField, NameNormalizer nameNormalizer) {
+        PsiCodeBlock body = method.getBody();
+        PsiStatement[] statements = body != null ? body.getStatements() : PsiStatement.EMPTY_ARRAY;
+        String guard = "if(this." + psiField.getName() + "==" + nameNormalizer.of(psiField).getParameterName() + "){returnthis;}";
+        return statements.length == 2 && guard.equals(statements[0].getText().replaceAll("\\s+", ""));
+    }
+
+    private String directWitherText(PsiField changedField) {
+        NameNormalizer.FieldNames names = nameNormalizer.of(changedField);
+        String parameterName = names.getParameterName();
+        StringBuilder arguments = new StringBuilder();
+        for (PsiParameter psiParameter : bestConstructor.getParameterList().getParameters()) {
+            PsiField psiField = findConstructorField(psiParameter);
+            arguments.append(psiField == changedField ? parameterName : "this." + psiField.getName()).append(SEMICOLON);
+        }
+        removeLastSemicolon(arguments);
+        return "public " + srcClassName + SPACE + names.getBuilderMethodName(context.getMethodPrefix())
+                + "(" + changedField.getType().getCanonicalText() + SPACE + parameterName + ") { "
+                + "if (this." + changedField.getName() + " == " + parameterName + ") { return this; } "
+                + "return new " + srcClassName + "(" + arguments + "); }";
+    }
+
+    private void createStaticBuilderConstructor() {
+        String methodBody = "return new " + builderClassName + "();";
+
+        PsiMethod method = elementFactory.createMethodFromText(
+                builderClassName + " builder() { " + methodBody + " }", srcClass);
+
+        PsiUtil.setModifierProperty(method, PsiModifier.PUBLIC, true);
+        PsiUtil.setModifierProperty(method, PsiModifier.STATIC, true);
+
+        PsiElement firstChild = srcClass.getLBrace();
+
+        srcClass.addAfter(method, firstChild);
+    }
+
+    private void createStaticEmptyMethod() {
+        String methodBody = "return builder().build();";
+
+        PsiMethod method = elementFactory.createMethodFromText(
+                srcClassName + " empty() { " + methodBody + " }", srcClass);
+
+        PsiUtil.setModifierProperty(method, PsiModifier.PUBLIC, true);
+        PsiUtil.setModifierProperty(method, PsiModifier.STATIC, true);
+
+        PsiElement firstChild = srcClass.getLBrace();
+
+        srcClass.addAfter(method, firstChild);
+    }
+
+    private void createAsBuilderMethod() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(builderClassName)
+                .append(" with() { return new ").append(builderClassName)
+                .append("(this); }");
+
+        PsiMethod method = elementFactory.createMethodFromText(sb.toString(), srcClass);
+        PsiUtil.setModifierProperty(method, PsiModifier.PUBLIC, true);
+        PsiElement lastChild = srcClass.getLastChild();
+
+        srcClass.addBefore(method, lastChild);
+    }
+
+    private void createWitherInterface() {
+        PsiClass withInterface = elementFactory.createInterface(WITHER_INTERFACE_NAME);
+
+        createWithMethod(withInterface);
+        createWithDefaultMethods(withInterface);
+
+        PsiElement lastChild = builderClass.getLastChild();
+        builderClass.addBefore(withInterface, lastChild);
+
+        /**
+        withInterface.getContainingClass().add(builderClass);
+
+        PsiElement a = elementFactory.createClassReferenceElement(withInterface);
+        srcClass.getLBrace().addBefore(a, srcClass); **/
+    }
+
+    private void createWithMethod(PsiClass withInterface) {
+        String methodStr = builderClassName + " with();";
+        PsiMethod method = elementFactory.createMethodFromText(methodStr, withInterface);
+
+        withInterface.addAfter(method, withInterface.getLBrace());
+    }
+
+    private void createWithDefaultMethods(PsiElement withInterface) {
+        for (PsiField psiFieldsForSetter : allSelectedPsiFields.stream().distinct().collect(Collectors.toList())) {
+            PsiMethod method = elementFactory.createMethodFromText(withDefaultMethodText(psiFieldsForSetter), withInterface);
+            PsiUtil.setModifierProperty(method, PsiModifier.PUBLIC, true);
+
+            withInterface.addBefore(method, withInterface.getLastChild());
+        }
+    }
+
+    private void appendWitherInterfaceText(StringBuilder text) {
+        text.append("interface ").append(WITHER_INTERFACE_NAME).append(" {").append(builderClassName).append(" with();");
+        for (PsiField psiFieldsForSetter : allSelectedPsiFields.stream().distinct().collect(Collectors.toList())) {
+            text.append("public ").append(withDefaultMethodText(psiFieldsForSetter));
+        }
+        text.append("}");
+    }
+
+    private String withDefaultMethodText(PsiField psiFieldsForSetter) {
+        StringBuilder sb = new StringBuilder();
+
+        String fieldNameUppercase = nameNormalizer.of(psiFieldsForSetter).getCapitalizedName();
+        String type = psiFieldsForSetter.getType().getCanonicalText();
+        String normalFieldName = psiFieldsForSetter.getName();
+
+        sb.append("default ").append(srcClassName).append(" with")
+                .append(fieldNameUppercase)
+                .append("(").append(type).append(" ").append(normalFieldName).append(") {")
+                .append("return with().with").append(fieldNameUppercase)
+                .append("(").append(normalFieldName).append(").build();")
+                .append(" }");
+        return sb.toString();
+    }
+
+    private String getDefaultValue(PsiType type) {
+        if (type.equals(PsiType.BOOLEAN)) {
+            return "false";
+        } else if (type.equals(PsiType.BYTE) || type.equals(PsiType.SHORT) || type.equals(PsiType.INT)) {
+            return "0";
+        } else if (type.equals(PsiType.LONG)) {
+            return "0L";
+        } else if (type.equals(PsiType.FLOAT)) {
+            return "0.0f";
+        } else if (type.equals(PsiType.DOUBLE)) {
+            return "0.0d";
+        } else if (type.equals(PsiType.CHAR)) {
+            return "'\\u0000'";
+        }
+        return "null";
+    }
+
+    private void removeLastSemicolon(StringBuilder sb) {
+        if (sb.toString().endsWith(SEMICOLON)) {
+            sb.deleteCharAt(sb.length() - 1);
+        }
+    }
+}
@@ -3,37 +3,76 @@ package pl.mjedynak.idea.plugins.builder.psi;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer.FieldNames;
 
 public class MethodCreator {
 
-    private CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
-    private MethodNameCreator methodNameCreator = new MethodNameCreator();
     private PsiElementFactory elementFactory;
     private String builderClassName;
+    private NameNormalizer nameNormalizer;
 
-    public MethodCreator(PsiElementFactory elementFactory, String builderClassName) {
+    public MethodCreator(PsiElementFactory elementFactory, String builderClassName, NameNormalizer nameNormalizer) {
         this.elementFactory = elementFactory;
         this.builderClassName = builderClassName;
+        this.nameNormalizer = nameNormalizer;
     }
 
     public PsiMethod createMethod(PsiField psiField, String methodPrefix, String srcClassFieldName, boolean useSingleField) {
-        String fieldName = psiField.getName();
-        String fieldType = psiField.getType().getPresentableText();
-        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-        String fieldNameWithoutPrefix = fieldName.replaceFirst(fieldNamePrefix, "");
-        String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
-        String parameterName = parameterNamePrefix + fieldNameWithoutPrefix;
-        String methodName = methodNameCreator.createMethodName(methodPrefix, fieldNameWithoutPrefix);
+        String methodText = createMethodText(psiField, builderClassName, psiField.getType().getPresentableText(), methodPrefix, srcClassFieldName, useSingleField);
+        return elementFactory.createMethodFromText(methodText, psiField);
+    }
+
+    public String createMethodText(PsiField psiField, String methodPrefix, String srcClassFieldName, boolean useSingleField) {
+        return createMethodText(psiField, builderClassName, psiField.getType().getCanonicalText(), methodPrefix, srcClassFieldName, useSingleField);
+    }
+
+    /**
+     * Renders a method of a staged builder, which assigns the field and returns the builder as its next stage.
+     */
+    public String createStageMethodText(PsiField psiField, String methodPrefix, String stageName) {
+        return createMethodText(psiField, stageName, psiField.getType().getCanonicalText(), methodPrefix, null, false);
+    }
+
+    /**
+     * Renders a method which, besides assigning the field, runs {@code trackingStatement} to record that it was set.
+     */
+    public String createTrackedMethodText(PsiField psiField, String methodPrefix, String trackingStatement) {
+        FieldNames names = nameNormalizer.of(psiField);
+        String parameterName = names.getParameterName();
+        return "public " + builderClassName + " " + names.getBuilderMethodName(methodPrefix) + "(" + psiField.getType().getCanonicalText() + " " + parameterName
+                + ") { this." + names.getName() + " = " + parameterName + "; " + trackingStatement + " return this; }";
+    }
+
+    /**
+     * Renders the methods of a collection the builder accumulates: a setter copying the collection, so the builder
+     * owns what it fills, a method adding one element and a hint pre-sizing the collection.
+     */
+    public String createAccumulatorMethodsText(PsiField psiField, String methodPrefix, CollectionAccumulator accumulator) {
+        FieldNames names = nameNormalizer.of(psiField);
+        String parameterName = names.getParameterName();
+        String methodName = names.getBuilderMethodName(methodPrefix);
+        return "public " + builderClassName + " " + methodName + "(" + psiField.getType().getCanonicalText() + " " + parameterName
+                + ") { this." + names.getName() + " = " + accumulator.copyOf(parameterName) + "; return this; }"
+                + "public " + builderClassName + " " + accumulator.getAddMethodName() + "(" + accumulator.getAddMethodParameters() + ") { "
+                + accumulator.getInitializationStatement("") + " " + accumulator.getAddStatement() + " return this; }"
+                + "public " + builderClassName + " " + CollectionAccumulator.getCapacityMethodName(methodName) + "(int capacity) { "
+                + accumulator.getInitializationStatement("capacity") + " return this; }";
+    }
+
+    private String createMethodText(PsiField psiField, String returnType, String fieldType, String methodPrefix, String srcClassFieldName, boolean useSingleField) {
+        FieldNames names = nameNormalizer.of(psiField);
+        String fieldName = names.getName();
+        String parameterName = names.getParameterName();
+        String methodName = names.getBuilderMethodName(methodPrefix);
         String methodText;
         if(useSingleField){
-            String setterName = methodNameCreator.createMethodName("set", fieldNameWithoutPrefix);
-            methodText = "public " + builderClassName + " " + methodName + "(" + fieldType + " " + parameterName + ") { "
+            String setterName = names.getSetterName();
+            methodText = "public " + returnType + " " + methodName + "(" + fieldType + " " + parameterName + ") { "
                 + srcClassFieldName + "." + setterName + "(" + fieldName + "); return this; }";
         } else {
-            methodText = "public " + builderClassName + " " + methodName + "(" + fieldType + " " + parameterName + ") { this."
+            methodText = "public " + returnType + " " + methodName + "(" + fieldType + " " + parameterName + ") { this."
                 + fieldName + " = " + parameterName + "; return this; }";
         }
-        return elementFactory.createMethodFromText(methodText, psiField);
+        return methodText;
     }
 }
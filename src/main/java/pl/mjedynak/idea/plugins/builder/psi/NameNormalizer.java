@@ -0,0 +1,106 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang.StringUtils.capitalize;
+import static org.apache.commons.lang.StringUtils.defaultString;
+
+/**
+ * Resolves the field and parameter name prefixes once and memoizes every name derived from a field,
+ * so a single generation strips and capitalizes each field name only once.
+ * Prefixes are removed literally and only from the start of a name.
+ */
+public class NameNormalizer {
+
+    private static final String SET_PREFIX = "set";
+    private static final String GET_PREFIX = "get";
+
+    private final MethodNameCreator methodNameCreator = new MethodNameCreator();
+    private final String fieldNamePrefix;
+    private final String parameterNamePrefix;
+    private final Map<String, FieldNames> fieldNames = new ConcurrentHashMap<>();
+
+    public NameNormalizer(CodeStyleSettings codeStyleSettings) {
+        this.fieldNamePrefix = defaultString(codeStyleSettings.getFieldNamePrefix());
+        this.parameterNamePrefix = defaultString(codeStyleSettings.getParameterNamePrefix());
+    }
+
+    public String getFieldNamePrefix() {
+        return fieldNamePrefix;
+    }
+
+    public String getParameterNamePrefix() {
+        return parameterNamePrefix;
+    }
+
+    public FieldNames of(PsiField psiField) {
+        return of(psiField.getName());
+    }
+
+    public FieldNames of(String fieldName) {
+        return fieldNames.computeIfAbsent(fieldName, FieldNames::new);
+    }
+
+    public String stripParameterPrefix(String parameterName) {
+        return stripPrefix(parameterName, parameterNamePrefix);
+    }
+
+    static String stripPrefix(String name, String prefix) {
+        if (!prefix.isEmpty() && name.startsWith(prefix)) {
+            return name.substring(prefix.length());
+        }
+        return name;
+    }
+
+    public final class FieldNames {
+        private final String name;
+        private final String nameWithoutPrefix;
+        private final String capitalizedName;
+        private final String parameterName;
+        private final String setterName;
+        private final String getterName;
+        private final Map<String, String> builderMethodNames = new ConcurrentHashMap<>();
+
+        private FieldNames(String name) {
+            this.name = name;
+            this.nameWithoutPrefix = stripPrefix(name, fieldNamePrefix);
+            this.capitalizedName = capitalize(nameWithoutPrefix);
+            this.parameterName = parameterNamePrefix + nameWithoutPrefix;
+            this.setterName = SET_PREFIX + capitalizedName;
+            this.getterName = GET_PREFIX + capitalizedName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getNameWithoutPrefix() {
+            return nameWithoutPrefix;
+        }
+
+        public String getCapitalizedName() {
+            return capitalizedName;
+        }
+
+        public String getParameterName() {
+            return parameterName;
+        }
+
+        public String getSetterName() {
+            return setterName;
+        }
+
+        public String getGetterName() {
+            return getterName;
+        }
+
+        public String getBuilderMethodName(String methodPrefix) {
+            return builderMethodNames.computeIfAbsent(defaultString(methodPrefix),
+                    prefix -> methodNameCreator.createMethodName(prefix, nameWithoutPrefix));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiClassAnalysis;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+
+public class PsiClassAnalysisCache {
+
+    private static final Key<CachedValue<PsiClassAnalysis>> ANALYSIS_KEY = Key.create("BuilderGenerator.PsiClassAnalysis");
+
+    private PsiFieldVerifier psiFieldVerifier;
+
+    public PsiClassAnalysisCache(PsiFieldVerifier psiFieldVerifier) {
+        this.psiFieldVerifier = psiFieldVerifier;
+    }
+
+    public PsiClassAnalysis getAnalysis(PsiClass psiClass) {
+        return CachedValuesManager.getCachedValue(psiClass, ANALYSIS_KEY, () -> CachedValueProvider.Result.create(
+                new PsiClassAnalysis(psiFieldVerifier.accessorsOf(psiClass)),
+                PsiModificationTracker.getInstance(psiClass.getProject()).getJavaStructureModificationTracker()));
+    }
+}
@@ -4,9 +4,12 @@ import com.intellij.codeInsight.generation.PsiElementClassMember;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiClassAnalysis;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static java.util.Arrays.stream;
@@ -16,17 +19,22 @@ public class PsiFieldSelector {
 
     private PsiElementClassMemberFactory psiElementClassMemberFactory;
     private PsiFieldVerifier psiFieldVerifier;
+    private PsiClassAnalysisCache psiClassAnalysisCache;
 
-    public PsiFieldSelector(PsiElementClassMemberFactory psiElementClassMemberFactory, PsiFieldVerifier psiFieldVerifier) {
+    public PsiFieldSelector(PsiElementClassMemberFactory psiElementClassMemberFactory, PsiFieldVerifier psiFieldVerifier, PsiClassAnalysisCache psiClassAnalysisCache) {
         this.psiElementClassMemberFactory = psiElementClassMemberFactory;
         this.psiFieldVerifier = psiFieldVerifier;
+        this.psiClassAnalysisCache = psiClassAnalysisCache;
     }
 
     public List<PsiElementClassMember> selectFieldsToIncludeInBuilder(final PsiClass psiClass, final boolean innerBuilder, final boolean useSingleField, final boolean hasButMethod) {
         List<PsiElementClassMember> result = new ArrayList<>();
+        PsiClassAnalysis analysis = psiClassAnalysisCache.getAnalysis(psiClass);
 
-        List<PsiField> psiFields = stream(psiClass.getAllFields()).filter(psiField -> !"serialVersionUID".equals(psiField.getName())).collect(toList());
-        Iterable<PsiField> filtered = psiFields.stream().filter(psiField -> isAppropriate(psiClass, psiField, innerBuilder, useSingleField, hasButMethod)).collect(toList());
+        Iterable<PsiField> filtered = analysis.getFieldsToInclude(innerBuilder, useSingleField, hasButMethod,
+                () -> psiClass.isRecord()
+                        ? selectRecordFields(psiClass, useSingleField)
+                        : selectFields(psiClass, analysis.getAccessors(), innerBuilder, useSingleField, hasButMethod));
 
         for (PsiField psiField : filtered) {
             result.add(psiElementClassMemberFactory.createPsiElementClassMember(psiField));
@@ -34,13 +42,26 @@ public class PsiFieldSelector {
         return result;
     }
 
-    private boolean isAppropriate(PsiClass psiClass, PsiField psiField, boolean innerBuilder, boolean useSingleField, boolean hasButMethod) {
+    /**
+     * Every record component goes through the canonical constructor, so a builder keeping a single record object
+     * which it fills with setters cannot be generated.
+     */
+    private List<PsiField> selectRecordFields(PsiClass psiClass, boolean useSingleField) {
+        return useSingleField ? Collections.emptyList() : psiFieldVerifier.getRecordFields(psiClass);
+    }
+
+    private List<PsiField> selectFields(PsiClass psiClass, PsiClassAccessors accessors, boolean innerBuilder, boolean useSingleField, boolean hasButMethod) {
+        List<PsiField> psiFields = stream(psiClass.getAllFields()).filter(psiField -> !"serialVersionUID".equals(psiField.getName())).collect(toList());
+        return psiFields.stream().filter(psiField -> isAppropriate(accessors, psiField, innerBuilder, useSingleField, hasButMethod)).collect(toList());
+    }
+
+    private boolean isAppropriate(PsiClassAccessors accessors, PsiField psiField, boolean innerBuilder, boolean useSingleField, boolean hasButMethod) {
         if(useSingleField && hasButMethod) {
-            return psiFieldVerifier.isSetInSetterMethod(psiField, psiClass) && psiFieldVerifier.hasGetterMethod(psiField, psiClass);
+            return psiFieldVerifier.isSetInSetterMethod(psiField, accessors) && psiFieldVerifier.hasGetterMethod(psiField, accessors);
         } else if(useSingleField){
-            return psiFieldVerifier.isSetInSetterMethod(psiField, psiClass);
+            return psiFieldVerifier.isSetInSetterMethod(psiField, accessors);
         } else if(!innerBuilder){
-            return psiFieldVerifier.isSetInSetterMethod(psiField, psiClass) || psiFieldVerifier.isSetInConstructor(psiField, psiClass);
+            return psiFieldVerifier.isSetInSetterMethod(psiField, accessors) || psiFieldVerifier.isSetInConstructor(psiField, accessors);
         }
         return true;
     }
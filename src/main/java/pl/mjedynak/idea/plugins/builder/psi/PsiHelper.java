@@ -1,24 +1,44 @@
 package pl.mjedynak.idea.plugins.builder.psi;
 
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.ide.util.PackageUtil;
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.pom.Navigatable;
+import com.intellij.pom.java.LanguageLevel;
 import com.intellij.psi.JavaDirectoryService;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiClassOwner;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMember;
 import com.intellij.psi.PsiPackage;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.util.PsiUtil;
 import com.intellij.psi.util.PsiUtilBase;
 import com.intellij.refactoring.util.RefactoringMessageUtil;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import static com.intellij.ide.util.EditSourceUtil.getDescriptor;
 
@@ -78,6 +98,10 @@ public class PsiHelper {
         return JavaPsiFacade.getInstance(project);
     }
 
+    public FileBasedIndex getFileBasedIndex() {
+        return FileBasedIndex.getInstance();
+    }
+
     public CommandProcessor getCommandProcessor() {
         return CommandProcessor.getInstance();
     }
@@ -86,6 +110,75 @@ public class PsiHelper {
         return ApplicationManager.getApplication();
     }
 
+    /**
+     * Runs {@code readAction} on a pooled thread as a cancellable, non-blocking read action which is restarted
+     * whenever a write action interrupts it, then hands its result to {@code onSuccess} on the EDT unless the project
+     * was closed meanwhile. PSI in the result may have been invalidated before {@code onSuccess} runs, so it has to be checked there.
+     */
+    public <T> void runReadActionInBackground(Project project, String title, Callable<T> readAction, Consumer<T> onSuccess) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, title, true) {
+            private T result;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                result = ReadAction.nonBlocking(readAction)
+                        .inSmartMode(project)
+                        .expireWith(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
+            }
+
+            @Override
+            public void onSuccess() {
+                if (!project.isDisposed()) {
+                    onSuccess.accept(result);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs {@code readAction} synchronously on the calling background thread as a non-blocking read action,
+     * waiting for indexing to finish and restarting it when a write action interrupts it.
+     */
+    public <T> T computeInNonBlockingReadAction(Project project, Callable<T> readAction) {
+        return ReadAction.nonBlocking(readAction).inSmartMode(project).executeSynchronously();
+    }
+
+    public <T> boolean processConcurrently(List<T> items, ProgressIndicator indicator, Processor<? super T> processor) {
+        return JobLauncher.getInstance().invokeConcurrentlyUnderProgress(items, indicator, processor);
+    }
+
+    public void invokeAndWait(Runnable runnable) {
+        getApplication().invokeAndWait(runnable);
+    }
+
+    public void shortenClassReferencesAndReformat(PsiElement element) {
+        Project project = element.getProject();
+        JavaCodeStyleManager.getInstance(project).shortenClassReferences(element);
+        CodeStyleManager.getInstance(project).reformat(element);
+    }
+
+    /**
+     * Whether the class is declared in a source or test source root of the project, rather than in a library.
+     */
+    public boolean isInProjectSources(PsiClass psiClass) {
+        PsiFile psiFile = psiClass.getContainingFile();
+        VirtualFile virtualFile = psiFile != null ? psiFile.getVirtualFile() : null;
+        return virtualFile != null && ProjectFileIndex.getInstance(psiClass.getProject()).isInSourceContent(virtualFile);
+    }
+
+    /**
+     * Whether {@code member} can be accessed as {@code this.member} from code of {@code psiClass}.
+     */
+    public boolean isAccessibleFrom(PsiMember member, PsiClass psiClass) {
+        return JavaPsiFacade.getInstance(psiClass.getProject()).getResolveHelper().isAccessible(member, psiClass, psiClass);
+    }
+
+    public boolean isLanguageLevelAtLeast(PsiElement element, LanguageLevel languageLevel) {
+        return PsiUtil.getLanguageLevel(element).isAtLeast(languageLevel);
+    }
+
     public Module findModuleForPsiClass(PsiClass psiClass, Project project) {
         return ModuleUtil.findModuleForFile(psiClass.getContainingFile().getVirtualFile(), project);
     }
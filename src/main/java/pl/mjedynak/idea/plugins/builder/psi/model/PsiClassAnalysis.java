@@ -0,0 +1,58 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.psi.PsiField;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Results of analysing a single source class: its accessor index, the fields eligible for each builder flavour
+ * and the constructor/setter split computed for the latest selection of fields.
+ * Instances are cached per class and dropped as soon as the structure of Java code changes.
+ */
+public class PsiClassAnalysis {
+
+    private final PsiClassAccessors accessors;
+    private final Map<List<Boolean>, List<PsiField>> fieldsToInclude = new ConcurrentHashMap<>();
+    private volatile SelectionAnalysis latestSelection;
+
+    public PsiClassAnalysis(PsiClassAccessors accessors) {
+        this.accessors = accessors;
+    }
+
+    public PsiClassAccessors getAccessors() {
+        return accessors;
+    }
+
+    public List<PsiField> getFieldsToInclude(boolean innerBuilder, boolean useSingleField, boolean hasButMethod, Supplier<List<PsiField>> selection) {
+        List<Boolean> key = ImmutableList.of(innerBuilder, useSingleField, hasButMethod);
+        return fieldsToInclude.computeIfAbsent(key, k -> ImmutableList.copyOf(selection.get()));
+    }
+
+    /**
+     * Only the latest selection is kept, as the user keeps reusing it, while every other one would stay in memory
+     * until the next change of Java code.
+     */
+    public PsiFieldsForBuilder getFieldsForBuilder(List<PsiField> selectedFields, Supplier<PsiFieldsForBuilder> analysis) {
+        SelectionAnalysis selection = latestSelection;
+        if (selection == null || !selection.selectedFields.equals(selectedFields)) {
+            selection = new SelectionAnalysis(ImmutableList.copyOf(selectedFields), analysis.get());
+            latestSelection = selection;
+        }
+        return selection.fieldsForBuilder;
+    }
+
+    private static final class SelectionAnalysis {
+        private final List<PsiField> selectedFields;
+        private final PsiFieldsForBuilder fieldsForBuilder;
+
+        SelectionAnalysis(List<PsiField> selectedFields, PsiFieldsForBuilder fieldsForBuilder) {
+            this.selectedFields = selectedFields;
+            this.fieldsForBuilder = fieldsForBuilder;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package pl.mjedynak.idea.plugins.builder.service;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PopupChooserBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.factory.ReferenceEditorComboWithBrowseButtonFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
+import pl.mjedynak.idea.plugins.builder.inspection.BuilderSyncChecker;
+import pl.mjedynak.idea.plugins.builder.marker.BuilderCounterparts;
+import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiClassAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+/**
+ * Holds the stateless collaborators shared by all projects. Being a light service, it is created on first use
+ * rather than when the actions are loaded.
+ */
+@Service
+public final class BuilderGeneratorApplicationService {
+
+    private final PsiHelper psiHelper = new PsiHelper();
+    private final BuilderVerifier builderVerifier = new BuilderVerifier();
+    private final BuilderFinder builderFinder = new BuilderFinder(new ClassFinder(psiHelper));
+    private final PsiFieldVerifier psiFieldVerifier = new PsiFieldVerifier();
+    private final PsiClassAnalysisCache psiClassAnalysisCache = new PsiClassAnalysisCache(psiFieldVerifier);
+    private final PsiFieldSelector psiFieldSelector = new PsiFieldSelector(new PsiElementClassMemberFactory(), psiFieldVerifier, psiClassAnalysisCache);
+    private final PsiFieldsForBuilderFactory psiFieldsForBuilderFactory =
+            new PsiFieldsForBuilderFactory(psiFieldVerifier, new BestConstructorSelector(psiFieldVerifier), psiClassAnalysisCache);
+    private final BuilderPsiClassBuilder builderPsiClassBuilder = new BuilderPsiClassBuilder();
+    private final BuilderWriter builderWriter = new BuilderWriter(builderPsiClassBuilder, psiHelper);
+    private final PopupChooserBuilderFactory popupChooserBuilderFactory = new PopupChooserBuilderFactory();
+    private final CreateBuilderDialogFactory createBuilderDialogFactory =
+            new CreateBuilderDialogFactory(psiHelper, new ReferenceEditorComboWithBrowseButtonFactory(), new GuiHelper());
+    private final MemberChooserDialogFactory memberChooserDialogFactory = new MemberChooserDialogFactory();
+    private final BuilderSyncChecker builderSyncChecker = new BuilderSyncChecker(builderVerifier, builderFinder, psiFieldSelector);
+    private final BuilderCounterparts builderCounterparts = new BuilderCounterparts(builderVerifier, builderFinder);
+
+    public static BuilderGeneratorApplicationService getInstance() {
+        return ApplicationManager.getApplication().getService(BuilderGeneratorApplicationService.class);
+    }
+
+    public PsiHelper getPsiHelper() {
+        return psiHelper;
+    }
+
+    public BuilderVerifier getBuilderVerifier() {
+        return builderVerifier;
+    }
+
+    public BuilderFinder getBuilderFinder() {
+        return builderFinder;
+    }
+
+    public PsiFieldSelector getPsiFieldSelector() {
+        return psiFieldSelector;
+    }
+
+    public PsiFieldsForBuilderFactory getPsiFieldsForBuilderFactory() {
+        return psiFieldsForBuilderFactory;
+    }
+
+    public BuilderPsiClassBuilder getBuilderPsiClassBuilder() {
+        return builderPsiClassBuilder;
+    }
+
+    public BuilderWriter getBuilderWriter() {
+        return builderWriter;
+    }
+
+    public PopupChooserBuilderFactory getPopupChooserBuilderFactory() {
+        return popupChooserBuilderFactory;
+    }
+
+    public CreateBuilderDialogFactory getCreateBuilderDialogFactory() {
+        return createBuilderDialogFactory;
+    }
+
+    public MemberChooserDialogFactory getMemberChooserDialogFactory() {
+        return memberChooserDialogFactory;
+    }
+
+    public BuilderSyncChecker getBuilderSyncChecker() {
+        return builderSyncChecker;
+    }
+
+    public BuilderCounterparts getBuilderCounterparts() {
+        return builderCounterparts;
+    }
+}
@@ -0,0 +1,55 @@
+package pl.mjedynak.idea.plugins.builder.service;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import pl.mjedynak.idea.plugins.builder.action.handler.BatchBuilderGenerator;
+import pl.mjedynak.idea.plugins.builder.action.handler.DisplayChoosers;
+import pl.mjedynak.idea.plugins.builder.action.handler.GenerateBuilderActionHandler;
+import pl.mjedynak.idea.plugins.builder.action.handler.GoToBuilderActionHandler;
+import pl.mjedynak.idea.plugins.builder.factory.GenerateBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.GenerateBuilderPopupDisplayer;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
+
+/**
+ * Holds the action handlers of one project. {@link DisplayChoosers} remembers the project, editor and class it works on,
+ * so every project gets its own handlers instead of sharing them across the IDE.
+ */
+@Service
+public final class BuilderGeneratorProjectService {
+
+    private final GenerateBuilderActionHandler generateBuilderActionHandler;
+    private final GoToBuilderActionHandler goToBuilderActionHandler;
+    private final BatchBuilderGenerator batchBuilderGenerator;
+
+    public BuilderGeneratorProjectService() {
+        BuilderGeneratorApplicationService services = BuilderGeneratorApplicationService.getInstance();
+        generateBuilderActionHandler = new GenerateBuilderActionHandler(services.getPsiHelper(), services.getBuilderVerifier(), services.getBuilderFinder(),
+                new GenerateBuilderPopupDisplayer(services.getPopupChooserBuilderFactory()), new GenerateBuilderPopupListFactory(), createDisplayChoosers(services));
+        goToBuilderActionHandler = new GoToBuilderActionHandler(services.getPsiHelper(), services.getBuilderVerifier(), services.getBuilderFinder(),
+                new GoToBuilderPopupDisplayer(services.getPopupChooserBuilderFactory()), new GoToBuilderPopupListFactory(), createDisplayChoosers(services));
+        batchBuilderGenerator = new BatchBuilderGenerator(services.getPsiHelper(), services.getPsiFieldSelector(), services.getPsiFieldsForBuilderFactory(),
+                services.getBuilderFinder(), services.getBuilderVerifier(), services.getBuilderWriter());
+    }
+
+    public static BuilderGeneratorProjectService getInstance(Project project) {
+        return project.getService(BuilderGeneratorProjectService.class);
+    }
+
+    private static DisplayChoosers createDisplayChoosers(BuilderGeneratorApplicationService services) {
+        return new DisplayChoosers(services.getPsiHelper(), services.getCreateBuilderDialogFactory(), services.getPsiFieldSelector(),
+                services.getMemberChooserDialogFactory(), services.getBuilderWriter(), services.getPsiFieldsForBuilderFactory());
+    }
+
+    public GenerateBuilderActionHandler getGenerateBuilderActionHandler() {
+        return generateBuilderActionHandler;
+    }
+
+    public GoToBuilderActionHandler getGoToBuilderActionHandler() {
+        return goToBuilderActionHandler;
+    }
+
+    public BatchBuilderGenerator getBatchBuilderGenerator() {
+        return batchBuilderGenerator;
+    }
+}
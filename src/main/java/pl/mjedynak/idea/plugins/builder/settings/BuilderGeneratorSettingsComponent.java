@@ -1,6 +1,7 @@
 package pl.mjedynak.idea.plugins.builder.settings;
 
 
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBTextField;
@@ -17,14 +18,32 @@ public class BuilderGeneratorSettingsComponent {
         private final JBCheckBox butMethodCheckBox = new JBCheckBox("'but' method'");
         private final JBCheckBox useSinglePrefixCheckBox = new JBCheckBox("Use single prefix");
         private final JBCheckBox generateStaticBuilderMethodBox = new JBCheckBox("Generate static builder method");
+        private final JBCheckBox singlePassGenerationCheckBox = new JBCheckBox("Generate builder in a single pass");
+        private final JBCheckBox patchExistingBuilderCheckBox = new JBCheckBox("Update existing builder in place when regenerating");
+        private final JBCheckBox stagedBuilderCheckBox = new JBCheckBox("Staged builder requiring constructor fields in order");
+        private final JBCheckBox reusableBuilderCheckBox = new JBCheckBox("Reusable builder with reset() and buildInto() methods");
+        private final JBCheckBox directWithersCheckBox = new JBCheckBox("Withers calling the constructor of immutable classes directly");
+        private final JBCheckBox sparseBuilderCheckBox = new JBCheckBox("Sparse builder applying only the fields which were set");
+        private final JBCheckBox collectionAccumulatorsCheckBox = new JBCheckBox("Collection fields with add/put methods and a capacity hint");
+        private final ComboBox<GeneratorProfile> generatorProfileComboBox = new ComboBox<>(GeneratorProfile.values());
+        private final ComboBox<CollectionHandoff> collectionHandoffComboBox = new ComboBox<>(CollectionHandoff.values());
 
         public BuilderGeneratorSettingsComponent() {
             myMainPanel = FormBuilder.createFormBuilder()
                     .addLabeledComponent(new JBLabel("Default prefix: "), defaultMethodPrefixText, 1, false)
+                    .addLabeledComponent(new JBLabel("Generated artifacts: "), generatorProfileComboBox, 1, false)
+                    .addLabeledComponent(new JBLabel("Collection handoff in build(): "), collectionHandoffComboBox, 1, false)
                     .addComponent(innerBuilderCheckBox, 1)
                     //.addComponent(butMethodCheckBox, 1)
                     //.addComponent(useSinglePrefixCheckBox, 1)
                     .addComponent(generateStaticBuilderMethodBox)
+                    .addComponent(singlePassGenerationCheckBox)
+                    .addComponent(patchExistingBuilderCheckBox)
+                    .addComponent(stagedBuilderCheckBox)
+                    .addComponent(reusableBuilderCheckBox)
+                    .addComponent(directWithersCheckBox)
+                    .addComponent(sparseBuilderCheckBox)
+                    .addComponent(collectionAccumulatorsCheckBox)
                     .addComponentFillVertically(new JPanel(), 0)
                     .getPanel();
         }
@@ -79,4 +98,76 @@ public class BuilderGeneratorSettingsComponent {
         public void setUseSinglePrefix(boolean isUseSinglePrefix) {
             useSinglePrefixCheckBox.setSelected(isUseSinglePrefix);
         }
+
+        public boolean isSinglePassGeneration() {
+            return singlePassGenerationCheckBox.isSelected();
+        }
+
+        public void setSinglePassGeneration(boolean isSinglePassGeneration) {
+            singlePassGenerationCheckBox.setSelected(isSinglePassGeneration);
+        }
+
+        public boolean isPatchExistingBuilder() {
+            return patchExistingBuilderCheckBox.isSelected();
+        }
+
+        public void setPatchExistingBuilder(boolean isPatchExistingBuilder) {
+            patchExistingBuilderCheckBox.setSelected(isPatchExistingBuilder);
+        }
+
+        public boolean isStagedBuilder() {
+            return stagedBuilderCheckBox.isSelected();
+        }
+
+        public void setStagedBuilder(boolean isStagedBuilder) {
+            stagedBuilderCheckBox.setSelected(isStagedBuilder);
+        }
+
+        public boolean isReusableBuilder() {
+            return reusableBuilderCheckBox.isSelected();
+        }
+
+        public void setReusableBuilder(boolean isReusableBuilder) {
+            reusableBuilderCheckBox.setSelected(isReusableBuilder);
+        }
+
+        public boolean isDirectWithers() {
+            return directWithersCheckBox.isSelected();
+        }
+
+        public void setDirectWithers(boolean isDirectWithers) {
+            directWithersCheckBox.setSelected(isDirectWithers);
+        }
+
+        public boolean isSparseBuilder() {
+            return sparseBuilderCheckBox.isSelected();
+        }
+
+        public void setSparseBuilder(boolean isSparseBuilder) {
+            sparseBuilderCheckBox.setSelected(isSparseBuilder);
+        }
+
+        public boolean isCollectionAccumulators() {
+            return collectionAccumulatorsCheckBox.isSelected();
+        }
+
+        public void setCollectionAccumulators(boolean isCollectionAccumulators) {
+            collectionAccumulatorsCheckBox.setSelected(isCollectionAccumulators);
+        }
+
+        public GeneratorProfile getGeneratorProfile() {
+            return (GeneratorProfile) generatorProfileComboBox.getSelectedItem();
+        }
+
+        public void setGeneratorProfile(GeneratorProfile generatorProfile) {
+            generatorProfileComboBox.setSelectedItem(generatorProfile);
+        }
+
+        public CollectionHandoff getCollectionHandoff() {
+            return (CollectionHandoff) collectionHandoffComboBox.getSelectedItem();
+        }
+
+        public void setCollectionHandoff(CollectionHandoff collectionHandoff) {
+            collectionHandoffComboBox.setSelectedItem(collectionHandoff);
+        }
     }
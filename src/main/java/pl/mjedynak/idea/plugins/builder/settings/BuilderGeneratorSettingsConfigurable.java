@@ -38,6 +38,15 @@ public class BuilderGeneratorSettingsConfigurable implements Configurable {
         modified |= mySettingsComponent.isInnerBuilder() != settings.isInnerBuilder;
         modified |= mySettingsComponent.isButMethod() != settings.isButMethod;
         modified |= mySettingsComponent.isUseSinglePrefix() != settings.isUseSinglePrefix;
+        modified |= mySettingsComponent.isSinglePassGeneration() != settings.isSinglePassGeneration;
+        modified |= mySettingsComponent.isPatchExistingBuilder() != settings.isPatchExistingBuilder;
+        modified |= mySettingsComponent.isStagedBuilder() != settings.isStagedBuilder;
+        modified |= mySettingsComponent.isReusableBuilder() != settings.isReusableBuilder;
+        modified |= mySettingsComponent.isDirectWithers() != settings.isDirectWithers;
+        modified |= mySettingsComponent.isSparseBuilder() != settings.isSparseBuilder;
+        modified |= mySettingsComponent.isCollectionAccumulators() != settings.isCollectionAccumulators;
+        modified |= mySettingsComponent.getGeneratorProfile() != settings.generatorProfile;
+        modified |= mySettingsComponent.getCollectionHandoff() != settings.collectionHandoff;
         return modified;
     }
 
@@ -48,6 +57,15 @@ public class BuilderGeneratorSettingsConfigurable implements Configurable {
         settings.isInnerBuilder = mySettingsComponent.isInnerBuilder();
         settings.isButMethod = mySettingsComponent.isButMethod();
         settings.isUseSinglePrefix = mySettingsComponent.isUseSinglePrefix();
+        settings.isSinglePassGeneration = mySettingsComponent.isSinglePassGeneration();
+        settings.isPatchExistingBuilder = mySettingsComponent.isPatchExistingBuilder();
+        settings.isStagedBuilder = mySettingsComponent.isStagedBuilder();
+        settings.isReusableBuilder = mySettingsComponent.isReusableBuilder();
+        settings.isDirectWithers = mySettingsComponent.isDirectWithers();
+        settings.isSparseBuilder = mySettingsComponent.isSparseBuilder();
+        settings.isCollectionAccumulators = mySettingsComponent.isCollectionAccumulators();
+        settings.generatorProfile = mySettingsComponent.getGeneratorProfile();
+        settings.collectionHandoff = mySettingsComponent.getCollectionHandoff();
     }
 
     @Override
@@ -57,6 +75,15 @@ public class BuilderGeneratorSettingsConfigurable implements Configurable {
         mySettingsComponent.setInnerBuilder(settings.isInnerBuilder);
         mySettingsComponent.setButMethod(settings.isButMethod);
         mySettingsComponent.setUseSinglePrefix(settings.isUseSinglePrefix);
+        mySettingsComponent.setSinglePassGeneration(settings.isSinglePassGeneration);
+        mySettingsComponent.setPatchExistingBuilder(settings.isPatchExistingBuilder);
+        mySettingsComponent.setStagedBuilder(settings.isStagedBuilder);
+        mySettingsComponent.setReusableBuilder(settings.isReusableBuilder);
+        mySettingsComponent.setDirectWithers(settings.isDirectWithers);
+        mySettingsComponent.setSparseBuilder(settings.isSparseBuilder);
+        mySettingsComponent.setCollectionAccumulators(settings.isCollectionAccumulators);
+        mySettingsComponent.setGeneratorProfile(settings.generatorProfile);
+        mySettingsComponent.setCollectionHandoff(settings.collectionHandoff);
     }
 
     @Override
@@ -23,6 +23,15 @@ public class BuilderGeneratorSettingsState implements PersistentStateComponent<B
     public boolean isInnerBuilder = false;
     public boolean isButMethod = false;
     public boolean isUseSinglePrefix = false;
+    public boolean isSinglePassGeneration = false;
+    public boolean isPatchExistingBuilder = false;
+    public boolean isStagedBuilder = false;
+    public boolean isReusableBuilder = false;
+    public boolean isDirectWithers = false;
+    public boolean isSparseBuilder = false;
+    public boolean isCollectionAccumulators = false;
+    public GeneratorProfile generatorProfile = GeneratorProfile.FULL;
+    public CollectionHandoff collectionHandoff = CollectionHandoff.SHARE;
 
     public BuilderGeneratorSettingsState() {}
 
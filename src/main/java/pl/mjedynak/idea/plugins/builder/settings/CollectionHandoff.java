@@ -0,0 +1,36 @@
+package pl.mjedynak.idea.plugins.builder.settings;
+
+/**
+ * Decides how {@code build()} hands the {@code List}, {@code Set}, {@code Collection} and {@code Map} fields
+ * of the builder over to the built object. The strategy applies to all collection types alike.
+ * <p>
+ * Copying on build uses {@code List.copyOf} for lists and collections when the source class is compiled for Java 10
+ * or later, which throws a {@code NullPointerException} on {@code null} elements. Sets, maps and older language levels
+ * get an unmodifiable view of a {@code LinkedHashSet}, {@code LinkedHashMap} or {@code ArrayList} copy, which accepts
+ * {@code null} and keeps the insertion order of the builder.
+ */
+public enum CollectionHandoff {
+
+    SHARE("Share: the built object and the builder keep the same collection"),
+    COPY_ON_BUILD("Copy on build: an unmodifiable copy, List.copyOf for lists on Java 10+"),
+    TRANSFER("Transfer: an unmodifiable view, the builder drops its reference");
+
+    private final String description;
+
+    CollectionHandoff(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Whether the builder forgets the collection once it was handed over, so it cannot modify the built object
+     * when reused.
+     */
+    public boolean releasesBuilderField() {
+        return this == TRANSFER;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,45 @@
+package pl.mjedynak.idea.plugins.builder.settings;
+
+/**
+ * Decides which artifacts are generated besides the builder itself for a class which is not built by its constructor
+ * alone. A wide class gets a method in the {@code With} interface for every field, so smaller profiles keep
+ * the generated bytecode of such classes down.
+ */
+public enum GeneratorProfile {
+
+    MINIMAL("Minimal: builder only", false, false, false),
+    STANDARD("Standard: builder() and with() on the class", true, false, false),
+    FULL("Full: also empty() and the With interface", true, true, true);
+
+    private final String description;
+    private final boolean sourceClassMethods;
+    private final boolean emptyMethod;
+    private final boolean witherInterface;
+
+    GeneratorProfile(String description, boolean sourceClassMethods, boolean emptyMethod, boolean witherInterface) {
+        this.description = description;
+        this.sourceClassMethods = sourceClassMethods;
+        this.emptyMethod = emptyMethod;
+        this.witherInterface = witherInterface;
+    }
+
+    /**
+     * The static {@code builder()} and the {@code with()} method returning a builder initialised with the object.
+     */
+    public boolean hasSourceClassMethods() {
+        return sourceClassMethods;
+    }
+
+    public boolean hasEmptyMethod() {
+        return emptyMethod;
+    }
+
+    public boolean hasWitherInterface() {
+        return witherInterface;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,123 @@
+package pl.mjedynak.idea.plugins.builder.starter;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.action.handler.BatchBuilderGenerator;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorApplicationService;
+import pl.mjedynak.idea.plugins.builder.service.BuilderGeneratorProjectService;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Generates builders without the IDE frame, e.g. in a build pipeline:
+ * {@code idea generate-builders <project> <fqcn-list-file>}. The file lists one fully qualified class name per line.
+ * The builders are generated with the stored default settings and the time spent on every class is printed.
+ */
+public class GenerateBuildersStarter implements ApplicationStarter {
+
+    static final String COMMAND_NAME = "generate-builders";
+    static final String USAGE = "Usage: idea " + COMMAND_NAME + " <project> <fqcn-list-file>";
+    private static final String COMMENT_PREFIX = "#";
+    private static final int ARGUMENT_COUNT = 3;
+
+    @Override
+    public String getCommandName() {
+        return COMMAND_NAME;
+    }
+
+    @Override
+    public int getRequiredModality() {
+        return NOT_IN_EDT;
+    }
+
+    @Override
+    public void main(@NotNull List<String> args) {
+        System.exit(run(args));
+    }
+
+    private int run(List<String> args) {
+        if (args.size() != ARGUMENT_COUNT) {
+            System.err.println(USAGE);
+            return 1;
+        }
+        List<String> classNames;
+        try {
+            classNames = readClassNames(Paths.get(args.get(2)));
+        } catch (IOException e) {
+            System.err.println("Cannot read " + args.get(2) + ": " + e.getMessage());
+            return 1;
+        }
+        PsiHelper psiHelper = BuilderGeneratorApplicationService.getInstance().getPsiHelper();
+        Path projectPath = Paths.get(args.get(1)).toAbsolutePath();
+        AtomicReference<Project> projectReference = new AtomicReference<>();
+        psiHelper.invokeAndWait(() -> projectReference.set(ProjectUtil.openOrImport(projectPath, null, false)));
+        Project project = projectReference.get();
+        if (project == null) {
+            System.err.println("Cannot open project " + projectPath);
+            return 1;
+        }
+        try {
+            DumbService.getInstance(project).waitForSmartMode();
+            return generateBuilders(project, classNames, psiHelper);
+        } finally {
+            psiHelper.invokeAndWait(() -> {
+                FileDocumentManager.getInstance().saveAllDocuments();
+                ProjectManager.getInstance().closeAndDispose(project);
+            });
+        }
+    }
+
+    private int generateBuilders(Project project, List<String> classNames, PsiHelper psiHelper) {
+        BatchBuilderGenerator batchBuilderGenerator = BuilderGeneratorProjectService.getInstance(project).getBatchBuilderGenerator();
+        BuilderGeneratorSettingsState settings = BuilderGeneratorSettingsState.getInstance();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Object commandGroupId = new Object();
+        int generatedCount = 0;
+        int missingCount = 0;
+        long start = System.nanoTime();
+        for (String className : classNames) {
+            long classStart = System.nanoTime();
+            PsiClass psiClass = psiHelper.computeInNonBlockingReadAction(project, () -> JavaPsiFacade.getInstance(project).findClass(className, scope));
+            if (psiClass == null) {
+                System.out.println(className + ": class not found");
+                missingCount++;
+            } else if (batchBuilderGenerator.generateBuilder(project, psiClass, settings, commandGroupId)) {
+                System.out.println(describeTiming(className, System.nanoTime() - classStart));
+                generatedCount++;
+            } else {
+                System.out.println(className + ": no fields to build, skipped");
+            }
+        }
+        System.out.println(BatchBuilderGenerator.describeThroughput(generatedCount, System.nanoTime() - start));
+        return missingCount == 0 ? 0 : 1;
+    }
+
+    static List<String> readClassNames(Path file) throws IOException {
+        return Files.readAllLines(file).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT_PREFIX))
+                .collect(Collectors.toList());
+    }
+
+    static String describeTiming(String className, long elapsedNanos) {
+        return String.format(Locale.ROOT, "%s: %.1f ms", className, elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
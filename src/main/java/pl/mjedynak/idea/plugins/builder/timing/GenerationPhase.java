@@ -0,0 +1,21 @@
+package pl.mjedynak.idea.plugins.builder.timing;
+
+public enum GenerationPhase {
+
+    FIND_CLASS_TO_GO("Finding builder or source class"),
+    SELECT_FIELDS("Selecting fields"),
+    MEMBER_CHOOSER("Creating member chooser"),
+    ANALYSE_FIELDS("Analysing selected fields"),
+    BUILD_PSI("Building builder PSI"),
+    WRITE_ACTION("Write action (including building PSI)");
+
+    private final String description;
+
+    GenerationPhase(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
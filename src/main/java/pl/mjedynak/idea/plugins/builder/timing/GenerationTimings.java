@@ -0,0 +1,115 @@
+package pl.mjedynak.idea.plugins.builder.timing;
+
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.psi.PsiClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the durations of the most recent {@value #WINDOW_SIZE} runs of every generation phase, together with the number
+ * of fields of the class involved. Each run is also logged to idea.log at debug level, which is enabled by adding
+ * {@code #pl.mjedynak.idea.plugins.builder.timing.GenerationTimings} in Help | Diagnostic Tools | Debug Log Settings.
+ */
+public class GenerationTimings {
+
+    static final int WINDOW_SIZE = 200;
+    static final String NO_SAMPLES = "No builder has been generated or looked up yet.";
+    private static final Logger LOG = Logger.getInstance(GenerationTimings.class);
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<GenerationPhase, Window> windows = new EnumMap<>(GenerationPhase.class);
+
+    /**
+     * Outside of a running application, as in unit tests, every caller gets its own instance.
+     */
+    public static GenerationTimings getInstance() {
+        Application application = ApplicationManager.getApplication();
+        return application == null ? new GenerationTimings() : application.getService(GenerationTimings.class);
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(GenerationPhase phase, PsiClass psiClass, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        String className = psiClass == null ? null : psiClass.getQualifiedName();
+        int classSize = psiClass == null ? 0 : psiClass.getFields().length;
+        record(phase, className, classSize, elapsedNanos);
+    }
+
+    void record(GenerationPhase phase, String className, int classSize, long elapsedNanos) {
+        synchronized (windows) {
+            windows.computeIfAbsent(phase, key -> new Window()).add(elapsedNanos, classSize);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format(Locale.ROOT, "phase=%s class=%s fields=%d durationMs=%.3f", phase, className, classSize, elapsedNanos / NANOS_PER_MILLI));
+        }
+    }
+
+    public List<PhaseStatistics> getStatistics() {
+        List<PhaseStatistics> statistics = new ArrayList<>();
+        synchronized (windows) {
+            windows.forEach((phase, window) -> statistics.add(window.toStatistics(phase)));
+        }
+        return statistics;
+    }
+
+    public void reset() {
+        synchronized (windows) {
+            windows.clear();
+        }
+    }
+
+    public static String describe(List<PhaseStatistics> statistics) {
+        if (statistics.isEmpty()) {
+            return NO_SAMPLES;
+        }
+        StringBuilder text = new StringBuilder();
+        for (PhaseStatistics phaseStatistics : statistics) {
+            text.append(String.format(Locale.ROOT, "%s: n=%d, p50=%.1f ms, p95=%.1f ms, max=%.1f ms, fields p50=%d max=%d%n",
+                    phaseStatistics.getPhase().getDescription(), phaseStatistics.getSampleCount(),
+                    phaseStatistics.getP50Nanos() / NANOS_PER_MILLI, phaseStatistics.getP95Nanos() / NANOS_PER_MILLI, phaseStatistics.getMaxNanos() / NANOS_PER_MILLI,
+                    phaseStatistics.getMedianClassSize(), phaseStatistics.getMaxClassSize()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Ring buffer overwriting the oldest sample once full.
+     */
+    private static final class Window {
+        private final long[] durations = new long[WINDOW_SIZE];
+        private final int[] classSizes = new int[WINDOW_SIZE];
+        private int size;
+        private int next;
+
+        void add(long duration, int classSize) {
+            durations[next] = duration;
+            classSizes[next] = classSize;
+            next = (next + 1) % WINDOW_SIZE;
+            size = Math.min(size + 1, WINDOW_SIZE);
+        }
+
+        PhaseStatistics toStatistics(GenerationPhase phase) {
+            long[] sortedDurations = Arrays.copyOf(durations, size);
+            int[] sortedClassSizes = Arrays.copyOf(classSizes, size);
+            Arrays.sort(sortedDurations);
+            Arrays.sort(sortedClassSizes);
+            return new PhaseStatistics(phase, size, sortedDurations[rank(0.5)], sortedDurations[rank(0.95)], sortedDurations[size - 1],
+                    sortedClassSizes[rank(0.5)], sortedClassSizes[size - 1]);
+        }
+
+        private int rank(double percentile) {
+            return (int) Math.ceil(percentile * size) - 1;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package pl.mjedynak.idea.plugins.builder.timing;
+
+public class PhaseStatistics {
+
+    private final GenerationPhase phase;
+    private final int sampleCount;
+    private final long p50Nanos;
+    private final long p95Nanos;
+    private final long maxNanos;
+    private final int medianClassSize;
+    private final int maxClassSize;
+
+    public PhaseStatistics(GenerationPhase phase, int sampleCount, long p50Nanos, long p95Nanos, long maxNanos, int medianClassSize, int maxClassSize) {
+        this.phase = phase;
+        this.sampleCount = sampleCount;
+        this.p50Nanos = p50Nanos;
+        this.p95Nanos = p95Nanos;
+        this.maxNanos = maxNanos;
+        this.medianClassSize = medianClassSize;
+        this.maxClassSize = maxClassSize;
+    }
+
+    public GenerationPhase getPhase() {
+        return phase;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public int getMedianClassSize() {
+        return medianClassSize;
+    }
+
+    public int getMaxClassSize() {
+        return maxClassSize;
+    }
+}
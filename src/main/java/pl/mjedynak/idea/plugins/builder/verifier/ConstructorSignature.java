@@ -0,0 +1,47 @@
+package pl.mjedynak.idea.plugins.builder.verifier;
+
+import com.google.common.collect.ImmutableSet;
+import com.intellij.openapi.util.Pair;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiType;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer;
+
+/**
+ * Immutable view of a constructor: its parameter count and the set of its parameters,
+ * each identified by name without prefix and type.
+ */
+public final class ConstructorSignature {
+
+    private final PsiMethod constructor;
+    private final int parameterCount;
+    private final ImmutableSet<Pair<String, PsiType>> parameters;
+
+    private ConstructorSignature(PsiMethod constructor, int parameterCount, ImmutableSet<Pair<String, PsiType>> parameters) {
+        this.constructor = constructor;
+        this.parameterCount = parameterCount;
+        this.parameters = parameters;
+    }
+
+    static ConstructorSignature of(PsiMethod constructor, NameNormalizer nameNormalizer) {
+        PsiParameter[] psiParameters = constructor.getParameterList().getParameters();
+        ImmutableSet.Builder<Pair<String, PsiType>> parameters = ImmutableSet.builder();
+        for (PsiParameter parameter : psiParameters) {
+            parameters.add(Pair.create(nameNormalizer.stripParameterPrefix(parameter.getName()), parameter.getType()));
+        }
+        return new ConstructorSignature(constructor, psiParameters.length, parameters.build());
+    }
+
+    public PsiMethod getConstructor() {
+        return constructor;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    public boolean hasParameterFor(PsiField psiField, NameNormalizer nameNormalizer) {
+        return parameters.contains(Pair.create(nameNormalizer.of(psiField).getNameWithoutPrefix(), psiField.getType()));
+    }
+}
@@ -0,0 +1,125 @@
+package pl.mjedynak.idea.plugins.builder.verifier;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiType;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier.GET_PREFIX;
+import static pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier.SET_PREFIX;
+
+/**
+ * Index of the accessors and constructor parameters of a single class.
+ * Methods and constructors are walked at most once, so every field can be verified with hash lookups
+ * instead of scanning {@link PsiClass#getAllMethods()} again.
+ */
+public class PsiClassAccessors {
+
+    private final PsiClass psiClass;
+    private final NameNormalizer nameNormalizer;
+
+    private Map<String, PsiMethod> setters;
+    private Map<String, PsiMethod> getters;
+    private Map<String, List<ConstructorParameter>> constructorParameters;
+    private List<ConstructorSignature> constructorSignatures;
+
+    PsiClassAccessors(PsiClass psiClass, NameNormalizer nameNormalizer) {
+        this.psiClass = psiClass;
+        this.nameNormalizer = nameNormalizer;
+    }
+
+    public PsiClass getPsiClass() {
+        return psiClass;
+    }
+
+    public NameNormalizer getNameNormalizer() {
+        return nameNormalizer;
+    }
+
+    synchronized PsiMethod getSetter(String name) {
+        if (setters == null) {
+            indexMethods();
+        }
+        return setters.get(name);
+    }
+
+    synchronized PsiMethod getGetter(String name) {
+        if (getters == null) {
+            indexMethods();
+        }
+        return getters.get(name);
+    }
+
+    synchronized List<PsiMethod> getConstructorsWithParameter(String parameterNameWithoutPrefix, PsiType type) {
+        if (constructorParameters == null) {
+            indexConstructors();
+        }
+        List<ConstructorParameter> candidates = constructorParameters.get(parameterNameWithoutPrefix);
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        List<PsiMethod> result = new ArrayList<>(candidates.size());
+        for (ConstructorParameter candidate : candidates) {
+            if (candidate.type.equals(type)) {
+                result.add(candidate.constructor);
+            }
+        }
+        return result;
+    }
+
+    public synchronized List<ConstructorSignature> getConstructorSignatures() {
+        if (constructorSignatures == null) {
+            ImmutableList.Builder<ConstructorSignature> signatures = ImmutableList.builder();
+            for (PsiMethod constructor : psiClass.getConstructors()) {
+                signatures.add(ConstructorSignature.of(constructor, nameNormalizer));
+            }
+            constructorSignatures = signatures.build();
+        }
+        return constructorSignatures;
+    }
+
+    private void indexMethods() {
+        setters = Maps.newHashMap();
+        getters = Maps.newHashMap();
+        for (PsiMethod method : psiClass.getAllMethods()) {
+            if (!method.getModifierList().hasExplicitModifier(PsiModifier.PRIVATE)) {
+                String name = method.getName();
+                if (name.startsWith(SET_PREFIX)) {
+                    setters.putIfAbsent(name, method);
+                } else if (name.startsWith(GET_PREFIX)) {
+                    getters.putIfAbsent(name, method);
+                }
+            }
+        }
+    }
+
+    private void indexConstructors() {
+        constructorParameters = Maps.newHashMap();
+        for (PsiMethod constructor : psiClass.getConstructors()) {
+            for (PsiParameter parameter : constructor.getParameterList().getParameters()) {
+                String parameterNameWithoutPrefix = nameNormalizer.stripParameterPrefix(parameter.getName());
+                constructorParameters.computeIfAbsent(parameterNameWithoutPrefix, name -> new ArrayList<>())
+                        .add(new ConstructorParameter(constructor, parameter.getType()));
+            }
+        }
+    }
+
+    private static final class ConstructorParameter {
+        private final PsiMethod constructor;
+        private final PsiType type;
+
+        ConstructorParameter(PsiMethod constructor, PsiType type) {
+            this.constructor = constructor;
+            this.type = type;
+        }
+    }
+}
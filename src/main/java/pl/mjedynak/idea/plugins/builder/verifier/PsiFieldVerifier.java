@@ -3,14 +3,15 @@ package pl.mjedynak.idea.plugins.builder.verifier;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiModifier;
-import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
-import org.apache.commons.lang.WordUtils;
+import com.intellij.psi.PsiRecordComponent;
+import com.intellij.psi.util.JavaPsiRecordUtil;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 
-import static org.apache.commons.lang.StringUtils.EMPTY;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PsiFieldVerifier {
 
@@ -19,79 +20,92 @@ public class PsiFieldVerifier {
 
     private final CodeStyleSettings codeStyleSettings = new CodeStyleSettings();
 
-    public boolean isSetInConstructor(PsiField psiField, PsiClass psiClass) {
-        boolean result = false;
-        PsiMethod[] constructors = psiClass.getConstructors();
-        for (int i = 0; i < constructors.length && !result; i++) {
-            result = checkConstructor(psiField, constructors[i]);
+    public NameNormalizer nameNormalizer() {
+        return new NameNormalizer(codeStyleSettings);
+    }
+
+    public PsiClassAccessors accessorsOf(PsiClass psiClass) {
+        return new PsiClassAccessors(psiClass, nameNormalizer());
+    }
+
+    /**
+     * Returns the fields of the record components in declaration order, which is the order of the parameters
+     * of the canonical constructor. A record has no setters, so nothing else needs to be scanned.
+     */
+    public List<PsiField> getRecordFields(PsiClass psiClass) {
+        List<PsiField> recordFields = new ArrayList<>();
+        for (PsiRecordComponent recordComponent : psiClass.getRecordComponents()) {
+            PsiField recordField = JavaPsiRecordUtil.getFieldForComponent(recordComponent);
+            if (recordField != null) {
+                recordFields.add(recordField);
+            }
         }
-        return result;
+        return recordFields;
+    }
+
+    public PsiMethod findCanonicalConstructor(PsiClass psiClass) {
+        return JavaPsiRecordUtil.findCanonicalConstructor(psiClass);
+    }
+
+    public boolean isSetInConstructor(PsiField psiField, PsiClass psiClass) {
+        return isSetInConstructor(psiField, accessorsOf(psiClass));
+    }
+
+    public boolean isSetInConstructor(PsiField psiField, PsiClassAccessors accessors) {
+        String fieldNameWithoutPrefix = accessors.getNameNormalizer().of(psiField).getNameWithoutPrefix();
+        return !accessors.getConstructorsWithParameter(fieldNameWithoutPrefix, psiField.getType()).isEmpty();
+    }
+
+    public boolean checkConstructor(PsiField psiField, PsiMethod constructor, PsiClassAccessors accessors) {
+        String fieldNameWithoutPrefix = accessors.getNameNormalizer().of(psiField).getNameWithoutPrefix();
+        return accessors.getConstructorsWithParameter(fieldNameWithoutPrefix, psiField.getType()).contains(constructor);
     }
 
     public boolean checkConstructor(PsiField psiField, PsiMethod constructor) {
         PsiParameterList parameterList = constructor.getParameterList();
         PsiParameter[] parameters = parameterList.getParameters();
-        return iterateOverParameters(psiField, parameters);
+        return iterateOverParameters(psiField, parameters, nameNormalizer());
     }
 
-    private boolean iterateOverParameters(PsiField psiField, PsiParameter[] parameters) {
+    private boolean iterateOverParameters(PsiField psiField, PsiParameter[] parameters, NameNormalizer nameNormalizer) {
         boolean result = false;
         for (int i = 0; i < parameters.length && !result; i++) {
-            result = checkParameter(psiField, parameters[i]);
+            result = checkParameter(psiField, parameters[i], nameNormalizer);
         }
         return result;
     }
 
-    private boolean checkParameter(PsiField psiField, PsiParameter parameter) {
+    private boolean checkParameter(PsiField psiField, PsiParameter parameter, NameNormalizer nameNormalizer) {
         boolean result = false;
-        if (areNameAndTypeEqual(psiField, parameter)) {
+        if (areNameAndTypeEqual(psiField, parameter, nameNormalizer)) {
             result = true;
         }
         return result;
     }
 
     public boolean areNameAndTypeEqual(PsiField psiField, PsiParameter parameter) {
-        String parameterNamePrefix = codeStyleSettings.getParameterNamePrefix();
-        String parameterName = parameter.getName();
-        String parameterNameWithoutPrefix = parameterName.replace(parameterNamePrefix, "");
-        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-        String fieldName = psiField.getName();
-        String fieldNameWithoutPrefix = fieldName.replaceFirst(fieldNamePrefix, "");
-        return parameterNameWithoutPrefix.equals(fieldNameWithoutPrefix) && parameter.getType().equals(psiField.getType());
+        return areNameAndTypeEqual(psiField, parameter, nameNormalizer());
     }
 
-    public boolean isSetInSetterMethod(PsiField psiField, PsiClass psiClass) {
-        return methodIsNotPrivateAndHasProperPrefixAndProperName(psiField, psiClass, SET_PREFIX);
-    }
-
-    public boolean hasGetterMethod(PsiField psiField, PsiClass psiClass) {
-        return methodIsNotPrivateAndHasProperPrefixAndProperName(psiField, psiClass, GET_PREFIX);
+    public boolean areNameAndTypeEqual(PsiField psiField, PsiParameter parameter, NameNormalizer nameNormalizer) {
+        String parameterNameWithoutPrefix = nameNormalizer.stripParameterPrefix(parameter.getName());
+        return parameterNameWithoutPrefix.equals(nameNormalizer.of(psiField).getNameWithoutPrefix()) && parameter.getType().equals(psiField.getType());
     }
 
-    private boolean methodIsNotPrivateAndHasProperPrefixAndProperName(PsiField psiField, PsiClass psiClass, String prefix) {
-        boolean result = false;
-        for (PsiMethod method : psiClass.getAllMethods()) {
-            if (methodIsNotPrivate(method) && methodHaProperPrefixAndProperName(psiField, method, prefix)) {
-                result = true;
-                break;
-            }
-        }
-        return result;
+    public boolean isSetInSetterMethod(PsiField psiField, PsiClass psiClass) {
+        return isSetInSetterMethod(psiField, accessorsOf(psiClass));
     }
 
-    private boolean methodIsNotPrivate(PsiMethod method) {
-        PsiModifierList modifierList = method.getModifierList();
-        return modifierListHasNoPrivateModifier(modifierList);
+    public boolean isSetInSetterMethod(PsiField psiField, PsiClassAccessors accessors) {
+        return accessors.getSetter(accessors.getNameNormalizer().of(psiField).getSetterName()) != null;
     }
 
-    private boolean methodHaProperPrefixAndProperName(PsiField psiField, PsiMethod method, String prefix) {
-        String fieldNamePrefix = codeStyleSettings.getFieldNamePrefix();
-        String fieldNameWithoutPrefix = psiField.getName().replace(fieldNamePrefix, EMPTY);
-        return method.getName().equals(prefix + WordUtils.capitalize(fieldNameWithoutPrefix));
+    public boolean hasGetterMethod(PsiField psiField, PsiClass psiClass) {
+        return hasGetterMethod(psiField, accessorsOf(psiClass));
     }
 
-    private boolean modifierListHasNoPrivateModifier(PsiModifierList modifierList) {
-        return !modifierList.hasExplicitModifier(PsiModifier.PRIVATE);
+    public boolean hasGetterMethod(PsiField psiField, PsiClassAccessors accessors) {
+        return accessors.getGetter(accessors.getNameNormalizer().of(psiField).getGetterName()) != null;
     }
 
 }
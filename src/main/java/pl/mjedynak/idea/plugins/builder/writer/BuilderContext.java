@@ -5,6 +5,8 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiDirectory;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+import pl.mjedynak.idea.plugins.builder.settings.GeneratorProfile;
 
 public class BuilderContext {
 
@@ -14,22 +16,18 @@ public class BuilderContext {
     private final String className;
     private final PsiClass psiClassFromEditor;
     private final String methodPrefix;
-    private final boolean isInner;
-    private final boolean hasButMethod;
-    private final boolean useSingleField;
+    private final GenerationOptions options;
 
     public BuilderContext(Project project, PsiFieldsForBuilder psiFieldsForBuilder,
                           PsiDirectory targetDirectory, String className, PsiClass psiClassFromEditor,
-                          String methodPrefix, boolean isInner, boolean hasButMethod, boolean useSingleField) {
+                          String methodPrefix, GenerationOptions options) {
         this.project = project;
         this.psiFieldsForBuilder = psiFieldsForBuilder;
         this.targetDirectory = targetDirectory;
         this.className = className;
         this.psiClassFromEditor = psiClassFromEditor;
         this.methodPrefix = methodPrefix;
-        this.isInner = isInner;
-        this.hasButMethod = hasButMethod;
-        this.useSingleField = useSingleField;
+        this.options = options;
     }
 
     public Project getProject() {
@@ -56,21 +54,61 @@ public class BuilderContext {
         return methodPrefix;
     }
 
-    boolean isInner() {
-        return isInner;
+    public GenerationOptions getOptions() {
+        return options;
     }
 
-    boolean hasButMethod() {
-        return hasButMethod;
+    public boolean isInner() {
+        return options.isInner();
+    }
+
+    public boolean hasButMethod() {
+        return options.hasButMethod();
     }
 
     public boolean useSingleField() {
-        return useSingleField;
+        return options.useSingleField();
+    }
+
+    public boolean isSinglePass() {
+        return options.isSinglePass();
+    }
+
+    public boolean isPatchExisting() {
+        return options.isPatchExisting();
+    }
+
+    public boolean isStaged() {
+        return options.isStaged();
+    }
+
+    public boolean isReusable() {
+        return options.isReusable();
+    }
+
+    public boolean hasDirectWithers() {
+        return options.hasDirectWithers();
+    }
+
+    public boolean isSparse() {
+        return options.isSparse();
+    }
+
+    public GeneratorProfile getProfile() {
+        return options.getProfile();
+    }
+
+    public boolean hasCollectionAccumulators() {
+        return options.hasCollectionAccumulators();
+    }
+
+    public CollectionHandoff getCollectionHandoff() {
+        return options.getCollectionHandoff();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix);
+        return Objects.hashCode(project, psiFieldsForBuilder, targetDirectory, className, psiClassFromEditor, methodPrefix, options);
     }
 
     @Override
@@ -87,6 +125,7 @@ public class BuilderContext {
                 && Objects.equal(this.targetDirectory, other.targetDirectory)
                 && Objects.equal(this.className, other.className)
                 && Objects.equal(this.psiClassFromEditor, other.psiClassFromEditor)
-                && Objects.equal(this.methodPrefix, other.methodPrefix);
+                && Objects.equal(this.methodPrefix, other.methodPrefix)
+                && Objects.equal(this.options, other.options);
     }
 }
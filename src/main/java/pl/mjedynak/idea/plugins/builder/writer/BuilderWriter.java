@@ -1,13 +1,17 @@
 package pl.mjedynak.idea.plugins.builder.writer;
 
 import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.Map;
+
 public class BuilderWriter {
 
     static final String CREATE_BUILDER_STRING = "Create Builder";
+    static final String CREATE_BUILDERS_STRING = "Create Builders";
     private BuilderPsiClassBuilder builderPsiClassBuilder;
     private PsiHelper psiHelper;
 
@@ -20,4 +24,17 @@ public class BuilderWriter {
         CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
         commandProcessor.executeCommand(context.getProject(), new BuilderWriterRunnable(builderPsiClassBuilder, context, existingBuilder), CREATE_BUILDER_STRING, this);
     }
+
+    /**
+     * Writes a batch of builders in one write action without navigating to them.
+     * Batches passing the same {@code commandGroupId} are merged into a single undoable command.
+     */
+    public void writeBuilders(Project project, Map<BuilderContext, PsiClass> buildersWithExistingOnes, Object commandGroupId) {
+        CommandProcessor commandProcessor = psiHelper.getCommandProcessor();
+        commandProcessor.executeCommand(project, () -> psiHelper.getApplication().runWriteAction(() -> writeAll(buildersWithExistingOnes)), CREATE_BUILDERS_STRING, commandGroupId);
+    }
+
+    private void writeAll(Map<BuilderContext, PsiClass> buildersWithExistingOnes) {
+        buildersWithExistingOnes.forEach((context, existingBuilder) -> new BuilderWriterComputable(builderPsiClassBuilder, context, existingBuilder, false).compute());
+    }
 }
@@ -8,39 +8,65 @@ import com.intellij.psi.PsiElement;
 import com.intellij.util.IncorrectOperationException;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationPhase;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
+
+import java.util.function.Supplier;
 
 class BuilderWriterComputable implements Computable<PsiElement> {
 
     private GuiHelper guiHelper = new GuiHelper();
     private PsiHelper psiHelper = new PsiHelper();
+    private GenerationTimings generationTimings = GenerationTimings.getInstance();
     private BuilderPsiClassBuilder builderPsiClassBuilder;
     private BuilderContext context;
     private PsiClass existingBuilder;
+    private boolean navigate;
 
     BuilderWriterComputable(BuilderPsiClassBuilder builderPsiClassBuilder, BuilderContext context, PsiClass existingBuilder) {
+        this(builderPsiClassBuilder, context, existingBuilder, true);
+    }
+
+    BuilderWriterComputable(BuilderPsiClassBuilder builderPsiClassBuilder, BuilderContext context, PsiClass existingBuilder, boolean navigate) {
         this.builderPsiClassBuilder = builderPsiClassBuilder;
         this.context = context;
         this.existingBuilder = existingBuilder;
+        this.navigate = navigate;
     }
 
     @Override
     public PsiElement compute() {
-        return createBuilder();
+        long start = generationTimings.start();
+        PsiElement builder = createBuilder();
+        generationTimings.record(GenerationPhase.WRITE_ACTION, context.getPsiClassFromEditor(), start);
+        return builder;
     }
 
     private PsiElement createBuilder() {
         try {
-            guiHelper.includeCurrentPlaceAsChangePlace(context.getProject());
+            if (navigate) {
+                guiHelper.includeCurrentPlaceAsChangePlace(context.getProject());
+            }
             PsiClass targetClass;
+            if (existingBuilder != null && context.isPatchExisting()) {
+                targetClass = timeBuildingPsi(() -> builderPsiClassBuilder.patch(context, existingBuilder));
+                if (!context.isInner()) {
+                    navigateToClassAndPositionCursor(context.getProject(), targetClass);
+                }
+                return targetClass;
+            }
             if (existingBuilder != null) {
                 existingBuilder.delete();
             }
-            if (context.isInner()) {
-                targetClass = getInnerBuilderPsiClass();
+            if (context.isSinglePass() || context.isStaged() || context.isSparse() || context.hasCollectionAccumulators()) {
+                targetClass = getBuilderPsiClassInSinglePass();
+            } else if (context.isInner()) {
+                targetClass = timeBuildingPsi(this::getInnerBuilderPsiClass);
                 context.getPsiClassFromEditor().add(targetClass);
             } else {
-                targetClass = getBuilderPsiClass();
+                targetClass = timeBuildingPsi(this::getBuilderPsiClass);
                 navigateToClassAndPositionCursor(context.getProject(), targetClass);
             }
             return targetClass;
@@ -51,35 +77,64 @@ class BuilderWriterComputable implements Computable<PsiElement> {
         }
     }
 
+    private PsiClass timeBuildingPsi(Supplier<PsiClass> psiBuilder) {
+        long start = generationTimings.start();
+        PsiClass builderClass = psiBuilder.get();
+        generationTimings.record(GenerationPhase.BUILD_PSI, context.getPsiClassFromEditor(), start);
+        return builderClass;
+    }
+
+    private PsiClass getBuilderPsiClassInSinglePass() {
+        PsiClass builderClass = timeBuildingPsi(() -> builderPsiClassBuilder.buildFromText(context));
+        if (context.isInner()) {
+            builderClass = (PsiClass) context.getPsiClassFromEditor().add(builderClass);
+        } else {
+            navigateToClassAndPositionCursor(context.getProject(), builderClass);
+        }
+        psiHelper.shortenClassReferencesAndReformat(builderClass);
+        return builderClass;
+    }
+
     private PsiClass getInnerBuilderPsiClass() {
-        BuilderPsiClassBuilder builder = builderPsiClassBuilder.anInnerBuilder(context)
+        GenerationSession builder = builderPsiClassBuilder.anInnerBuilder(context)
                 .withFields()
                 .withPrivateConstructor()
                 .withPublicConstructorGenerator()
                 //.withInitializingMethod()
                 .withSetMethods(context.getMethodPrefix());
         addButMethodIfNecessary(builder);
+        addReuseMethodsIfNecessary(builder);
         return builder.build();
     }
 
     private PsiClass getBuilderPsiClass() {
-        BuilderPsiClassBuilder builder = builderPsiClassBuilder.aBuilder(context)
+        GenerationSession builder = builderPsiClassBuilder.aBuilder(context)
                 .withFields()
                 .withPrivateConstructor()
                 .withPublicConstructorGenerator()
                 //.withInitializingMethod()
                 .withSetMethods(context.getMethodPrefix());
         addButMethodIfNecessary(builder);
+        addReuseMethodsIfNecessary(builder);
         return builder.build();
     }
 
-    private void addButMethodIfNecessary(BuilderPsiClassBuilder builder) {
+    private void addButMethodIfNecessary(GenerationSession builder) {
         if (context.hasButMethod()) {
             builder.withButMethod();
         }
     }
 
+    private void addReuseMethodsIfNecessary(GenerationSession builder) {
+        if (context.isReusable()) {
+            builder.withReuseMethods();
+        }
+    }
+
     private void navigateToClassAndPositionCursor(Project project, PsiClass targetClass) {
+        if (!navigate) {
+            return;
+        }
         guiHelper.positionCursor(project, targetClass.getContainingFile(), targetClass.getLBrace());
     }
 
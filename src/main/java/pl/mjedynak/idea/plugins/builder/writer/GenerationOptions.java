@@ -0,0 +1,220 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.google.common.base.Objects;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+import pl.mjedynak.idea.plugins.builder.settings.GeneratorProfile;
+
+/**
+ * Options a builder is generated with. They start from the settings and are overridden by what was chosen in the dialog.
+ */
+public final class GenerationOptions {
+
+    private final boolean inner;
+    private final boolean butMethod;
+    private final boolean singleField;
+    private final boolean singlePass;
+    private final boolean patchExisting;
+    private final boolean staged;
+    private final boolean reusable;
+    private final boolean directWithers;
+    private final boolean sparse;
+    private final GeneratorProfile profile;
+    private final boolean collectionAccumulators;
+    private final CollectionHandoff collectionHandoff;
+
+    private GenerationOptions(Builder builder) {
+        this.inner = builder.inner;
+        this.butMethod = builder.butMethod;
+        this.singleField = builder.singleField;
+        this.singlePass = builder.singlePass;
+        this.patchExisting = builder.patchExisting;
+        this.staged = builder.staged;
+        this.reusable = builder.reusable;
+        this.directWithers = builder.directWithers;
+        this.sparse = builder.sparse;
+        this.profile = builder.profile;
+        this.collectionAccumulators = builder.collectionAccumulators;
+        this.collectionHandoff = builder.collectionHandoff;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static Builder fromSettings(BuilderGeneratorSettingsState settings) {
+        return builder()
+                .inner(settings.isInnerBuilder)
+                .butMethod(settings.isButMethod)
+                .singleField(settings.isUseSinglePrefix)
+                .singlePass(settings.isSinglePassGeneration)
+                .patchExisting(settings.isPatchExistingBuilder)
+                .staged(settings.isStagedBuilder)
+                .reusable(settings.isReusableBuilder)
+                .directWithers(settings.isDirectWithers)
+                .sparse(settings.isSparseBuilder)
+                .profile(settings.generatorProfile)
+                .collectionAccumulators(settings.isCollectionAccumulators)
+                .collectionHandoff(settings.collectionHandoff);
+    }
+
+    public boolean isInner() {
+        return inner;
+    }
+
+    public boolean hasButMethod() {
+        return butMethod;
+    }
+
+    public boolean useSingleField() {
+        return singleField;
+    }
+
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
+    public boolean isPatchExisting() {
+        return patchExisting;
+    }
+
+    public boolean isStaged() {
+        return staged;
+    }
+
+    public boolean isReusable() {
+        return reusable;
+    }
+
+    public boolean hasDirectWithers() {
+        return directWithers;
+    }
+
+    public boolean isSparse() {
+        return sparse;
+    }
+
+    public GeneratorProfile getProfile() {
+        return profile;
+    }
+
+    public boolean hasCollectionAccumulators() {
+        return collectionAccumulators;
+    }
+
+    public CollectionHandoff getCollectionHandoff() {
+        return collectionHandoff;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(inner, butMethod, singleField, singlePass, patchExisting, staged, reusable, directWithers, sparse,
+                profile, collectionAccumulators, collectionHandoff);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        GenerationOptions other = (GenerationOptions) obj;
+        return this.inner == other.inner
+                && this.butMethod == other.butMethod
+                && this.singleField == other.singleField
+                && this.singlePass == other.singlePass
+                && this.patchExisting == other.patchExisting
+                && this.staged == other.staged
+                && this.reusable == other.reusable
+                && this.directWithers == other.directWithers
+                && this.sparse == other.sparse
+                && this.profile == other.profile
+                && this.collectionAccumulators == other.collectionAccumulators
+                && this.collectionHandoff == other.collectionHandoff;
+    }
+
+    public static final class Builder {
+
+        private boolean inner;
+        private boolean butMethod;
+        private boolean singleField;
+        private boolean singlePass;
+        private boolean patchExisting;
+        private boolean staged;
+        private boolean reusable;
+        private boolean directWithers;
+        private boolean sparse;
+        private GeneratorProfile profile = GeneratorProfile.FULL;
+        private boolean collectionAccumulators;
+        private CollectionHandoff collectionHandoff = CollectionHandoff.SHARE;
+
+        private Builder() {
+        }
+
+        public Builder inner(boolean inner) {
+            this.inner = inner;
+            return this;
+        }
+
+        public Builder butMethod(boolean butMethod) {
+            this.butMethod = butMethod;
+            return this;
+        }
+
+        public Builder singleField(boolean singleField) {
+            this.singleField = singleField;
+            return this;
+        }
+
+        public Builder singlePass(boolean singlePass) {
+            this.singlePass = singlePass;
+            return this;
+        }
+
+        public Builder patchExisting(boolean patchExisting) {
+            this.patchExisting = patchExisting;
+            return this;
+        }
+
+        public Builder staged(boolean staged) {
+            this.staged = staged;
+            return this;
+        }
+
+        public Builder reusable(boolean reusable) {
+            this.reusable = reusable;
+            return this;
+        }
+
+        public Builder directWithers(boolean directWithers) {
+            this.directWithers = directWithers;
+            return this;
+        }
+
+        public Builder sparse(boolean sparse) {
+            this.sparse = sparse;
+            return this;
+        }
+
+        public Builder profile(GeneratorProfile profile) {
+            this.profile = profile;
+            return this;
+        }
+
+        public Builder collectionAccumulators(boolean collectionAccumulators) {
+            this.collectionAccumulators = collectionAccumulators;
+            return this;
+        }
+
+        public Builder collectionHandoff(CollectionHandoff collectionHandoff) {
+            this.collectionHandoff = collectionHandoff;
+            return this;
+        }
+
+        public GenerationOptions build() {
+            return new GenerationOptions(this);
+        }
+    }
+}
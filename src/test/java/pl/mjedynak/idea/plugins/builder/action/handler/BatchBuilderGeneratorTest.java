@@ -0,0 +1,290 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaDirectoryService;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.util.Processor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.BuilderGeneratorSettingsState;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchBuilderGeneratorTest {
+
+    @InjectMocks private BatchBuilderGenerator batchBuilderGenerator;
+    @Mock(strictness = LENIENT) private PsiHelper psiHelper;
+    @Mock private PsiFieldSelector psiFieldSelector;
+    @Mock private PsiFieldsForBuilderFactory psiFieldsForBuilderFactory;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderWriter builderWriter;
+    @Mock private JavaDirectoryService javaDirectoryService;
+    @Mock(strictness = LENIENT) private ProgressIndicator indicator;
+    @Mock private Project project;
+    @Mock private PsiDirectory rootDirectory;
+    @Mock private PsiDirectory subDirectory;
+    @Mock private PsiFile psiFile;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private PsiClass existingBuilder;
+
+    private final BuilderGeneratorSettingsState settings = new BuilderGeneratorSettingsState();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        given(psiHelper.getJavaDirectoryService()).willReturn(javaDirectoryService);
+        willAnswer(invocation -> ((Callable<?>) invocation.getArgument(1)).call()).given(psiHelper).computeInNonBlockingReadAction(any(), any());
+        willAnswer(invocation -> {
+            Processor<Object> processor = invocation.getArgument(2);
+            ((List<Object>) invocation.getArgument(0)).forEach(processor::process);
+            return true;
+        }).given(psiHelper).processConcurrently(anyList(), eq(indicator), any());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void shouldGenerateBuildersForClassesWithFieldsInAllSubdirectoriesSkippingBuilders() {
+        // given
+        PsiClass srcClass = mockClass("Order");
+        PsiClass builderClass = mockClass("OrderBuilder");
+        PsiClass classWithoutFields = mockClass("Marker");
+        given(builderVerifier.isBuilder(builderClass)).willReturn(true);
+        given(javaDirectoryService.getClasses(rootDirectory)).willReturn(new PsiClass[]{srcClass, builderClass});
+        given(javaDirectoryService.getClasses(subDirectory)).willReturn(new PsiClass[]{classWithoutFields});
+        given(rootDirectory.getSubdirectories()).willReturn(new PsiDirectory[]{subDirectory});
+        given(subDirectory.getSubdirectories()).willReturn(new PsiDirectory[0]);
+        List<PsiElementClassMember> members = Collections.singletonList(mock(PsiElementClassMember.class));
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false)).willReturn(members);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(classWithoutFields, false, false, false)).willReturn(Collections.emptyList());
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, srcClass)).willReturn(psiFieldsForBuilder);
+        given(srcClass.isValid()).willReturn(true);
+        given(classWithoutFields.isValid()).willReturn(true);
+        given(srcClass.getContainingFile()).willReturn(psiFile);
+        given(psiFile.getContainingDirectory()).willReturn(rootDirectory);
+        given(srcClass.getProject()).willReturn(project);
+        given(builderFinder.findBuilderForClass(srcClass)).willReturn(existingBuilder);
+        given(existingBuilder.isValid()).willReturn(true);
+        willAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).given(psiHelper).invokeAndWait(any());
+
+        // when
+        int result = batchBuilderGenerator.generateBuilders(project, Collections.singletonList(rootDirectory), settings, indicator);
+
+        // then
+        assertThat(result).isEqualTo(1);
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(builderWriter).writeBuilders(eq(project), captor.capture(), any());
+        Map<BuilderContext, PsiClass> written = captor.getValue();
+        assertThat(written).hasSize(1);
+        BuilderContext context = written.keySet().iterator().next();
+        assertThat(context.getClassName()).isEqualTo("OrderBuilder");
+        assertThat(context.getPsiClassFromEditor()).isEqualTo(srcClass);
+        assertThat(context.getTargetDirectory()).isEqualTo(rootDirectory);
+        assertThat(context.getPsiFieldsForBuilder()).isEqualTo(psiFieldsForBuilder);
+        assertThat(context.getMethodPrefix()).isEqualTo(settings.defaultMethodPrefix);
+        assertThat(written.get(context)).isEqualTo(existingBuilder);
+        verify(psiFieldSelector, never()).selectFieldsToIncludeInBuilder(eq(builderClass), eq(false), eq(false), eq(false));
+    }
+
+    @Test
+    void shouldNotWriteAnythingWhenNoClassIsEligible() {
+        // given
+        PsiClass anInterface = mock(PsiClass.class);
+        given(anInterface.getName()).willReturn("Repository");
+        given(anInterface.isInterface()).willReturn(true);
+        given(javaDirectoryService.getClasses(rootDirectory)).willReturn(new PsiClass[]{anInterface});
+        given(rootDirectory.getSubdirectories()).willReturn(new PsiDirectory[0]);
+
+        // when
+        int result = batchBuilderGenerator.generateBuilders(project, Collections.singletonList(rootDirectory), settings, indicator);
+
+        // then
+        assertThat(result).isZero();
+        verify(builderWriter, never()).writeBuilders(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void shouldGenerateBuilderForSingleClass() {
+        // given
+        PsiClass srcClass = mockClass("Order");
+        List<PsiElementClassMember> members = Collections.singletonList(mock(PsiElementClassMember.class));
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, srcClass)).willReturn(psiFieldsForBuilder);
+        given(srcClass.isValid()).willReturn(true);
+        given(srcClass.getContainingFile()).willReturn(psiFile);
+        given(psiFile.getContainingDirectory()).willReturn(rootDirectory);
+        given(srcClass.getProject()).willReturn(project);
+        willAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).given(psiHelper).invokeAndWait(any());
+        Object commandGroupId = new Object();
+
+        // when
+        boolean result = batchBuilderGenerator.generateBuilder(project, srcClass, settings, commandGroupId);
+
+        // then
+        assertThat(result).isTrue();
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(builderWriter).writeBuilders(eq(project), captor.capture(), eq(commandGroupId));
+        Map<BuilderContext, PsiClass> written = captor.getValue();
+        assertThat(written.keySet()).extracting(BuilderContext::getClassName).containsExactly("OrderBuilder");
+    }
+
+    @Test
+    void shouldSkipClassDeletedBeforeItsBuilderIsWritten() {
+        // given
+        PsiClass srcClass = mockClass("Order");
+        List<PsiElementClassMember> members = Collections.singletonList(mock(PsiElementClassMember.class));
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, srcClass)).willReturn(psiFieldsForBuilder);
+        given(srcClass.isValid()).willReturn(true, false);
+        given(srcClass.getContainingFile()).willReturn(psiFile);
+        given(psiFile.getContainingDirectory()).willReturn(rootDirectory);
+        given(srcClass.getProject()).willReturn(project);
+        willAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).given(psiHelper).invokeAndWait(any());
+
+        // when
+        boolean result = batchBuilderGenerator.generateBuilder(project, srcClass, settings, new Object());
+
+        // then
+        assertThat(result).isFalse();
+        verify(builderWriter, never()).writeBuilders(any(), any(), any());
+    }
+
+    @Test
+    void shouldSkipAbstractClasses() {
+        // given
+        PsiClass abstractClass = mockClass("AbstractOrder");
+        given(abstractClass.hasModifierProperty(PsiModifier.ABSTRACT)).willReturn(true);
+        given(javaDirectoryService.getClasses(rootDirectory)).willReturn(new PsiClass[]{abstractClass});
+        given(rootDirectory.getSubdirectories()).willReturn(new PsiDirectory[0]);
+
+        // when
+        int result = batchBuilderGenerator.generateBuilders(project, Collections.singletonList(rootDirectory), settings, indicator);
+
+        // then
+        assertThat(result).isZero();
+        verify(psiFieldSelector, never()).selectFieldsToIncludeInBuilder(any(), eq(false), eq(false), eq(false));
+        verify(builderWriter, never()).writeBuilders(any(), any(), any());
+    }
+
+    @Test
+    void shouldSkipClassWithPrivateBestConstructor() {
+        // given
+        PsiClass srcClass = mock(PsiClass.class);
+        PsiMethod privateConstructor = mock(PsiMethod.class);
+        List<PsiElementClassMember> members = Collections.singletonList(mock(PsiElementClassMember.class));
+        given(srcClass.isValid()).willReturn(true);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, false, false, false)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, srcClass)).willReturn(psiFieldsForBuilder);
+        given(psiFieldsForBuilder.getBestConstructor()).willReturn(privateConstructor);
+        given(privateConstructor.hasModifierProperty(PsiModifier.PRIVATE)).willReturn(true);
+
+        // when
+        boolean result = batchBuilderGenerator.generateBuilder(project, srcClass, settings, new Object());
+
+        // then
+        assertThat(result).isFalse();
+        verify(builderWriter, never()).writeBuilders(any(), any(), any());
+    }
+
+    @Test
+    void shouldGenerateInnerBuilderForClassWithPrivateBestConstructor() {
+        // given
+        settings.isInnerBuilder = true;
+        PsiClass srcClass = mockClass("Order");
+        PsiMethod privateConstructor = mock(PsiMethod.class);
+        List<PsiElementClassMember> members = Collections.singletonList(mock(PsiElementClassMember.class));
+        given(srcClass.isValid()).willReturn(true);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(srcClass, true, false, false)).willReturn(members);
+        given(psiFieldsForBuilderFactory.createPsiFieldsForBuilder(members, srcClass)).willReturn(psiFieldsForBuilder);
+        given(psiFieldsForBuilder.getBestConstructor()).willReturn(privateConstructor);
+        given(privateConstructor.isValid()).willReturn(true);
+        given(srcClass.getContainingFile()).willReturn(psiFile);
+        given(psiFile.getContainingDirectory()).willReturn(rootDirectory);
+        given(srcClass.getProject()).willReturn(project);
+        willAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).given(psiHelper).invokeAndWait(any());
+
+        // when
+        boolean result = batchBuilderGenerator.generateBuilder(project, srcClass, settings, new Object());
+
+        // then
+        assertThat(result).isTrue();
+        verify(privateConstructor, never()).hasModifierProperty(PsiModifier.PRIVATE);
+    }
+
+    @Test
+    void shouldNotWriteBuilderForSingleClassWithoutFields() {
+        // given
+        PsiClass marker = mock(PsiClass.class);
+        given(marker.isValid()).willReturn(true);
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(marker, false, false, false)).willReturn(Collections.emptyList());
+
+        // when
+        boolean result = batchBuilderGenerator.generateBuilder(project, marker, settings, null);
+
+        // then
+        assertThat(result).isFalse();
+        verify(builderWriter, never()).writeBuilders(any(), any(), any());
+    }
+
+    @Test
+    void shouldDescribeThroughput() {
+        // when
+        String result = BatchBuilderGenerator.describeThroughput(30, 2_000_000_000L);
+
+        // then
+        assertThat(result).isEqualTo("Generated 30 builders in 2.00 s (15.0 classes/s)");
+    }
+
+    private PsiClass mockClass(String name) {
+        PsiClass psiClass = mock(PsiClass.class);
+        given(psiClass.getName()).willReturn(name);
+        return psiClass;
+    }
+}
@@ -0,0 +1,293 @@
+package pl.mjedynak.idea.plugins.builder.action.handler;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.ide.util.MemberChooser;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.impl.SimpleDataContext;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import pl.mjedynak.idea.plugins.builder.factory.CreateBuilderDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.GenerateBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
+import pl.mjedynak.idea.plugins.builder.factory.MemberChooserDialogFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.factory.PsiFieldsForBuilderFactory;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.finder.ClassFinder;
+import pl.mjedynak.idea.plugins.builder.gui.CreateBuilderDialog;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.AbstractPopupDisplayer;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.GenerateBuilderPopupDisplayer;
+import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
+import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.PsiClassAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
+import pl.mjedynak.idea.plugins.builder.writer.BuilderWriter;
+
+import javax.swing.JList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the Generate and GoTo handlers end to end on large classes against fixed time budgets, so that a slowdown
+ * fails the build. Dialogs and popups cannot be shown headlessly, so they are replaced with mocks which accept
+ * the defaults, and background read actions run synchronously on the calling thread.
+ */
+public class BuilderActionHandlerPerformanceTest extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final String BUILDER_SUFFIX = "Builder";
+    private static final String METHOD_PREFIX = "with";
+    private static final int REGENERATE_ACTION_INDEX = 1;
+    private static final int WIDE_DTO_FIELD_COUNT = 300;
+    private static final int RECORD_COMPONENT_COUNT = 150;
+    private static final int INHERITANCE_DEPTH = 15;
+    private static final int FIELDS_PER_LEVEL = 10;
+    private static final String[] TYPES = {"int", "String", "long", "java.util.List<String>", "boolean"};
+
+    private GenerateBuilderActionHandler generateBuilderActionHandler;
+    private GoToBuilderActionHandler goToBuilderActionHandler;
+
+    @Override
+    protected @NotNull LightProjectDescriptor getProjectDescriptor() {
+        return JAVA_LATEST;
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        PsiHelper psiHelper = new SynchronousPsiHelper();
+        BuilderVerifier builderVerifier = new BuilderVerifier();
+        BuilderFinder builderFinder = new BuilderFinder(new ClassFinder(psiHelper));
+        PsiFieldVerifier psiFieldVerifier = new PsiFieldVerifier();
+        PsiClassAnalysisCache psiClassAnalysisCache = new PsiClassAnalysisCache(psiFieldVerifier);
+        DisplayChoosers displayChoosers = new DisplayChoosers(psiHelper, createBuilderDialogFactory(),
+                new PsiFieldSelector(new PsiElementClassMemberFactory(), psiFieldVerifier, psiClassAnalysisCache), memberChooserDialogFactory(),
+                new BuilderWriter(new BuilderPsiClassBuilder(), psiHelper), new PsiFieldsForBuilderFactory(psiFieldVerifier, new BestConstructorSelector(psiFieldVerifier), psiClassAnalysisCache));
+        generateBuilderActionHandler = new GenerateBuilderActionHandler(psiHelper, builderVerifier, builderFinder,
+                popupDisplayerChoosing(GenerateBuilderPopupDisplayer.class, REGENERATE_ACTION_INDEX), new GenerateBuilderPopupListFactory(), displayChoosers);
+        goToBuilderActionHandler = new GoToBuilderActionHandler(psiHelper, builderVerifier, builderFinder,
+                popupDisplayerChoosing(GoToBuilderPopupDisplayer.class, 0), new GoToBuilderPopupListFactory(), displayChoosers);
+    }
+
+    public void testGenerateBuilderForWideDto() {
+        assertGenerationWithinBudget("WideDto", wideDtoSource(), 3000);
+    }
+
+    public void testRegenerateExistingBuilderForWideDto() {
+        String source = wideDtoSource();
+        configureAndGenerate("WideDto", source);
+        PlatformTestUtil.startPerformanceTest("Regenerate builder for wide DTO", 3000, () -> executeInEditor(generateBuilderActionHandler))
+                .setup(() -> myFixture.configureByText("WideDto.java", source))
+                .assertTiming();
+        assertThat(findClass("WideDto" + BUILDER_SUFFIX)).isNotNull();
+    }
+
+    public void testGenerateBuilderForDeepInheritance() {
+        for (int level = 0; level < INHERITANCE_DEPTH; level++) {
+            myFixture.addClass(levelSource(level));
+        }
+        String leafClassName = "Level" + INHERITANCE_DEPTH;
+        assertGenerationWithinBudget(leafClassName, levelSource(INHERITANCE_DEPTH), 2500);
+    }
+
+    public void testGenerateBuilderForRecord() {
+        assertGenerationWithinBudget("WideRecord", recordSource(), 2000);
+    }
+
+    public void testGenerateBuilderForLombokValue() {
+        myFixture.addClass("package lombok; public @interface Value {}");
+        assertGenerationWithinBudget("LombokValue", lombokValueSource(), 2000);
+    }
+
+    public void testGoToBuilderFromWideDto() {
+        configureAndGenerate("WideDto", wideDtoSource());
+        VirtualFile sourceFile = myFixture.getFile().getVirtualFile();
+        PlatformTestUtil.startPerformanceTest("Go to builder from wide DTO", 500, () -> executeInEditor(goToBuilderActionHandler))
+                .setup(() -> myFixture.openFileInEditor(sourceFile))
+                .assertTiming();
+        assertThat(selectedFileName()).isEqualTo("WideDto" + BUILDER_SUFFIX + ".java");
+    }
+
+    public void testGoToWideDtoFromBuilder() {
+        configureAndGenerate("WideDto", wideDtoSource());
+        VirtualFile builderFile = findClass("WideDto" + BUILDER_SUFFIX).getContainingFile().getVirtualFile();
+        PlatformTestUtil.startPerformanceTest("Go to wide DTO from builder", 500, () -> executeInEditor(goToBuilderActionHandler))
+                .setup(() -> myFixture.openFileInEditor(builderFile))
+                .assertTiming();
+        assertThat(selectedFileName()).isEqualTo("WideDto.java");
+    }
+
+    private void assertGenerationWithinBudget(String className, String source, int expectedMs) {
+        PlatformTestUtil.startPerformanceTest("Generate builder for " + className, expectedMs, () -> executeInEditor(generateBuilderActionHandler))
+                .setup(() -> {
+                    deleteBuilderOf(className);
+                    myFixture.configureByText(className + ".java", source);
+                })
+                .assertTiming();
+        assertThat(findClass(className + BUILDER_SUFFIX)).isNotNull();
+    }
+
+    private void configureAndGenerate(String className, String source) {
+        myFixture.configureByText(className + ".java", source);
+        executeInEditor(generateBuilderActionHandler);
+        myFixture.configureByText(className + ".java", source);
+    }
+
+    private void executeInEditor(AbstractBuilderActionHandler handler) {
+        DataContext dataContext = SimpleDataContext.getProjectContext(getProject());
+        handler.execute(myFixture.getEditor(), dataContext);
+    }
+
+    private void deleteBuilderOf(String className) {
+        PsiClass builder = findClass(className + BUILDER_SUFFIX);
+        if (builder != null) {
+            WriteCommandAction.runWriteCommandAction(getProject(), () -> builder.getContainingFile().delete());
+        }
+    }
+
+    private PsiClass findClass(String qualifiedName) {
+        return JavaPsiFacade.getInstance(getProject()).findClass(qualifiedName, GlobalSearchScope.projectScope(getProject()));
+    }
+
+    private String selectedFileName() {
+        return FileEditorManager.getInstance(getProject()).getSelectedFiles()[0].getName();
+    }
+
+    private CreateBuilderDialogFactory createBuilderDialogFactory() {
+        CreateBuilderDialogFactory createBuilderDialogFactory = mock(CreateBuilderDialogFactory.class);
+        given(createBuilderDialogFactory.createBuilderDialog(any(), any(), any(), any())).willAnswer(invocation -> defaultsDialog(invocation.getArgument(0)));
+        return createBuilderDialogFactory;
+    }
+
+    private CreateBuilderDialog defaultsDialog(PsiClass sourceClass) {
+        CreateBuilderDialog dialog = mock(CreateBuilderDialog.class);
+        given(dialog.isOK()).willReturn(true);
+        given(dialog.getTargetDirectory()).willReturn(sourceClass.getContainingFile().getContainingDirectory());
+        given(dialog.getClassName()).willReturn(sourceClass.getName() + BUILDER_SUFFIX);
+        given(dialog.getMethodPrefix()).willReturn(METHOD_PREFIX);
+        return dialog;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MemberChooserDialogFactory memberChooserDialogFactory() {
+        MemberChooserDialogFactory memberChooserDialogFactory = mock(MemberChooserDialogFactory.class);
+        given(memberChooserDialogFactory.getMemberChooserDialog(anyList(), any(Project.class))).willAnswer(invocation -> {
+            List<PsiElementClassMember> elements = invocation.getArgument(0);
+            MemberChooser<PsiElementClassMember> memberChooser = mock(MemberChooser.class);
+            given(memberChooser.isOK()).willReturn(true);
+            given(memberChooser.getSelectedElements()).willReturn(elements);
+            return memberChooser;
+        });
+        return memberChooserDialogFactory;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static <T extends AbstractPopupDisplayer> T popupDisplayerChoosing(Class<T> displayerClass, int index) {
+        T popupDisplayer = mock(displayerClass);
+        willAnswer(invocation -> {
+            JList list = invocation.getArgument(1);
+            list.setSelectedIndex(index);
+            ((Runnable) invocation.getArgument(2)).run();
+            return null;
+        }).given(popupDisplayer).displayPopupChooser(any(), any(), any());
+        return popupDisplayer;
+    }
+
+    private static String wideDtoSource() {
+        StringBuilder text = new StringBuilder("public class WideDto {\n");
+        for (int i = 0; i < WIDE_DTO_FIELD_COUNT; i++) {
+            text.append("    private ").append(typeOf(i)).append(" field").append(i).append(";\n");
+        }
+        for (int i = 0; i < WIDE_DTO_FIELD_COUNT; i++) {
+            appendAccessors(text, "field" + i, typeOf(i));
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static String levelSource(int level) {
+        StringBuilder text = new StringBuilder("public class Level").append(level);
+        if (level > 0) {
+            text.append(" extends Level").append(level - 1);
+        }
+        text.append(" {\n");
+        for (int i = 0; i < FIELDS_PER_LEVEL; i++) {
+            String name = "level" + level + "Field" + i;
+            text.append("    private ").append(typeOf(i)).append(' ').append(name).append(";\n");
+            appendAccessors(text, name, typeOf(i));
+        }
+        return text.append("}\n").toString();
+    }
+
+    private static String recordSource() {
+        StringBuilder text = new StringBuilder("public record WideRecord(");
+        for (int i = 0; i < RECORD_COMPONENT_COUNT; i++) {
+            text.append(i > 0 ? ", " : "").append(typeOf(i)).append(" field").append(i);
+        }
+        return text.append(") {\n}\n").toString();
+    }
+
+    /**
+     * The Lombok plugin is not on the test classpath, so the class declares the constructor {@code @Value} would generate.
+     */
+    private static String lombokValueSource() {
+        StringBuilder fields = new StringBuilder();
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        for (int i = 0; i < WIDE_DTO_FIELD_COUNT; i++) {
+            fields.append("    ").append(typeOf(i)).append(" field").append(i).append(";\n");
+            parameters.append(i > 0 ? ", " : "").append(typeOf(i)).append(" field").append(i);
+            assignments.append(" this.field").append(i).append(" = field").append(i).append(';');
+        }
+        return "import lombok.Value;\n\n@Value\npublic class LombokValue {\n" + fields
+                + "    public LombokValue(" + parameters + ") {" + assignments + " }\n}\n";
+    }
+
+    private static void appendAccessors(StringBuilder text, String name, String type) {
+        String capitalizedName = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        text.append("    public ").append(type).append(" get").append(capitalizedName).append("() { return ").append(name).append("; }\n");
+        text.append("    public void set").append(capitalizedName).append('(').append(type).append(' ').append(name)
+                .append(") { this.").append(name).append(" = ").append(name).append("; }\n");
+    }
+
+    private static String typeOf(int field) {
+        return TYPES[field % TYPES.length];
+    }
+
+    /**
+     * Runs the read action of a "background" task and its continuation right away, as a test has no event loop to wait on.
+     */
+    private static class SynchronousPsiHelper extends PsiHelper {
+
+        @Override
+        public <T> void runReadActionInBackground(Project project, String title, Callable<T> readAction, Consumer<T> onSuccess) {
+            onSuccess.accept(ReadAction.compute(() -> {
+                try {
+                    return readAction.call();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+    }
+}
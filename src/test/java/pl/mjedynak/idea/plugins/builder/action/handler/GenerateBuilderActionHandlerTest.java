@@ -18,16 +18,26 @@ import pl.mjedynak.idea.plugins.builder.factory.GenerateBuilderPopupListFactory;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.GenerateBuilderPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
 import javax.swing.JList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class GenerateBuilderActionHandlerTest {
@@ -39,6 +49,7 @@ public class GenerateBuilderActionHandlerTest {
     @Mock private GenerateBuilderPopupListFactory popupListFactory;
     @Mock private GenerateBuilderPopupDisplayer popupDisplayer;
     @Mock private DisplayChoosers displayChoosers;
+    @Mock private GenerationTimings generationTimings;
     @Mock private PsiClass psiClass;
     @Mock private PsiClass builderClass;
     @Mock private Editor editor;
@@ -50,6 +61,19 @@ public class GenerateBuilderActionHandlerTest {
     @BeforeEach
     public void setUp() {
         given(dataContext.getData(CommonDataKeys.PROJECT.getName())).willReturn(project);
+        setField(builderActionHandler, "generationTimings", generationTimings);
+        runReadActionsSynchronously();
+        lenient().when(psiClass.isValid()).thenReturn(true);
+        lenient().when(builderClass.isValid()).thenReturn(true);
+    }
+
+    private void runReadActionsSynchronously() {
+        lenient().doAnswer(invocation -> {
+            Callable<?> readAction = invocation.getArgument(2);
+            Consumer<Object> onSuccess = invocation.getArgument(3);
+            onSuccess.accept(readAction.call());
+            return null;
+        }).when(psiHelper).runReadActionInBackground(eq(project), anyString(), any(), any());
     }
 
     @Test
@@ -64,19 +88,12 @@ public class GenerateBuilderActionHandlerTest {
         builderActionHandler.execute(editor, dataContext);
 
         // then
-        verifyDisplayChoosersSetMethods();
         ArgumentCaptor<Runnable> runnableArgumentCaptor = ArgumentCaptor.forClass(Runnable.class);
         verify(popupDisplayer).displayPopupChooser(eq(editor), eq(list), runnableArgumentCaptor.capture());
         testRunnableWhenGoToBuilderIsSelected(runnableArgumentCaptor);
         testRunnableWhenRegenerateBuilderIsSelected(runnableArgumentCaptor);
     }
 
-    private void verifyDisplayChoosersSetMethods() {
-        verify(displayChoosers).setEditor(editor);
-        verify(displayChoosers).setProject(project);
-        verify(displayChoosers).setPsiClassFromEditor(psiClass);
-    }
-
     private void testRunnableWhenGoToBuilderIsSelected(ArgumentCaptor<Runnable> runnableArgumentCaptor) {
         // given
         given(list.getSelectedValue()).willReturn(new GoToBuilderAdditionalAction());
@@ -96,7 +113,7 @@ public class GenerateBuilderActionHandlerTest {
         runnableArgumentCaptor.getValue().run();
 
         // then
-        verify(displayChoosers).run(builderClass);
+        verify(displayChoosers).run(editor, project, psiClass, builderClass);
     }
 
     @Test
@@ -110,8 +127,7 @@ public class GenerateBuilderActionHandlerTest {
         builderActionHandler.execute(editor, dataContext);
 
         // then
-        verifyDisplayChoosersSetMethods();
-        verify(displayChoosers).run(null);
+        verify(displayChoosers).run(editor, project, psiClass, null);
     }
 
     @Test
@@ -142,9 +158,57 @@ public class GenerateBuilderActionHandlerTest {
         verifyNothingIsDone();
     }
 
+    @Test
+    void shouldDisplayChoosersForEditorOfFirstInvocationWhenSecondOneStartsBeforeItsBuilderIsLookedUp() {
+        // given
+        List<Runnable> pendingLookups = new ArrayList<>();
+        doAnswer(invocation -> {
+            Callable<?> readAction = invocation.getArgument(2);
+            Consumer<Object> onSuccess = invocation.getArgument(3);
+            pendingLookups.add(() -> {
+                try {
+                    onSuccess.accept(readAction.call());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            return null;
+        }).when(psiHelper).runReadActionInBackground(eq(project), anyString(), any(), any());
+        Editor otherEditor = mock(Editor.class);
+        PsiClass otherClass = mock(PsiClass.class);
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(psiHelper.getPsiClassFromEditor(otherEditor, project)).willReturn(otherClass);
+        given(builderVerifier.isBuilder(psiClass)).willReturn(false);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(null);
+
+        // when
+        builderActionHandler.execute(editor, dataContext);
+        builderActionHandler.execute(otherEditor, dataContext);
+        pendingLookups.get(0).run();
+
+        // then
+        verify(displayChoosers).run(editor, project, psiClass, null);
+        verify(displayChoosers, never()).run(eq(otherEditor), any(), any(), any());
+    }
+
+    @Test
+    void shouldNotDoAnythingWhenBuilderWasInvalidatedBeforeItWasFound() {
+        // given
+        given(psiHelper.getPsiClassFromEditor(editor, project)).willReturn(psiClass);
+        given(builderVerifier.isBuilder(psiClass)).willReturn(false);
+        given(builderFinder.findBuilderForClass(psiClass)).willReturn(builderClass);
+        given(builderClass.isValid()).willReturn(false);
+
+        // when
+        builderActionHandler.execute(editor, dataContext);
+
+        // then
+        verifyNothingIsDone();
+    }
+
     private void verifyNothingIsDone() {
         verify(psiHelper, never()).navigateToClass(any(PsiClass.class));
-        verify(displayChoosers, never()).run(any(PsiClass.class));
+        verify(displayChoosers, never()).run(any(), any(), any(), any());
         verifyNoMoreInteractions(popupDisplayer);
     }
 }
@@ -16,16 +16,22 @@ import pl.mjedynak.idea.plugins.builder.factory.GoToBuilderPopupListFactory;
 import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
 import pl.mjedynak.idea.plugins.builder.gui.displayer.GoToBuilderPopupDisplayer;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
 import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
 
 import javax.swing.JList;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class GoToBuilderActionHandlerTest {
@@ -37,6 +43,7 @@ public class GoToBuilderActionHandlerTest {
     @Mock private GoToBuilderPopupListFactory popupListFactory;
     @Mock private GoToBuilderPopupDisplayer popupDisplayer;
     @Mock private DisplayChoosers displayChoosers;
+    @Mock private GenerationTimings generationTimings;
     @Mock private PsiClass psiClass;
     @Mock private PsiClass builderClass;
     @Mock private Editor editor;
@@ -48,6 +55,19 @@ public class GoToBuilderActionHandlerTest {
     @BeforeEach
     public void setUp() {
         given(dataContext.getData(CommonDataKeys.PROJECT.getName())).willReturn(project);
+        setField(builderActionHandler, "generationTimings", generationTimings);
+        runReadActionsSynchronously();
+        lenient().when(psiClass.isValid()).thenReturn(true);
+        lenient().when(builderClass.isValid()).thenReturn(true);
+    }
+
+    private void runReadActionsSynchronously() {
+        lenient().doAnswer(invocation -> {
+            Callable<?> readAction = invocation.getArgument(2);
+            Consumer<Object> onSuccess = invocation.getArgument(3);
+            onSuccess.accept(readAction.call());
+            return null;
+        }).when(psiHelper).runReadActionInBackground(eq(project), anyString(), any(), any());
     }
 
     @Test
@@ -90,17 +110,10 @@ public class GoToBuilderActionHandlerTest {
         builderActionHandler.execute(editor, dataContext);
 
         // then
-        verifyDisplayChoosersSetMethods();
         ArgumentCaptor<Runnable> runnableArgumentCaptor = ArgumentCaptor.forClass(Runnable.class);
         verify(popupDisplayer).displayPopupChooser(eq(editor), eq(list), runnableArgumentCaptor.capture());
         runnableArgumentCaptor.getValue().run();
-        verify(displayChoosers).run(null);
-    }
-
-    private void verifyDisplayChoosersSetMethods() {
-        verify(displayChoosers).setEditor(editor);
-        verify(displayChoosers).setProject(project);
-        verify(displayChoosers).setPsiClassFromEditor(psiClass);
+        verify(displayChoosers).run(editor, project, psiClass, null);
     }
 
     @Test
@@ -119,7 +132,7 @@ public class GoToBuilderActionHandlerTest {
 
     private void verifyNothingIsDone() {
         verify(psiHelper, never()).navigateToClass(any(PsiClass.class));
-        verify(displayChoosers, never()).run(any(PsiClass.class));
+        verify(displayChoosers, never()).run(any(), any(), any(), any());
         verifyNoMoreInteractions(popupDisplayer);
     }
 }
@@ -5,6 +5,7 @@ import com.intellij.codeInsight.generation.PsiElementClassMember;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -13,7 +14,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
+import pl.mjedynak.idea.plugins.builder.psi.PsiClassAnalysisCache;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiClassAnalysis;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationPhase;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.List;
@@ -23,6 +29,8 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class PsiFieldsForBuilderFactoryTest {
@@ -53,25 +61,34 @@ public class PsiFieldsForBuilderFactoryTest {
     @Mock private PsiField psiFieldNowhere;
     @Mock private BestConstructorSelector bestConstructorSelector;
     @Mock private PsiMethod bestConstructor;
+    @Mock private PsiClassAccessors accessors;
+    @Mock private PsiClassAnalysisCache psiClassAnalysisCache;
+    @Mock private GenerationTimings generationTimings;
 
     @Captor private ArgumentCaptor<List<PsiField>> argumentCaptor;
 
     @SuppressWarnings("rawtypes")
     private List<PsiElementClassMember> psiElementClassMembers;
 
+    @BeforeEach
+    public void setUp() {
+        setField(factory, "generationTimings", generationTimings);
+    }
+
     private void initCommonMock() {
         psiElementClassMembers = Lists.newArrayList(psiElementClassMember);
         given(psiElementClassMember.getPsiElement()).willReturn(psiField);
         given(psiField.getName()).willReturn(PSI_FIELD_NAME);
+        given(psiClassAnalysisCache.getAnalysis(psiClass)).willReturn(new PsiClassAnalysis(accessors));
     }
 
     @Test
     void shouldCreateObjectWithPsiFieldsForSetters() {
         // given
         initCommonMock();
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(true);
-        given(bestConstructorSelector.getBestConstructor(anyList(), eq(psiClass))).willReturn(bestConstructor);
-        given(psiFieldVerifier.checkConstructor(psiField, bestConstructor)).willReturn(false);
+        given(psiFieldVerifier.isSetInSetterMethod(psiField, accessors)).willReturn(true);
+        given(bestConstructorSelector.getBestConstructor(anyList(), eq(accessors))).willReturn(bestConstructor);
+        given(psiFieldVerifier.checkConstructor(psiField, bestConstructor, accessors)).willReturn(false);
 
         // when
         PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
@@ -81,19 +98,32 @@ public class PsiFieldsForBuilderFactoryTest {
         assertThat(result.getFieldsForConstructor()).isNotNull().hasSize(0);
         assertThat(result.getFieldsForSetters()).isNotNull().hasSize(1).containsOnly(psiField);
 
-        verify(psiFieldVerifier).isSetInSetterMethod(psiField, psiClass);
-        verify(bestConstructorSelector).getBestConstructor(argumentCaptor.capture(), eq(psiClass));
+        verify(psiFieldVerifier).isSetInSetterMethod(psiField, accessors);
+        verify(bestConstructorSelector).getBestConstructor(argumentCaptor.capture(), eq(accessors));
         assertThat(argumentCaptor.getValue()).isNotNull().hasSize(0);
-        verify(psiFieldVerifier).checkConstructor(psiField, bestConstructor);
+        verify(psiFieldVerifier).checkConstructor(psiField, bestConstructor, accessors);
+    }
+
+    @Test
+    void shouldRecordAnalysisTime() {
+        // given
+        initCommonMock();
+        given(generationTimings.start()).willReturn(42L);
+
+        // when
+        factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+
+        // then
+        verify(generationTimings).record(GenerationPhase.ANALYSE_FIELDS, psiClass, 42L);
     }
 
     @Test
     void shouldCreateObjectWithPsiFieldsForConstructor() {
         // given
         initCommonMock();
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(false);
-        given(bestConstructorSelector.getBestConstructor(anyList(), eq(psiClass))).willReturn(bestConstructor);
-        given(psiFieldVerifier.checkConstructor(psiField, bestConstructor)).willReturn(true);
+        given(psiFieldVerifier.isSetInSetterMethod(psiField, accessors)).willReturn(false);
+        given(bestConstructorSelector.getBestConstructor(anyList(), eq(accessors))).willReturn(bestConstructor);
+        given(psiFieldVerifier.checkConstructor(psiField, bestConstructor, accessors)).willReturn(true);
 
         // when
         PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
@@ -103,19 +133,19 @@ public class PsiFieldsForBuilderFactoryTest {
         assertThat(result.getFieldsForSetters()).isNotNull().hasSize(0);
         assertThat(result.getFieldsForConstructor()).isNotNull().hasSize(1).containsOnly(psiField);
 
-        verify(psiFieldVerifier).isSetInSetterMethod(psiField, psiClass);
-        verify(bestConstructorSelector).getBestConstructor(argumentCaptor.capture(), eq(psiClass));
+        verify(psiFieldVerifier).isSetInSetterMethod(psiField, accessors);
+        verify(bestConstructorSelector).getBestConstructor(argumentCaptor.capture(), eq(accessors));
         assertThat(argumentCaptor.getValue()).isNotNull().hasSize(1).extracting("name").containsOnly(PSI_FIELD_NAME);
-        verify(psiFieldVerifier).checkConstructor(psiField, bestConstructor);
+        verify(psiFieldVerifier).checkConstructor(psiField, bestConstructor, accessors);
     }
 
     @Test
     void shouldCreateObjectWithEmptyList() {
         // given
         initCommonMock();
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(false);
-        given(bestConstructorSelector.getBestConstructor(anyList(), eq(psiClass))).willReturn(bestConstructor);
-        given(psiFieldVerifier.checkConstructor(psiField, bestConstructor)).willReturn(false);
+        given(psiFieldVerifier.isSetInSetterMethod(psiField, accessors)).willReturn(false);
+        given(bestConstructorSelector.getBestConstructor(anyList(), eq(accessors))).willReturn(bestConstructor);
+        given(psiFieldVerifier.checkConstructor(psiField, bestConstructor, accessors)).willReturn(false);
 
         // when
         PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
@@ -125,10 +155,32 @@ public class PsiFieldsForBuilderFactoryTest {
         assertThat(result.getFieldsForSetters()).isNotNull().hasSize(0);
         assertThat(result.getFieldsForConstructor()).isNotNull().hasSize(0);
 
-        verify(psiFieldVerifier).isSetInSetterMethod(psiField, psiClass);
-        verify(bestConstructorSelector).getBestConstructor(argumentCaptor.capture(), eq(psiClass));
+        verify(psiFieldVerifier).isSetInSetterMethod(psiField, accessors);
+        verify(bestConstructorSelector).getBestConstructor(argumentCaptor.capture(), eq(accessors));
         assertThat(argumentCaptor.getValue()).isNotNull().hasSize(1).extracting("name").containsOnly(PSI_FIELD_NAME);
-        verify(psiFieldVerifier).checkConstructor(psiField, bestConstructor);
+        verify(psiFieldVerifier).checkConstructor(psiField, bestConstructor, accessors);
+    }
+
+    @Test
+    void shouldMapSelectedRecordComponentsInOrderToCanonicalConstructor() {
+        // given
+        psiElementClassMembers = Lists.newArrayList(psiElementClassMemberInConstructorOnly, psiElementClassMember);
+        given(psiClassAnalysisCache.getAnalysis(psiClass)).willReturn(new PsiClassAnalysis(accessors));
+        given(psiElementClassMemberInConstructorOnly.getPsiElement()).willReturn(psiFieldInConstructorOnly);
+        given(psiElementClassMember.getPsiElement()).willReturn(psiField);
+        given(psiClass.isRecord()).willReturn(true);
+        given(psiFieldVerifier.getRecordFields(psiClass)).willReturn(Lists.newArrayList(psiField, psiFieldNowhere, psiFieldInConstructorOnly));
+        given(psiFieldVerifier.findCanonicalConstructor(psiClass)).willReturn(bestConstructor);
+
+        // when
+        PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
+
+        // then
+        assertThat(result.getFieldsForConstructor()).containsExactly(psiField, psiFieldInConstructorOnly);
+        assertThat(result.getFieldsForSetters()).isEmpty();
+        assertThat(result.getAllSelectedFields()).containsExactly(psiFieldInConstructorOnly, psiField);
+        assertThat(result.getBestConstructor()).isEqualTo(bestConstructor);
+        verifyNoInteractions(bestConstructorSelector);
     }
 
     @Test
@@ -136,6 +188,7 @@ public class PsiFieldsForBuilderFactoryTest {
         // given
         psiElementClassMembers = Lists.newArrayList(psiElementClassMemberInSetterOnly, psiElementClassMemberInConstructorOnly,
                 psiElementClassMemberInSetterAndConstructor, psiElementClassMemberNowhere);
+        given(psiClassAnalysisCache.getAnalysis(psiClass)).willReturn(new PsiClassAnalysis(accessors));
 
         given(psiElementClassMemberInSetterOnly.getPsiElement()).willReturn(psiFieldInSetterOnly);
         given(psiElementClassMemberInConstructorOnly.getPsiElement()).willReturn(psiFieldInConstructorOnly);
@@ -147,17 +200,17 @@ public class PsiFieldsForBuilderFactoryTest {
         given(psiFieldInSetterAndConstructor.getName()).willReturn(PSI_FIELD_NAME_IN_SETTER_AND_CONSTRUCTOR);
         given(psiFieldNowhere.getName()).willReturn(PSI_FIELD_NAME_NOWHERE);
 
-        given(psiFieldVerifier.isSetInSetterMethod(psiFieldInSetterOnly, psiClass)).willReturn(true);
-        given(psiFieldVerifier.isSetInSetterMethod(psiFieldInConstructorOnly, psiClass)).willReturn(false);
-        given(psiFieldVerifier.isSetInSetterMethod(psiFieldInSetterAndConstructor, psiClass)).willReturn(true);
-        given(psiFieldVerifier.isSetInSetterMethod(psiFieldNowhere, psiClass)).willReturn(false);
+        given(psiFieldVerifier.isSetInSetterMethod(psiFieldInSetterOnly, accessors)).willReturn(true);
+        given(psiFieldVerifier.isSetInSetterMethod(psiFieldInConstructorOnly, accessors)).willReturn(false);
+        given(psiFieldVerifier.isSetInSetterMethod(psiFieldInSetterAndConstructor, accessors)).willReturn(true);
+        given(psiFieldVerifier.isSetInSetterMethod(psiFieldNowhere, accessors)).willReturn(false);
 
-        given(bestConstructorSelector.getBestConstructor(anyList(), eq(psiClass))).willReturn(bestConstructor);
+        given(bestConstructorSelector.getBestConstructor(anyList(), eq(accessors))).willReturn(bestConstructor);
 
-        given(psiFieldVerifier.checkConstructor(psiFieldInSetterOnly, bestConstructor)).willReturn(false);
-        given(psiFieldVerifier.checkConstructor(psiFieldInConstructorOnly, bestConstructor)).willReturn(true);
-        given(psiFieldVerifier.checkConstructor(psiFieldInSetterAndConstructor, bestConstructor)).willReturn(true);
-        given(psiFieldVerifier.checkConstructor(psiFieldNowhere, bestConstructor)).willReturn(false);
+        given(psiFieldVerifier.checkConstructor(psiFieldInSetterOnly, bestConstructor, accessors)).willReturn(false);
+        given(psiFieldVerifier.checkConstructor(psiFieldInConstructorOnly, bestConstructor, accessors)).willReturn(true);
+        given(psiFieldVerifier.checkConstructor(psiFieldInSetterAndConstructor, bestConstructor, accessors)).willReturn(true);
+        given(psiFieldVerifier.checkConstructor(psiFieldNowhere, bestConstructor, accessors)).willReturn(false);
 
         // when
         PsiFieldsForBuilder result = factory.createPsiFieldsForBuilder(psiElementClassMembers, psiClass);
@@ -17,6 +17,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.BestConstructorSelector;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
 import java.util.Collection;
@@ -25,6 +26,8 @@ import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,11 +46,13 @@ public class BestConstructorSelectorTest {
     @Mock private PsiMethod constructor1;
     @Mock private PsiMethod constructor2a;
     @Mock private PsiMethod constructor2b;
+    @Mock private PsiMethod constructor2c;
     @Mock private PsiMethod constructor3;
     @Mock(strictness = LENIENT) private PsiParameterList parameterList0;
     @Mock(strictness = LENIENT) private PsiParameterList parameterList1;
     @Mock(strictness = LENIENT) private PsiParameterList parameterList2a;
     @Mock(strictness = LENIENT) private PsiParameterList parameterList2b;
+    @Mock(strictness = LENIENT) private PsiParameterList parameterList2c;
     @Mock(strictness = LENIENT) private PsiParameterList parameterList3;
     @Mock(strictness = LENIENT) private PsiField psiField1;
     @Mock(strictness = LENIENT) private PsiField psiField2;
@@ -142,6 +147,41 @@ public class BestConstructorSelectorTest {
         );
     }
 
+    @Test
+    void shouldFindConstructorWithExtraParametersDeclaredAfterOneWithSameParameterCount() {
+        mockConstructor(constructor2c, parameterList2c, psiParameter2, psiParameter3);
+        doTest(
+                Lists.newArrayList(psiField3),
+                new PsiMethod[]{constructor0, constructor1, constructor2a, constructor2b, constructor2c, constructor3},
+                constructor2c
+        );
+    }
+
+    @Test
+    void shouldFindFirstDeclaredConstructorWithExtraParametersIfSeveralHaveSameParameterCount() {
+        doTest(
+                Lists.newArrayList(psiField1),
+                new PsiMethod[]{constructor0, constructor1, constructor2b, constructor2a, constructor3},
+                constructor2b
+        );
+    }
+
+    @Test
+    void shouldIndexConstructorsOnceAndReuseIndexAcrossSelections() {
+        // given
+        given(psiClass.getConstructors()).willReturn(new PsiMethod[]{constructor0, constructor1, constructor2a, constructor2b, constructor3});
+        PsiClassAccessors accessors = verifier.accessorsOf(psiClass);
+
+        // when
+        PsiMethod exactMatch = finder.getBestConstructor(Lists.newArrayList(psiField1, psiField2), accessors);
+        PsiMethod extraParameters = finder.getBestConstructor(Lists.newArrayList(psiField2, psiField3), accessors);
+
+        // then
+        assertThat(exactMatch).isEqualTo(constructor2a);
+        assertThat(extraParameters).isEqualTo(constructor3);
+        verify(psiClass, times(1)).getConstructors();
+    }
+
     private void doTest(Collection<PsiField> psiFields, PsiMethod[] psiMethods, PsiMethod expectedConstructor) {
         // given
         given(psiClass.getConstructors()).willReturn(psiMethods);
@@ -13,6 +13,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -105,6 +106,92 @@ public class BuilderFinderTest {
         assertThat(result.getName()).isEqualTo(BUILDER_NAME);
     }
 
+    @Test
+    void shouldPreferIndexedBuilderOverBuilderFoundByName() {
+        // given
+        PsiClass indexedBuilder = mock(PsiClass.class);
+        given(classFinder.findBuilderForClass(psiClass)).willReturn(indexedBuilder);
+
+        // when
+        PsiClass result = builderFinder.findBuilderForClass(psiClass);
+
+        // then
+        assertThat(result).isEqualTo(indexedBuilder);
+        verify(classFinder, never()).findClass(BUILDER_NAME, project);
+    }
+
+    @Test
+    void shouldNotFindBuilderByNameWhenItBuildsSameNamedClassFromOtherPackage() {
+        // given
+        PsiClass sameNamedClass = mock(PsiClass.class);
+        given(classFinder.findClass(BUILDER_NAME, project)).willReturn(builderClass);
+        given(classFinder.findClassBuiltBy(builderClass)).willReturn(sameNamedClass);
+        given(psiClass.isEquivalentTo(sameNamedClass)).willReturn(false);
+
+        // when
+        PsiClass result = builderFinder.findBuilderForClass(psiClass);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldFindBuilderByNameWhenItBuildsTheClass() {
+        // given
+        given(classFinder.findClass(BUILDER_NAME, project)).willReturn(builderClass);
+        given(classFinder.findClassBuiltBy(builderClass)).willReturn(psiClass);
+        given(psiClass.isEquivalentTo(psiClass)).willReturn(true);
+
+        // when
+        PsiClass result = builderFinder.findBuilderForClass(psiClass);
+
+        // then
+        assertThat(result).isEqualTo(builderClass);
+    }
+
+    @Test
+    void shouldNotFindClassByNameWhenSameNamedClassFromOtherPackageHasOtherBuilder() {
+        // given
+        PsiClass sameNamedClass = mock(PsiClass.class);
+        PsiClass otherBuilder = mock(PsiClass.class);
+        given(classFinder.findClassBuiltBy(builderClass)).willReturn(null);
+        given(classFinder.findClass(CLASS_NAME, project)).willReturn(sameNamedClass);
+        given(classFinder.findBuilderForClass(sameNamedClass)).willReturn(otherBuilder);
+        given(builderClass.isEquivalentTo(otherBuilder)).willReturn(false);
+
+        // when
+        PsiClass result = builderFinder.findClassForBuilder(builderClass);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldNotGuessClassBuiltByBuilderFromItsName() {
+        // given
+        given(classFinder.findClassBuiltBy(builderClass)).willReturn(null);
+
+        // when
+        PsiClass result = builderFinder.findClassBuiltBy(builderClass);
+
+        // then
+        assertThat(result).isNull();
+        verify(classFinder, never()).findClass(CLASS_NAME, project);
+    }
+
+    @Test
+    void shouldFindClassForBuilderFromItsBuildMethodBeforeSearchingByName() {
+        // given
+        given(classFinder.findClassBuiltBy(builderClass)).willReturn(psiClass);
+
+        // when
+        PsiClass result = builderFinder.findClassForBuilder(builderClass);
+
+        // then
+        assertThat(result).isEqualTo(psiClass);
+        verify(classFinder, never()).findClass(CLASS_NAME, project);
+    }
+
     @Test
     void shouldFindInnerBuilder() {
         // given
@@ -0,0 +1,196 @@
+package pl.mjedynak.idea.plugins.builder.finder;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiImportList;
+import com.intellij.psi.PsiImportStatement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiTypeElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderIndexerTest {
+
+    private final BuilderIndexer builderIndexer = new BuilderIndexer();
+
+    @Mock(strictness = LENIENT) private PsiJavaFile javaFile;
+    @Mock(strictness = LENIENT) private PsiImportList importList;
+    @Mock(strictness = LENIENT) private PsiClass builderClass;
+
+    @BeforeEach
+    public void setUp() {
+        given(javaFile.getPackageName()).willReturn("com.example.builder");
+        given(javaFile.getImportList()).willReturn(importList);
+        given(importList.getImportStatements()).willReturn(new PsiImportStatement[0]);
+        given(javaFile.getClasses()).willReturn(new PsiClass[]{builderClass});
+        given(builderClass.getQualifiedName()).willReturn("com.example.builder.OrderBuilder");
+        given(builderClass.getInnerClasses()).willReturn(new PsiClass[0]);
+    }
+
+    @Test
+    void shouldIndexBuilderUnderSingleTypeImportOfBuiltClass() {
+        // given
+        PsiImportStatement importStatement = mock(PsiImportStatement.class);
+        given(importStatement.getQualifiedName()).willReturn("com.example.model.Order");
+        given(importList.getImportStatements()).willReturn(new PsiImportStatement[]{importStatement});
+        mockBuildMethod(builderClass, null, "Order");
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).containsExactly(entry("com.example.model.Order", "com.example.builder.OrderBuilder"));
+    }
+
+    @Test
+    void shouldIndexBuilderUnderQualifiedReturnType() {
+        // given
+        mockBuildMethod(builderClass, "com.example.model", "Order");
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).containsExactly(entry("com.example.model.Order", "com.example.builder.OrderBuilder"));
+    }
+
+    @Test
+    void shouldIndexInnerBuilderUnderClassFromSamePackage() {
+        // given
+        PsiClass innerBuilder = mock(PsiClass.class);
+        given(innerBuilder.getQualifiedName()).willReturn("com.example.builder.Order.Builder");
+        given(innerBuilder.getInnerClasses()).willReturn(new PsiClass[0]);
+        given(builderClass.getInnerClasses()).willReturn(new PsiClass[]{innerBuilder});
+        given(builderClass.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+        mockBuildMethod(innerBuilder, null, "Order");
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).containsExactly(entry("com.example.builder.Order", "com.example.builder.Order.Builder"));
+    }
+
+    @Test
+    void shouldIndexStagedBuilderUnderEnclosingClassOfItsSteps() {
+        // given
+        PsiClass steps = mock(PsiClass.class);
+        given(steps.getName()).willReturn(GenerationSession.STEPS_CLASS_NAME);
+        given(steps.getContainingClass()).willReturn(builderClass);
+        given(steps.getInnerClasses()).willReturn(new PsiClass[0]);
+        given(builderClass.getInnerClasses()).willReturn(new PsiClass[]{steps});
+        given(builderClass.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+        mockBuildMethod(steps, null, "Order");
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).containsExactly(entry("com.example.builder.Order", "com.example.builder.OrderBuilder"));
+    }
+
+    @Test
+    void shouldIndexInnerBuilderUnderNestedClassOfSameFile() {
+        // given
+        PsiClass nestedClass = mock(PsiClass.class, withSettings().lenient());
+        PsiClass nestedBuilder = mock(PsiClass.class, withSettings().lenient());
+        given(builderClass.getName()).willReturn("Order");
+        given(builderClass.getQualifiedName()).willReturn("com.example.builder.Order");
+        given(builderClass.getInnerClasses()).willReturn(new PsiClass[]{nestedClass, nestedBuilder});
+        given(builderClass.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+        given(nestedClass.getName()).willReturn("Line");
+        given(nestedClass.getQualifiedName()).willReturn("com.example.builder.Order.Line");
+        given(nestedClass.getInnerClasses()).willReturn(new PsiClass[0]);
+        given(nestedClass.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+        given(nestedBuilder.getName()).willReturn("LineBuilder");
+        given(nestedBuilder.getQualifiedName()).willReturn("com.example.builder.Order.LineBuilder");
+        given(nestedBuilder.getContainingClass()).willReturn(builderClass);
+        given(nestedBuilder.getInnerClasses()).willReturn(new PsiClass[0]);
+        mockBuildMethod(nestedBuilder, null, "Line");
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).containsExactly(entry("com.example.builder.Order.Line", "com.example.builder.Order.LineBuilder"));
+    }
+
+    @Test
+    void shouldIndexBuilderUnderClassNestedInImportedClass() {
+        // given
+        PsiImportStatement importStatement = mock(PsiImportStatement.class);
+        given(importStatement.getQualifiedName()).willReturn("com.example.model.Order");
+        given(importList.getImportStatements()).willReturn(new PsiImportStatement[]{importStatement});
+        mockBuildMethod(builderClass, "Order", "Line");
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).containsExactly(entry("com.example.model.Order.Line", "com.example.builder.OrderBuilder"));
+    }
+
+    @Test
+    void shouldFindDeclarationOfBuildMethodWithoutParsing() {
+        // when
+        boolean result = BuilderIndexer.declaresBuildMethod("class OrderBuilder { public java.util.List<Order> build() { return null; } }");
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldNotTakeCallOfBuildMethodForDeclaration() {
+        // when
+        boolean result = BuilderIndexer.declaresBuildMethod("class OrderService { /* Order build() {} */ Order order = Order.builder().build(); }");
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void shouldNotIndexClassWithoutBuildMethod() {
+        // given
+        given(builderClass.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+
+        // when
+        Map<String, String> result = builderIndexer.indexBuilders(javaFile);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    private void mockBuildMethod(PsiClass psiClass, String qualifier, String returnTypeName) {
+        PsiMethod buildMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiTypeElement returnTypeElement = mock(PsiTypeElement.class);
+        PsiJavaCodeReferenceElement reference = mock(PsiJavaCodeReferenceElement.class);
+        given(psiClass.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[]{buildMethod});
+        given(buildMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(0);
+        given(buildMethod.getReturnTypeElement()).willReturn(returnTypeElement);
+        given(returnTypeElement.getInnermostComponentReferenceElement()).willReturn(reference);
+        given(reference.getReferenceName()).willReturn(returnTypeName);
+        if (qualifier != null) {
+            PsiJavaCodeReferenceElement qualifierElement = mock(PsiJavaCodeReferenceElement.class);
+            given(qualifierElement.getText()).willReturn(qualifier);
+            given(reference.getQualifier()).willReturn(qualifierElement);
+        }
+    }
+}
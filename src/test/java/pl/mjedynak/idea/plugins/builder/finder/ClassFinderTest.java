@@ -2,6 +2,10 @@ package pl.mjedynak.idea.plugins.builder.finder;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiTypeParameter;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.PsiShortNamesCache;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,10 +15,12 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,9 +29,9 @@ public class ClassFinderTest {
     private static final String CLASS_NAME = "SomeClass";
 
     @InjectMocks private ClassFinder classFinder;
-    @Mock private PsiHelper psiHelper;
+    @Mock(strictness = LENIENT) private PsiHelper psiHelper;
     @Mock private PsiShortNamesCache psiShortNamesCache;
-    @Mock private Project project;
+    @Mock(strictness = LENIENT) private Project project;
     @Mock private GlobalSearchScope globalSearchScope;
 
     @BeforeEach
@@ -63,6 +69,107 @@ public class ClassFinderTest {
         verifyClassIsFound(CLASS_NAME, result);
     }
 
+    @Test
+    void shouldFindClassBuiltByBuilderFromReturnTypeOfBuildMethod() {
+        // given
+        PsiClass builder = mock(PsiClass.class);
+        PsiClass builtClass = mock(PsiClass.class);
+        PsiMethod buildMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiClassType returnType = mock(PsiClassType.class);
+        given(builder.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[]{buildMethod});
+        given(buildMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(0);
+        given(buildMethod.getReturnType()).willReturn(returnType);
+        given(returnType.resolve()).willReturn(builtClass);
+        given(psiHelper.isInProjectSources(builtClass)).willReturn(true);
+
+        // when
+        PsiClass result = classFinder.findClassBuiltBy(builder);
+
+        // then
+        assertThat(result).isEqualTo(builtClass);
+    }
+
+    @Test
+    void shouldNotTakeLibraryClassForClassBuiltByBuilder() {
+        // given
+        PsiClass builder = mock(PsiClass.class);
+        PsiClass libraryClass = mock(PsiClass.class);
+        givenBuildMethodReturning(builder, libraryClass);
+        given(psiHelper.isInProjectSources(libraryClass)).willReturn(false);
+
+        // when
+        PsiClass result = classFinder.findClassBuiltBy(builder);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldNotTakeTypeParameterForClassBuiltByBuilder() {
+        // given
+        PsiClass builder = mock(PsiClass.class);
+        PsiTypeParameter typeParameter = mock(PsiTypeParameter.class);
+        givenBuildMethodReturning(builder, typeParameter);
+        given(psiHelper.isInProjectSources(typeParameter)).willReturn(true);
+
+        // when
+        PsiClass result = classFinder.findClassBuiltBy(builder);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldNotFindClassBuiltByClassWithoutBuildMethod() {
+        // given
+        PsiClass builder = mock(PsiClass.class);
+        given(builder.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+
+        // when
+        PsiClass result = classFinder.findClassBuiltBy(builder);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldFindClassBuiltByStagedBuilderFromItsSteps() {
+        // given
+        PsiClass builder = mock(PsiClass.class);
+        PsiClass steps = mock(PsiClass.class);
+        PsiClass builtClass = mock(PsiClass.class);
+        PsiMethod buildMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiClassType returnType = mock(PsiClassType.class);
+        given(builder.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[0]);
+        given(builder.findInnerClassByName(GenerationSession.STEPS_CLASS_NAME, false)).willReturn(steps);
+        given(steps.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[]{buildMethod});
+        given(buildMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(0);
+        given(buildMethod.getReturnType()).willReturn(returnType);
+        given(returnType.resolve()).willReturn(builtClass);
+        given(psiHelper.isInProjectSources(builtClass)).willReturn(true);
+
+        // when
+        PsiClass result = classFinder.findClassBuiltBy(builder);
+
+        // then
+        assertThat(result).isEqualTo(builtClass);
+    }
+
+    private void givenBuildMethodReturning(PsiClass builder, PsiClass returnedClass) {
+        PsiMethod buildMethod = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiClassType returnType = mock(PsiClassType.class);
+        given(builder.findMethodsByName(BuilderIndexer.BUILD_METHOD_NAME, false)).willReturn(new PsiMethod[]{buildMethod});
+        given(buildMethod.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParametersCount()).willReturn(0);
+        given(buildMethod.getReturnType()).willReturn(returnType);
+        given(returnType.resolve()).willReturn(returnedClass);
+    }
+
     private void verifyClassIsFound(String name, PsiClass result) {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo(name);
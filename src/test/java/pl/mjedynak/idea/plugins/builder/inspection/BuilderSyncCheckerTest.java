@@ -0,0 +1,188 @@
+package pl.mjedynak.idea.plugins.builder.inspection;
+
+import com.intellij.codeInsight.generation.PsiElementClassMember;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
+import pl.mjedynak.idea.plugins.builder.psi.PsiFieldSelector;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderSyncCheckerTest {
+
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderFinder builderFinder;
+    @Mock private PsiFieldSelector psiFieldSelector;
+    @Mock(strictness = LENIENT) private PsiClass builder;
+    @Mock(strictness = LENIENT) private PsiClass builtClass;
+
+    private BuilderSyncChecker builderSyncChecker;
+
+    @BeforeEach
+    public void setUp() {
+        builderSyncChecker = new BuilderSyncChecker(builderVerifier, builderFinder, psiFieldSelector);
+        given(builder.getFields()).willReturn(new PsiField[0]);
+    }
+
+    @Test
+    void shouldFindFieldsWhichBuilderLacks() {
+        // given
+        PsiField name = mockField("name", "java.lang.String");
+        PsiField age = mockField("age", "int");
+        given(builder.findFieldByName("name", false)).willReturn(name);
+        givenSelectedFields(name, age);
+
+        // when
+        List<String> result = builderSyncChecker.findMissingFieldNames(builder, builtClass);
+
+        // then
+        assertThat(result).containsExactly("age");
+    }
+
+    @Test
+    void shouldLookForFieldsOfStagedBuilderInItsSteps() {
+        // given
+        PsiClass steps = mock(PsiClass.class, withSettings().lenient());
+        PsiField name = mockField("name", "java.lang.String");
+        given(builder.findInnerClassByName(GenerationSession.STEPS_CLASS_NAME, false)).willReturn(steps);
+        given(steps.getFields()).willReturn(new PsiField[]{name});
+        given(steps.findFieldByName("name", false)).willReturn(name);
+        givenSelectedFields(name);
+
+        // when
+        List<String> result = builderSyncChecker.findMissingFieldNames(builder, builtClass);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shouldNotReportSingleFieldBuilder() {
+        // given
+        PsiField person = mockField("person", "com.example.Person");
+        given(person.getType()).willReturn(mockClassType("com.example.Person", builtClass));
+        given(builder.getFields()).willReturn(new PsiField[]{person});
+
+        // when
+        List<String> result = builderSyncChecker.findMissingFieldNames(builder, builtClass);
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(psiFieldSelector);
+    }
+
+    @Test
+    void shouldNotCheckClassWhichIsNotBuilder() {
+        // given
+        PsiClass psiClass = mock(PsiClass.class);
+        given(psiClass.getName()).willReturn("Person");
+        given(builderVerifier.isBuilder(psiClass)).willReturn(false);
+
+        // when
+        List<String> result = builderSyncChecker.getMissingFieldNames(psiClass);
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(builderFinder, psiFieldSelector);
+    }
+
+    @Test
+    void shouldTakeBuilderWithCopyConstructorForGeneratedOne() {
+        // given
+        PsiMethod defaultConstructor = mockConstructor();
+        PsiMethod copyConstructor = mockConstructor(mockClassType("com.example.Person", builtClass));
+        given(builder.getConstructors()).willReturn(new PsiMethod[]{defaultConstructor, copyConstructor});
+
+        // when
+        boolean result = BuilderSyncChecker.hasGeneratedShape(builder, builtClass);
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldTakeBuilderOfGenericClassWithCopyConstructorForGeneratedOne() {
+        // given
+        PsiMethod copyConstructor = mockConstructor(mockClassType("com.example.Person<T>", builtClass));
+        given(builder.getConstructors()).willReturn(new PsiMethod[]{copyConstructor});
+
+        // when
+        boolean result = BuilderSyncChecker.hasGeneratedShape(builder, builtClass);
+
+        // then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void shouldNotTakeHandWrittenBuilderForGeneratedOne() {
+        // given
+        PsiMethod constructor = mockConstructor(mockClassType("java.lang.String", mock(PsiClass.class)));
+        given(builder.getConstructors()).willReturn(new PsiMethod[]{constructor});
+
+        // when
+        boolean result = BuilderSyncChecker.hasGeneratedShape(builder, builtClass);
+
+        // then
+        assertThat(result).isFalse();
+    }
+
+    private PsiMethod mockConstructor(PsiType... parameterTypes) {
+        PsiMethod constructor = mock(PsiMethod.class);
+        PsiParameterList parameterList = mock(PsiParameterList.class);
+        PsiParameter[] parameters = new PsiParameter[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameters[i] = mock(PsiParameter.class);
+            given(parameters[i].getType()).willReturn(parameterTypes[i]);
+        }
+        given(constructor.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(parameters);
+        return constructor;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void givenSelectedFields(PsiField... psiFields) {
+        PsiElementClassMember[] members = new PsiElementClassMember[psiFields.length];
+        for (int i = 0; i < psiFields.length; i++) {
+            members[i] = mock(PsiElementClassMember.class);
+            given(members[i].getPsiElement()).willReturn(psiFields[i]);
+        }
+        given(psiFieldSelector.selectFieldsToIncludeInBuilder(builtClass, false, false, false)).willReturn(Arrays.asList(members));
+    }
+
+    private PsiClassType mockClassType(String canonicalText, PsiClass resolvedClass) {
+        PsiClassType psiType = mock(PsiClassType.class, withSettings().lenient());
+        given(psiType.getCanonicalText()).willReturn(canonicalText);
+        given(psiType.resolve()).willReturn(resolvedClass);
+        return psiType;
+    }
+
+    private PsiField mockField(String name, String type) {
+        PsiField psiField = mock(PsiField.class, withSettings().lenient());
+        PsiType psiType = mock(PsiType.class, withSettings().lenient());
+        given(psiField.getName()).willReturn(name);
+        given(psiField.getType()).willReturn(psiType);
+        given(psiType.getCanonicalText()).willReturn(type);
+        return psiField;
+    }
+}
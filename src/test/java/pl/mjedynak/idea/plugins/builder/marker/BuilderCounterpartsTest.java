@@ -0,0 +1,83 @@
+package pl.mjedynak.idea.plugins.builder.marker;
+
+import com.intellij.psi.PsiClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.finder.BuilderFinder;
+import pl.mjedynak.idea.plugins.builder.verifier.BuilderVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderCounterpartsTest {
+
+    @Mock private BuilderVerifier builderVerifier;
+    @Mock private BuilderFinder builderFinder;
+    @Mock(strictness = LENIENT) private PsiClass person;
+    @Mock(strictness = LENIENT) private PsiClass personBuilder;
+
+    private BuilderCounterparts builderCounterparts;
+
+    @BeforeEach
+    public void setUp() {
+        builderCounterparts = new BuilderCounterparts(builderVerifier, builderFinder);
+        givenNamed(person, "Person");
+        givenNamed(personBuilder, "PersonBuilder");
+    }
+
+    @Test
+    void shouldMapClassToBuilderAndBuilderToClass() {
+        // given
+        given(builderVerifier.isBuilder(person)).willReturn(false);
+        given(builderVerifier.isBuilder(personBuilder)).willReturn(true);
+        given(builderFinder.findBuilderForClass(person)).willReturn(personBuilder);
+        given(builderFinder.findClassForBuilder(personBuilder)).willReturn(person);
+
+        // when
+        Map<PsiClass, PsiClass> result = builderCounterparts.findCounterparts(Arrays.asList(person, personBuilder));
+
+        // then
+        assertThat(result).containsEntry(person, personBuilder).containsEntry(personBuilder, person).hasSize(2);
+    }
+
+    @Test
+    void shouldSkipClassWithoutBuilder() {
+        // given
+        given(builderVerifier.isBuilder(person)).willReturn(false);
+        given(builderFinder.findBuilderForClass(person)).willReturn(null);
+
+        // when
+        Map<PsiClass, PsiClass> result = builderCounterparts.findCounterparts(Collections.singletonList(person));
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void shouldSkipAnonymousClass() {
+        // given
+        given(person.getName()).willReturn(null);
+
+        // when
+        Map<PsiClass, PsiClass> result = builderCounterparts.findCounterparts(Collections.singletonList(person));
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(builderVerifier, builderFinder);
+    }
+
+    private void givenNamed(PsiClass psiClass, String name) {
+        given(psiClass.getName()).willReturn(name);
+        given(psiClass.getQualifiedName()).willReturn("com.example." + name);
+    }
+}
@@ -0,0 +1,308 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.JavaElementVisitor;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiCodeBlock;
+import com.intellij.psi.PsiDeclarationStatement;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaToken;
+import com.intellij.psi.PsiLocalVariable;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifierList;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.PsiParameter;
+import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiReturnStatement;
+import com.intellij.psi.PsiStatement;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderPatcherTest {
+
+    private static final String METHOD_PREFIX = "with";
+    private static final String SET_AGE_BODY = "{ this.age = age; return this; }";
+
+    @Mock private PsiHelper psiHelper;
+    @Mock(strictness = LENIENT) private CodeStyleSettings codeStyleSettings;
+    @Mock(strictness = LENIENT) private PsiClass existingBuilder;
+    @Mock(strictness = LENIENT) private PsiClass desiredBuilder;
+
+    private BuilderPatcher builderPatcher;
+
+    @BeforeEach
+    public void setUp() {
+        given(codeStyleSettings.getFieldNamePrefix()).willReturn("");
+        given(codeStyleSettings.getParameterNamePrefix()).willReturn("");
+        builderPatcher = new BuilderPatcher(psiHelper, new NameNormalizer(codeStyleSettings), METHOD_PREFIX);
+        given(existingBuilder.getFields()).willReturn(new PsiField[0]);
+        given(existingBuilder.getInnerClasses()).willReturn(new PsiClass[0]);
+        given(desiredBuilder.getFields()).willReturn(new PsiField[0]);
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[0]);
+        given(desiredBuilder.getInnerClasses()).willReturn(new PsiClass[0]);
+        given(existingBuilder.findMethodsByName(anyString(), eq(false))).willReturn(new PsiMethod[0]);
+        given(desiredBuilder.findMethodsByName(anyString(), eq(false))).willReturn(new PsiMethod[0]);
+    }
+
+    @Test
+    void shouldLeaveMembersEqualToDesiredOnesUntouched() {
+        // given
+        PsiField existingField = mockField("age", "int");
+        PsiField desiredField = mockField("age", "int");
+        given(existingBuilder.getFields()).willReturn(new PsiField[]{existingField});
+        given(desiredBuilder.getFields()).willReturn(new PsiField[]{desiredField});
+        given(existingBuilder.findFieldByName("age", false)).willReturn(existingField);
+        given(desiredBuilder.findFieldByName("age", false)).willReturn(desiredField);
+        PsiMethod existingMethod = mockMethod("AgeBuilder", SET_AGE_BODY, "age");
+        PsiMethod desiredMethod = mockMethod("AgeBuilder", "{this.age=age;\n  return this;}", "age");
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[]{desiredMethod});
+        given(existingBuilder.findMethodBySignature(desiredMethod, false)).willReturn(existingMethod);
+
+        // when
+        builderPatcher.patch(existingBuilder, desiredBuilder);
+
+        // then
+        verify(existingField, never()).replace(any());
+        verify(existingMethod, never()).replace(any());
+        verify(existingBuilder, never()).add(any());
+        verifyNoInteractions(psiHelper);
+    }
+
+    @Test
+    void shouldRewriteOnlyMethodWhoseBodyChanged() {
+        // given
+        PsiMethod existingMethod = mockMethod("AgeBuilder", "{ this.age = age + 1; return this; }", "age");
+        PsiMethod desiredMethod = mockMethod("AgeBuilder", SET_AGE_BODY, "age");
+        PsiElement replacedMethod = mock(PsiElement.class);
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[]{desiredMethod});
+        given(existingBuilder.findMethodBySignature(desiredMethod, false)).willReturn(existingMethod);
+        given(existingMethod.replace(desiredMethod)).willReturn(replacedMethod);
+
+        // when
+        builderPatcher.patch(existingBuilder, desiredBuilder);
+
+        // then
+        verify(psiHelper).shortenClassReferencesAndReformat(replacedMethod);
+    }
+
+    @Test
+    void shouldAddMissingMethod() {
+        // given
+        PsiMethod desiredMethod = mockMethod("AgeBuilder", SET_AGE_BODY, "age");
+        PsiElement addedMethod = mock(PsiElement.class);
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[]{desiredMethod});
+        given(existingBuilder.add(desiredMethod)).willReturn(addedMethod);
+
+        // when
+        builderPatcher.patch(existingBuilder, desiredBuilder);
+
+        // then
+        verify(psiHelper).shortenClassReferencesAndReformat(addedMethod);
+    }
+
+    @Test
+    void shouldRemoveStaleGeneratedFieldWithItsBuilderMethodAndKeepHandWrittenField() {
+        // given
+        PsiField staleField = mockField("age", "int");
+        PsiField handWrittenField = mockField("cache", "java.lang.Object");
+        PsiMethod staleMethod = mockMethod("AgeBuilder", SET_AGE_BODY, "age");
+        given(existingBuilder.getFields()).willReturn(new PsiField[]{staleField, handWrittenField});
+        given(existingBuilder.findMethodsByName("withAge", false)).willReturn(new PsiMethod[]{staleMethod});
+        given(existingBuilder.findMethodsByName("withCache", false)).willReturn(new PsiMethod[0]);
+
+        // when
+        builderPatcher.patch(existingBuilder, desiredBuilder);
+
+        // then
+        verify(staleMethod).delete();
+        verify(staleField).delete();
+        verify(handWrittenField, never()).delete();
+    }
+
+    @Test
+    void shouldNotRewriteMethodWhichDiffersOnlyInPackageQualifiers() {
+        // given
+        PsiMethod existingMethod = mockMethod("AgeBuilder", "{ Arrays.fill(fieldsSet, 0L); return this; }");
+        PsiMethod desiredMethod = mockMethod("AgeBuilder", "{ java.util.Arrays.fill(fieldsSet, 0L); return this; }");
+        givenPackageQualifier(desiredMethod.getBody(), 2, "java.util");
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[]{desiredMethod});
+        given(existingBuilder.findMethodBySignature(desiredMethod, false)).willReturn(existingMethod);
+
+        // when
+        builderPatcher.patch(existingBuilder, desiredBuilder);
+
+        // then
+        verify(existingMethod, never()).replace(any());
+        verifyNoInteractions(psiHelper);
+    }
+
+    @Test
+    void shouldRemoveMembersOfOptionsWhichWereTurnedOff() {
+        // given
+        PsiField fieldsSetMask = mockField(GenerationSession.FIELDS_SET_MASK, "long[]");
+        PsiMethod resetMethod = mockMethod("AgeBuilder", "{ return this; }");
+        PsiClass witherInterface = mock(PsiClass.class);
+        given(existingBuilder.findFieldByName(GenerationSession.FIELDS_SET_MASK, false)).willReturn(fieldsSetMask);
+        given(existingBuilder.findMethodsByName("reset", false)).willReturn(new PsiMethod[]{resetMethod});
+        given(existingBuilder.findInnerClassByName(GenerationSession.WITHER_INTERFACE_NAME, false)).willReturn(witherInterface);
+        given(witherInterface.isInterface()).willReturn(true);
+
+        // when
+        builderPatcher.patch(existingBuilder, desiredBuilder);
+
+        // then
+        verify(fieldsSetMask).delete();
+        verify(resetMethod).delete();
+        verify(witherInterface).delete();
+    }
+
+    @Test
+    void shouldAddOnlyMissingFieldWithItsMethodsAndLeaveOtherMembersAsTheyAre() {
+        // given
+        PsiField existingField = mockField("age", "int");
+        PsiField desiredAgeField = mockField("age", "int");
+        PsiField desiredNameField = mockField("name", "java.lang.String");
+        given(existingBuilder.getFields()).willReturn(new PsiField[]{existingField});
+        given(desiredBuilder.getFields()).willReturn(new PsiField[]{desiredAgeField, desiredNameField});
+        given(existingBuilder.findFieldByName("age", false)).willReturn(existingField);
+        PsiMethod existingAgeMethod = mockMethod("AgeBuilder", "{ this.age = age + 1; return this; }", "age");
+        PsiMethod desiredAgeMethod = mockMethod("AgeBuilder", SET_AGE_BODY, "age");
+        PsiMethod desiredNameMethod = mockMethod("AgeBuilder", "{ this.name = name; return this; }", "name");
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[]{desiredAgeMethod, desiredNameMethod});
+        given(existingBuilder.findMethodBySignature(desiredAgeMethod, false)).willReturn(existingAgeMethod);
+
+        // when
+        builderPatcher.addMissingMembers(existingBuilder, desiredBuilder);
+
+        // then
+        verify(existingBuilder).addAfter(desiredNameField, existingField);
+        verify(existingBuilder).add(desiredNameMethod);
+        verify(existingAgeMethod, never()).replace(any());
+        verify(existingField, never()).replace(any());
+    }
+
+    @Test
+    void shouldAddStatementsUsingMissingFieldToExistingBuildMethodAndCopyConstructor() {
+        // given
+        PsiField desiredField = mockField("name", "java.lang.String");
+        given(desiredBuilder.getFields()).willReturn(new PsiField[]{desiredField});
+        PsiStatement existingDeclaration = mockDeclaration("Person person = new Person(age);", "person");
+        PsiStatement existingReturn = mockStatement(PsiReturnStatement.class, "return person;");
+        PsiStatement desiredDeclaration = mockDeclaration("Person person = new Person(age, name);", "person");
+        PsiStatement desiredReturn = mockStatement(PsiReturnStatement.class, "return person;");
+        PsiMethod existingBuildMethod = mockMethod("Person", "{ Person person = new Person(age); return person; }");
+        PsiMethod desiredBuildMethod = mockMethod("Person", "{ Person person = new Person(age, name); return person; }");
+        givenStatements(existingBuildMethod, existingDeclaration, existingReturn);
+        givenStatements(desiredBuildMethod, desiredDeclaration, desiredReturn);
+        PsiStatement copiedAge = mockStatement(PsiStatement.class, "this.age = other.age;");
+        PsiStatement copiedName = mockStatement(PsiStatement.class, "this.name = other.name;");
+        PsiMethod existingCopyConstructor = mockMethod(null, "{ this.age = other.age; }", "other");
+        PsiMethod desiredCopyConstructor = mockMethod(null, "{ this.age = other.age; this.name = other.name; }", "other");
+        givenStatements(existingCopyConstructor, mockStatement(PsiStatement.class, "this.age = other.age;"));
+        givenStatements(desiredCopyConstructor, copiedAge, copiedName);
+        PsiJavaToken rBrace = existingCopyConstructor.getBody().getRBrace();
+        given(desiredBuilder.getMethods()).willReturn(new PsiMethod[]{desiredBuildMethod, desiredCopyConstructor});
+        given(existingBuilder.findMethodBySignature(desiredBuildMethod, false)).willReturn(existingBuildMethod);
+        given(existingBuilder.findMethodBySignature(desiredCopyConstructor, false)).willReturn(existingCopyConstructor);
+
+        // when
+        builderPatcher.addMissingMembers(existingBuilder, desiredBuilder);
+
+        // then
+        verify(existingDeclaration).replace(desiredDeclaration);
+        verify(existingReturn, never()).replace(any());
+        verify(existingBuildMethod.getBody(), never()).addBefore(any(), any());
+        verify(existingCopyConstructor.getBody()).addBefore(copiedName, rBrace);
+        verify(existingCopyConstructor.getBody(), never()).addBefore(eq(copiedAge), any());
+        verify(psiHelper).shortenClassReferencesAndReformat(existingBuildMethod);
+        verify(psiHelper).shortenClassReferencesAndReformat(existingCopyConstructor);
+    }
+
+    private void givenStatements(PsiMethod method, PsiStatement... statements) {
+        PsiCodeBlock body = method.getBody();
+        given(body.getStatements()).willReturn(statements);
+        given(body.getRBrace()).willReturn(mock(PsiJavaToken.class));
+    }
+
+    private PsiStatement mockDeclaration(String text, String variableName) {
+        PsiDeclarationStatement statement = mockStatement(PsiDeclarationStatement.class, text);
+        PsiLocalVariable variable = mock(PsiLocalVariable.class, withSettings().lenient());
+        given(variable.getName()).willReturn(variableName);
+        given(statement.getDeclaredElements()).willReturn(new PsiElement[]{variable});
+        return statement;
+    }
+
+    private <T extends PsiStatement> T mockStatement(Class<T> statementClass, String text) {
+        T statement = mock(statementClass, withSettings().lenient());
+        given(statement.getText()).willReturn(text);
+        return statement;
+    }
+
+    private void givenPackageQualifier(PsiElement element, int offset, String packageName) {
+        PsiJavaCodeReferenceElement reference = mock(PsiJavaCodeReferenceElement.class);
+        PsiJavaCodeReferenceElement qualifier = mock(PsiJavaCodeReferenceElement.class);
+        given(reference.getQualifier()).willReturn(qualifier);
+        given(qualifier.resolve()).willReturn(mock(PsiPackage.class));
+        given(qualifier.getTextRange()).willReturn(TextRange.from(offset, packageName.length()));
+        given(element.getTextRange()).willReturn(TextRange.from(0, element.getText().length()));
+        doAnswer(invocation -> {
+            invocation.<JavaElementVisitor>getArgument(0).visitReferenceElement(reference);
+            return null;
+        }).when(element).accept(any());
+    }
+
+    private PsiField mockField(String name, String type) {
+        PsiField field = mock(PsiField.class, withSettings().lenient());
+        PsiType psiType = mock(PsiType.class, withSettings().lenient());
+        PsiModifierList modifierList = mock(PsiModifierList.class, withSettings().lenient());
+        given(field.getName()).willReturn(name);
+        given(field.getType()).willReturn(psiType);
+        given(psiType.getCanonicalText()).willReturn(type);
+        given(field.getModifierList()).willReturn(modifierList);
+        given(modifierList.getText()).willReturn("private");
+        return field;
+    }
+
+    private PsiMethod mockMethod(String returnType, String body, String... parameterNames) {
+        PsiMethod method = mock(PsiMethod.class, withSettings().lenient());
+        PsiType psiType = mock(PsiType.class, withSettings().lenient());
+        PsiModifierList modifierList = mock(PsiModifierList.class, withSettings().lenient());
+        PsiCodeBlock codeBlock = mock(PsiCodeBlock.class, withSettings().lenient());
+        PsiParameterList parameterList = mock(PsiParameterList.class, withSettings().lenient());
+        PsiParameter[] parameters = new PsiParameter[parameterNames.length];
+        for (int i = 0; i < parameterNames.length; i++) {
+            parameters[i] = mock(PsiParameter.class, withSettings().lenient());
+            given(parameters[i].getName()).willReturn(parameterNames[i]);
+        }
+        given(method.getReturnType()).willReturn(psiType);
+        given(psiType.getCanonicalText()).willReturn(returnType);
+        given(method.getModifierList()).willReturn(modifierList);
+        given(modifierList.getText()).willReturn("public");
+        given(method.getBody()).willReturn(codeBlock);
+        given(codeBlock.getText()).willReturn(body);
+        given(method.getParameterList()).willReturn(parameterList);
+        given(parameterList.getParameters()).willReturn(parameters);
+        given(parameterList.getParametersCount()).willReturn(parameters.length);
+        return method;
+    }
+}
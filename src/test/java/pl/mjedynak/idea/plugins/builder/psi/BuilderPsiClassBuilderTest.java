@@ -2,10 +2,14 @@ package pl.mjedynak.idea.plugins.builder.psi;
 
 import com.google.common.collect.Lists;
 import com.intellij.openapi.project.Project;
+import com.intellij.pom.java.LanguageLevel;
 import com.intellij.psi.JavaDirectoryService;
 import com.intellij.psi.JavaPsiFacade;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiCodeBlock;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementFactory;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMethod;
@@ -13,6 +17,7 @@ import com.intellij.psi.PsiModifier;
 import com.intellij.psi.PsiModifierList;
 import com.intellij.psi.PsiParameter;
 import com.intellij.psi.PsiParameterList;
+import com.intellij.psi.PsiStatement;
 import com.intellij.psi.PsiType;
 import com.intellij.psi.impl.source.PsiFieldImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,17 +31,23 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.quality.Strictness;
 import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+import pl.mjedynak.idea.plugins.builder.settings.GeneratorProfile;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 import pl.mjedynak.idea.plugins.builder.writer.BuilderContext;
+import pl.mjedynak.idea.plugins.builder.writer.GenerationOptions;
 
 import java.util.List;
 
 import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.withSettings;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
@@ -69,7 +80,7 @@ public class BuilderPsiClassBuilderTest {
     @Captor private ArgumentCaptor<String> stringCaptor;
 
     private BuilderContext createBuilderContext(boolean useSingleField) {
-        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix", false, false, useSingleField);
+        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "anyPrefix", GenerationOptions.builder().singleField(useSingleField).build());
     }
 
     private void mockCodeStyleManager() {
@@ -109,7 +120,7 @@ public class BuilderPsiClassBuilderTest {
     @Test
     void shouldSetPassedFieldsAndCreateRequiredOnes() {
         // when
-        BuilderPsiClassBuilder result = psiClassBuilder.aBuilder(context);
+        GenerationSession result = psiClassBuilder.aBuilder(context);
 
         // then
         assertFieldsAreSet(result);
@@ -119,7 +130,7 @@ public class BuilderPsiClassBuilderTest {
     @Test
     void shouldSetPassedFieldsAndCreateRequiredOnesForInnerBuilder() {
         // when
-        BuilderPsiClassBuilder result = psiClassBuilder.anInnerBuilder(context);
+        GenerationSession result = psiClassBuilder.anInnerBuilder(context);
 
         // then
         assertFieldsAreSet(result);
@@ -127,13 +138,28 @@ public class BuilderPsiClassBuilderTest {
         verify(psiModifierList).setModifierProperty(PsiModifier.FINAL, true);
     }
 
+    @Test
+    void shouldStartIndependentSessionForEveryContext() {
+        // when
+        GenerationSession first = psiClassBuilder.aBuilder(context);
+        GenerationSession second = psiClassBuilder.anInnerBuilder(createBuilderContext(true));
+
+        // then
+        assertThat(second).isNotSameAs(first);
+        assertThat(getField(first, "builderClass")).isEqualTo(builderClass);
+        assertThat(getField(first, "useSingleField")).isEqualTo(false);
+        assertThat(getField(second, "useSingleField")).isEqualTo(true);
+    }
+
     @Test
     void shouldDelegatePsiFieldsModification() {
+        GenerationSession builder = psiClassBuilder.aBuilder(context);
+
         // when
-        BuilderPsiClassBuilder result = psiClassBuilder.aBuilder(context).withFields();
+        GenerationSession result = builder.withFields();
 
         // then
-        assertThat(result).isSameAs(psiClassBuilder);
+        assertThat(result).isSameAs(builder);
         verify(psiFieldsModifier).modifyFields(psiFieldsForSetters, psiFieldsForConstructor, builderClass);
     }
 
@@ -145,11 +171,13 @@ public class BuilderPsiClassBuilderTest {
         PsiField singleField = mock(PsiField.class);
         given(elementFactory.createFieldFromText(fieldText, srcClass)).willReturn(singleField);
 
+        GenerationSession builder = psiClassBuilder.aBuilder(context);
+
         // when
-        BuilderPsiClassBuilder result = psiClassBuilder.aBuilder(context).withFields();
+        GenerationSession result = builder.withFields();
 
         // then
-        assertThat(result).isSameAs(psiClassBuilder);
+        assertThat(result).isSameAs(builder);
         verify(psiFieldsModifier, never()).modifyFields(psiFieldsForSetters, psiFieldsForConstructor, builderClass);
         verify(builderClass).add(singleField);
     }
@@ -230,7 +258,7 @@ public class BuilderPsiClassBuilderTest {
         PsiMethod methodForFieldForConstructor = mock(PsiMethod.class);
         given(methodCreator.createMethod(psiFieldForSetter, methodPrefix, srcClassFieldName, false)).willReturn(methodForFieldForSetter);
         given(methodCreator.createMethod(psiFieldForConstructor, methodPrefix, srcClassFieldName, false)).willReturn(methodForFieldForConstructor);
-        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        GenerationSession builder = psiClassBuilder.aBuilder(context);
         setField(builder, "methodCreator", methodCreator);
 
         // when
@@ -252,7 +280,7 @@ public class BuilderPsiClassBuilderTest {
         PsiMethod setterMethod = mock(PsiMethod.class);
         given(methodCreator.createMethod(selectedField, methodPrefix, srcClassFieldName, false)).willReturn(setterMethod);
 
-        BuilderPsiClassBuilder builder = psiClassBuilder.anInnerBuilder(context);
+        GenerationSession builder = psiClassBuilder.anInnerBuilder(context);
         setField(builder, "methodCreator", methodCreator);
 
         given(builderClass.hasModifierProperty(PsiModifier.STATIC)).willReturn(true);
@@ -276,7 +304,7 @@ public class BuilderPsiClassBuilderTest {
         PsiMethod setterMethod = mock(PsiMethod.class);
         given(methodCreator.createMethod(selectedField, methodPrefix, srcClassFieldName, true)).willReturn(setterMethod);
 
-        BuilderPsiClassBuilder builder = psiClassBuilder.anInnerBuilder(context);
+        GenerationSession builder = psiClassBuilder.anInnerBuilder(context);
         setField(builder, "methodCreator", methodCreator);
 
         // when
@@ -290,14 +318,14 @@ public class BuilderPsiClassBuilderTest {
     void shouldAddButMethod() {
         // given
         given(butMethodCreator.butMethod(builderClassName, builderClass, srcClass, srcClassFieldName, false)).willReturn(psiMethod);
-        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        GenerationSession builder = psiClassBuilder.aBuilder(context);
         setField(builder, "butMethodCreator", butMethodCreator);
 
         // when
-        BuilderPsiClassBuilder result = builder.withButMethod();
+        GenerationSession result = builder.withButMethod();
 
         // then
-        assertThat(result).isSameAs(psiClassBuilder);
+        assertThat(result).isSameAs(builder);
         verify(builderClass).add(psiMethod);
     }
 
@@ -306,14 +334,14 @@ public class BuilderPsiClassBuilderTest {
         // given
         context = createBuilderContext(true);
         given(butMethodCreator.butMethod(builderClassName, builderClass, srcClass, srcClassFieldName, true)).willReturn(psiMethod);
-        BuilderPsiClassBuilder builder = psiClassBuilder.aBuilder(context);
+        GenerationSession builder = psiClassBuilder.aBuilder(context);
         setField(builder, "butMethodCreator", butMethodCreator);
 
         // when
-        BuilderPsiClassBuilder result = builder.withButMethod();
+        GenerationSession result = builder.withButMethod();
 
         // then
-        assertThat(result).isSameAs(psiClassBuilder);
+        assertThat(result).isSameAs(builder);
         verify(builderClass).add(psiMethod);
     }
 
@@ -336,7 +364,7 @@ public class BuilderPsiClassBuilderTest {
         given(bestConstructor.getParameterList()).willReturn(psiParameterList);
         PsiParameter psiParameter = mock(PsiParameter.class);
         given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{psiParameter});
-        given(psiFieldVerifier.areNameAndTypeEqual(psiFieldForConstructor, psiParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(psiFieldForConstructor), eq(psiParameter), any(NameNormalizer.class))).willReturn(true);
 
         // when
         PsiClass result = psiClassBuilder.aBuilder(context).build();
@@ -392,7 +420,7 @@ public class BuilderPsiClassBuilderTest {
         given(bestConstructor.getParameterList()).willReturn(psiParameterList);
         PsiParameter nameParameter = mock(PsiParameter.class);
         given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
-        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any(NameNormalizer.class))).willReturn(true);
 
         // when
         PsiClass result = psiClassBuilder.anInnerBuilder(context).build();
@@ -461,7 +489,7 @@ public class BuilderPsiClassBuilderTest {
         given(bestConstructor.getParameterList()).willReturn(psiParameterList);
         PsiParameter nameParameter = mock(PsiParameter.class);
         given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
-        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any(NameNormalizer.class))).willReturn(true);
 
         // when
         PsiClass result = psiClassBuilder.anInnerBuilder(context).build();
@@ -490,10 +518,10 @@ public class BuilderPsiClassBuilderTest {
         PsiParameterList psiParameterList = mock(PsiParameterList.class);
         given(bestConstructor.getParameterList()).willReturn(psiParameterList);
         given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter, ageParameter});
-        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
-        given(psiFieldVerifier.areNameAndTypeEqual(nameField, ageParameter)).willReturn(false);
-        given(psiFieldVerifier.areNameAndTypeEqual(ageField, nameParameter)).willReturn(false);
-        given(psiFieldVerifier.areNameAndTypeEqual(ageField, ageParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any(NameNormalizer.class))).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(ageParameter), any(NameNormalizer.class))).willReturn(false);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(ageField), eq(nameParameter), any(NameNormalizer.class))).willReturn(false);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(ageField), eq(ageParameter), any(NameNormalizer.class))).willReturn(true);
 
         PsiMethod method = mock(PsiMethod.class);
         String expectedCode = "public " + srcClassName + " build() { "
@@ -527,10 +555,10 @@ public class BuilderPsiClassBuilderTest {
         PsiParameterList psiParameterList = mock(PsiParameterList.class);
         given(bestConstructor.getParameterList()).willReturn(psiParameterList);
         given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{ageParameter, nameParameter});
-        given(psiFieldVerifier.areNameAndTypeEqual(nameField, nameParameter)).willReturn(true);
-        given(psiFieldVerifier.areNameAndTypeEqual(nameField, ageParameter)).willReturn(false);
-        given(psiFieldVerifier.areNameAndTypeEqual(ageField, nameParameter)).willReturn(false);
-        given(psiFieldVerifier.areNameAndTypeEqual(ageField, ageParameter)).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any(NameNormalizer.class))).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(ageParameter), any(NameNormalizer.class))).willReturn(false);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(ageField), eq(nameParameter), any(NameNormalizer.class))).willReturn(false);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(ageField), eq(ageParameter), any(NameNormalizer.class))).willReturn(true);
 
         PsiMethod method = mock(PsiMethod.class);
         String expectedCode = "public " + srcClassName + " build() { "
@@ -585,23 +613,567 @@ public class BuilderPsiClassBuilderTest {
         verify(builderClass).add(method);
     }
 
+    @Test
+    void shouldRenderWholeBuilderWithSingleParseInSinglePass() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).singleField(true).singlePass(true).build());
+        PsiField nameField = mock(PsiField.class);
+        PsiType nameType = mock(PsiType.class);
+        given(nameField.getName()).willReturn("name");
+        given(nameField.getType()).willReturn(nameType);
+        given(nameType.getCanonicalText()).willReturn("java.lang.String");
+        allSelectedPsiFields.add(nameField);
+
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass renderedClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{renderedClass});
+
+        // when
+        PsiClass result = psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(result).isSameAs(renderedClass);
+        assertThat(stringCaptor.getValue())
+                .startsWith("public static final class " + builderClassName + " {private " + srcClassName + " " + srcClassFieldName + ";")
+                .contains("public " + builderClassName + " withName(java.lang.String name) { " + srcClassFieldName + ".setName(name); return this; }")
+                .endsWith("public " + srcClassName + " build() { return " + srcClassFieldName + "; }}");
+        verify(elementFactory, never()).createMethodFromText(anyString(), any());
+        verify(elementFactory, never()).createFieldFromText(anyString(), any());
+        verify(elementFactory, never()).createClass(builderClassName);
+        verify(renderedClass, never()).add(any());
+    }
+
+    @Test
+    void shouldRenderStagedBuilderWithStageForEveryConstructorField() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).staged(true).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        PsiField ageField = mockField("age", "int");
+        psiFieldsForConstructor.add(nameField);
+        psiFieldsForSetters.add(ageField);
+        allSelectedPsiFields.add(nameField);
+        allSelectedPsiFields.add(ageField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any())).willReturn(true);
+
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass renderedClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{renderedClass});
+
+        // when
+        PsiClass result = psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(result).isSameAs(renderedClass);
+        assertThat(stringCaptor.getValue())
+                .startsWith("public static final class " + builderClassName + " {private " + builderClassName + "() {}"
+                        + "public static NameStage a" + srcClassName + "() { return new Steps(); }")
+                .contains("public interface NameStage {BuildStage withName(java.lang.String name);}")
+                .contains("public interface BuildStage {BuildStage withAge(int age);" + srcClassName + " build();}")
+                .contains("private static final class Steps implements NameStage, BuildStage {private java.lang.String name;private int age;")
+                .contains("public BuildStage withName(java.lang.String name) { this.name = name; return this; }")
+                .contains("public BuildStage withAge(int age) { this.age = age; return this; }")
+                .endsWith("public " + srcClassName + " build() { " + srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "(name);"
+                        + srcClassFieldName + ".setAge(age);return " + srcClassFieldName + "; }}}")
+                .doesNotContain("interface With");
+        verify(srcClass, never()).addAfter(any(), any());
+    }
+
+    @Test
+    void shouldAddResetAndBuildIntoMethodsToSetterBasedBuilder() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).reusable(true).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        PsiField ageField = mock(PsiField.class);
+        given(ageField.getName()).willReturn("age");
+        given(ageField.getType()).willReturn(PsiType.INT);
+        psiFieldsForSetters.add(nameField);
+        psiFieldsForSetters.add(ageField);
+        allSelectedPsiFields.add(nameField);
+        allSelectedPsiFields.add(ageField);
+        given(builderClass.hasModifierProperty(PsiModifier.STATIC)).willReturn(true);
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiMethod resetMethod = mock(PsiMethod.class);
+        PsiMethod buildIntoMethod = mock(PsiMethod.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getMethods()).willReturn(new PsiMethod[]{resetMethod, buildIntoMethod});
+
+        // when
+        psiClassBuilder.anInnerBuilder(context).withReuseMethods();
+
+        // then
+        assertThat(stringCaptor.getValue()).isEqualTo(
+                "public " + builderClassName + " reset() { this.name = null;this.age = 0;return this; }"
+                        + "public " + srcClassName + " buildInto(" + srcClassName + " " + srcClassFieldName + ") { "
+                        + srcClassFieldName + ".setName(name);" + srcClassFieldName + ".setAge(age);return " + srcClassFieldName + "; }");
+        verify(builderClass).add(resetMethod);
+        verify(builderClass).add(buildIntoMethod);
+    }
+
+    @Test
+    void shouldRenderOnlyResetMethodForSingleFieldBuilder() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).singleField(true).singlePass(true).reusable(true).build());
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass renderedClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{renderedClass});
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("public " + builderClassName + " reset() { " + srcClassFieldName + " = new " + srcClassName + "();return this; }")
+                .doesNotContain("buildInto");
+    }
+
+    @Test
+    void shouldCopyRecordThroughAccessorsAndAddToBuilderMethod() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).singlePass(true).profile(GeneratorProfile.STANDARD).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForConstructor.add(nameField);
+        allSelectedPsiFields.add(nameField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any())).willReturn(true);
+        given(srcClass.isRecord()).willReturn(true);
+        given(srcClass.findMethodsByName("toBuilder", false)).willReturn(new PsiMethod[0]);
+        PsiClass dummyClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+        given(elementFactory.createMethodFromText("public " + builderClassName + " toBuilder() { return new " + builderClassName + "(this); }", srcClass))
+                .willReturn(psiMethod);
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("public " + builderClassName + "(" + srcClassName + " " + srcClassFieldName + "){ this.name = " + srcClassFieldName + ".name(); }")
+                .contains("return new " + srcClassName + "(name);");
+        verify(srcClass).addBefore(eq(psiMethod), any());
+    }
+
+    @Test
+    void shouldRenderOnlyBuilderWithMinimalProfile() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).singlePass(true).profile(GeneratorProfile.MINIMAL).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForSetters.add(nameField);
+        allSelectedPsiFields.add(nameField);
+        givenDefaultConstructor();
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass renderedClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{renderedClass});
+
+        // when
+        PsiClass result = psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(result).isSameAs(renderedClass);
+        assertThat(stringCaptor.getValue()).doesNotContain("interface With");
+        verify(elementFactory, never()).createMethodFromText(anyString(), any());
+    }
+
+    @Test
+    void shouldAddBuilderAndWithMethodsToSourceClassWithStandardProfile() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).singlePass(true).profile(GeneratorProfile.STANDARD).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForSetters.add(nameField);
+        allSelectedPsiFields.add(nameField);
+        givenDefaultConstructor();
+        PsiClass dummyClass = mock(PsiClass.class);
+        PsiClass renderedClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{renderedClass});
+        ArgumentCaptor<String> methodCaptor = ArgumentCaptor.forClass(String.class);
+        given(elementFactory.createMethodFromText(methodCaptor.capture(), eq(srcClass))).willReturn(psiMethod);
+        given(psiMethod.getModifierList()).willReturn(psiModifierList);
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue()).doesNotContain("interface With");
+        assertThat(methodCaptor.getAllValues()).containsExactly(
+                builderClassName + " with() { return new " + builderClassName + "(this); }",
+                builderClassName + " builder() { return new " + builderClassName + "(); }");
+    }
+
+    @Test
+    void shouldAddDirectWithersCallingConstructorToImmutableClass() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).directWithers(true).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        PsiField ageField = mockField("age", "int");
+        psiFieldsForConstructor.add(nameField);
+        psiFieldsForConstructor.add(ageField);
+        allSelectedPsiFields.add(nameField);
+        allSelectedPsiFields.add(ageField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameter ageParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter, ageParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any())).willReturn(true);
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(ageField), eq(ageParameter), any())).willReturn(true);
+        given(psiHelper.isAccessibleFrom(any(PsiField.class), eq(srcClass))).willReturn(true);
+
+        PsiClass dummyClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(anyString(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+        ArgumentCaptor<String> witherCaptor = ArgumentCaptor.forClass(String.class);
+        PsiMethod wither = mock(PsiMethod.class);
+        given(elementFactory.createMethodFromText(witherCaptor.capture(), eq(srcClass))).willReturn(wither);
+        PsiElement lastChild = mock(PsiElement.class);
+        PsiElement addedWither = mock(PsiElement.class);
+        given(srcClass.getLastChild()).willReturn(lastChild);
+        given(srcClass.addBefore(wither, lastChild)).willReturn(addedWither);
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(witherCaptor.getAllValues()).containsExactly(
+                "public " + srcClassName + " withName(java.lang.String name) { if (this.name == name) { return this; } return new " + srcClassName + "(name,this.age); }",
+                "public " + srcClassName + " withAge(int age) { if (this.age == age) { return this; } return new " + srcClassName + "(this.name,age); }");
+        verify(srcClass, times(2)).addBefore(wither, lastChild);
+        verify(psiHelper, times(2)).shortenClassReferencesAndReformat(addedWither);
+    }
+
+    @Test
+    void shouldKeepHandWrittenMethodWithSignatureOfDirectWitherNamedWithoutPrefix() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "", GenerationOptions.builder().inner(true).directWithers(true).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForConstructor.add(nameField);
+        allSelectedPsiFields.add(nameField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any())).willReturn(true);
+        given(psiHelper.isAccessibleFrom(nameField, srcClass)).willReturn(true);
+        PsiClass dummyClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(anyString(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+        ArgumentCaptor<String> witherCaptor = ArgumentCaptor.forClass(String.class);
+        PsiMethod wither = mock(PsiMethod.class);
+        given(elementFactory.createMethodFromText(witherCaptor.capture(), eq(srcClass))).willReturn(wither);
+        PsiMethod handWrittenMethod = mock(PsiMethod.class);
+        PsiCodeBlock handWrittenBody = mock(PsiCodeBlock.class);
+        given(srcClass.findMethodBySignature(wither, false)).willReturn(handWrittenMethod);
+        given(handWrittenMethod.getBody()).willReturn(handWrittenBody);
+        given(handWrittenBody.getStatements()).willReturn(new PsiStatement[]{mock(PsiStatement.class)});
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(witherCaptor.getValue()).startsWith("public " + srcClassName + " name(java.lang.String name) {");
+        verify(handWrittenMethod, never()).replace(any());
+        verify(srcClass, never()).addBefore(any(), any());
+    }
+
+    @Test
+    void shouldNotAddDirectWithersWhenConstructorFieldIsNotAccessible() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).directWithers(true).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForConstructor.add(nameField);
+        allSelectedPsiFields.add(nameField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any())).willReturn(true);
+        given(psiHelper.isAccessibleFrom(nameField, srcClass)).willReturn(false);
+        PsiClass dummyClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(anyString(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        verify(elementFactory, never()).createMethodFromText(anyString(), any());
+    }
+
+    @Test
+    void shouldNotAddDirectWithersWhenConstructorTakesParameterWithoutField() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).directWithers(true).build());
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForConstructor.add(nameField);
+        allSelectedPsiFields.add(nameField);
+        PsiParameter nameParameter = mock(PsiParameter.class);
+        PsiParameter counterParameter = createPsiParameter(PsiType.INT);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{nameParameter, counterParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(nameField), eq(nameParameter), any())).willReturn(true);
+        PsiClass dummyClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(anyString(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        verify(elementFactory, never()).createMethodFromText(anyString(), any());
+        verify(srcClass, never()).addBefore(any(), any());
+    }
+
+    @Test
+    void shouldApplyOnlyFieldsWhichWereSetInSparseBuilder() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).sparse(true).build());
+        PsiField idField = mockField("id", "long");
+        PsiField nameField = mockField("name", "java.lang.String");
+        PsiField ageField = mockField("age", "int");
+        psiFieldsForConstructor.add(idField);
+        psiFieldsForSetters.add(nameField);
+        psiFieldsForSetters.add(ageField);
+        allSelectedPsiFields.add(idField);
+        allSelectedPsiFields.add(nameField);
+        allSelectedPsiFields.add(ageField);
+        PsiParameter idParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{idParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(idField), eq(idParameter), any())).willReturn(true);
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("private final long[] fieldsSet = new long[1];")
+                .contains("public " + builderClassName + " withId(long id) { this.id = id; return this; }")
+                .contains("public " + builderClassName + " withName(java.lang.String name) { this.name = name; fieldsSet[0] |= 1L << 0; return this; }")
+                .contains("public " + builderClassName + " withAge(int age) { this.age = age; fieldsSet[0] |= 1L << 1; return this; }")
+                .contains("; java.util.Arrays.fill(fieldsSet, -1L); }")
+                .contains(srcClassName + " " + srcClassFieldName + " = new " + srcClassName + "(id);"
+                        + "if ((fieldsSet[0] & 1L << 0) != 0L) { " + srcClassFieldName + ".setName(name); }"
+                        + "if ((fieldsSet[0] & 1L << 1) != 0L) { " + srcClassFieldName + ".setAge(age); }"
+                        + "return " + srcClassFieldName + "; }");
+    }
+
+    @Test
+    void shouldSpreadSparseBuilderMaskOverAsManyWordsAsNeeded() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().inner(true).sparse(true).build());
+        for (int i = 0; i <= 64; i++) {
+            PsiField psiField = mockField("f" + i, "int");
+            psiFieldsForSetters.add(psiField);
+            allSelectedPsiFields.add(psiField);
+        }
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(EMPTY_PSI_PARAMETERS);
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("private final long[] fieldsSet = new long[2];")
+                .contains("public " + builderClassName + " withF63(int f63) { this.f63 = f63; fieldsSet[0] |= 1L << 63; return this; }")
+                .contains("public " + builderClassName + " withF64(int f64) { this.f64 = f64; fieldsSet[1] |= 1L << 0; return this; }")
+                .contains("if ((fieldsSet[1] & 1L << 0) != 0L) { " + srcClassFieldName + ".setF64(f64); }");
+    }
+
+    @Test
+    void shouldAccumulateCollectionFieldAndHandItOverOnceInBuildMethod() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().collectionAccumulators(true).collectionHandoff(CollectionHandoff.TRANSFER).build());
+        PsiField itemsField = mockCollectionField("items", "java.util.List", "java.lang.String");
+        PsiField nameField = mockField("name", "java.lang.String");
+        psiFieldsForSetters.add(itemsField);
+        psiFieldsForSetters.add(nameField);
+        allSelectedPsiFields.add(itemsField);
+        allSelectedPsiFields.add(nameField);
+        givenDefaultConstructor();
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("this.items = className.getItems() == null ? null : new java.util.ArrayList<>(className.getItems());")
+                .contains("public " + builderClassName + " withItems(java.util.List<java.lang.String> items) { this.items = items == null ? null : new java.util.ArrayList<>(items); return this; }")
+                .contains("public " + builderClassName + " addItem(java.lang.String item) { if (this.items == null) { this.items = new java.util.ArrayList<>(); } this.items.add(item); return this; }")
+                .contains("public " + builderClassName + " withItemsCapacity(int capacity) { if (this.items == null) { this.items = new java.util.ArrayList<>(capacity); } return this; }")
+                .contains("public " + builderClassName + " withName(java.lang.String name) { this.name = name; return this; }")
+                .contains(srcClassFieldName + ".setItems(items == null ? null : java.util.Collections.unmodifiableList(items));"
+                        + srcClassFieldName + ".setName(name);"
+                        + "this.items = null;"
+                        + "return " + srcClassFieldName + "; }");
+    }
+
+    @Test
+    void shouldTransferAccumulatedCollectionEvenIfCollectionsAreShared() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().collectionAccumulators(true).build());
+        PsiField itemsField = mockCollectionField("items", "java.util.List", "java.lang.String");
+        psiFieldsForSetters.add(itemsField);
+        allSelectedPsiFields.add(itemsField);
+        givenDefaultConstructor();
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("public " + builderClassName + " addItem(java.lang.String item) {")
+                .contains(srcClassFieldName + ".setItems(items == null ? null : java.util.Collections.unmodifiableList(items));"
+                        + "this.items = null;"
+                        + "return " + srcClassFieldName + "; }");
+    }
+
+    @Test
+    void shouldCopySetPassedToConstructorKeepingInsertionOrderOnBuild() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().collectionHandoff(CollectionHandoff.COPY_ON_BUILD).build());
+        PsiField tagsField = mockCollectionField("tags", "java.util.Set", "java.lang.String");
+        psiFieldsForConstructor.add(tagsField);
+        allSelectedPsiFields.add(tagsField);
+        PsiParameter tagsParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{tagsParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(tagsField), eq(tagsParameter), any())).willReturn(true);
+        given(psiHelper.isLanguageLevelAtLeast(srcClass, LanguageLevel.JDK_10)).willReturn(true);
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains("public " + builderClassName + " withTags(java.util.Set<java.lang.String> tags) { this.tags = tags; return this; }")
+                .contains("public " + srcClassName + " build() { return new " + srcClassName
+                        + "(tags == null ? null : java.util.Collections.unmodifiableSet(new java.util.LinkedHashSet<>(tags))); }")
+                .doesNotContain("Set.copyOf");
+    }
+
+    @Test
+    void shouldCopyCollectionIntoUnmodifiableViewOnBuildBelowJava10() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().collectionHandoff(CollectionHandoff.COPY_ON_BUILD).build());
+        PsiField tagsField = mockCollectionField("tags", "java.util.Set", "java.lang.String");
+        psiFieldsForSetters.add(tagsField);
+        allSelectedPsiFields.add(tagsField);
+        givenDefaultConstructor();
+        given(psiHelper.isLanguageLevelAtLeast(srcClass, LanguageLevel.JDK_10)).willReturn(false);
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .contains(srcClassFieldName + ".setTags(tags == null ? null : java.util.Collections.unmodifiableSet(new java.util.LinkedHashSet<>(tags)));")
+                .doesNotContain("copyOf");
+    }
+
+    @Test
+    void shouldReleaseTransferredCollectionInInlineBuildMethod() {
+        // given
+        context = new BuilderContext(project, psiFieldsForBuilder, targetDirectory, builderClassName, srcClass, "with", GenerationOptions.builder().collectionHandoff(CollectionHandoff.TRANSFER).build());
+        PsiField entriesField = mockCollectionField("entries", "java.util.Map", "java.lang.String", "java.lang.Integer");
+        psiFieldsForConstructor.add(entriesField);
+        allSelectedPsiFields.add(entriesField);
+        PsiParameter entriesParameter = mock(PsiParameter.class);
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(new PsiParameter[]{entriesParameter});
+        given(psiFieldVerifier.areNameAndTypeEqual(eq(entriesField), eq(entriesParameter), any())).willReturn(true);
+        mockRenderingWithSourceClassMethods();
+
+        // when
+        psiClassBuilder.buildFromText(context);
+
+        // then
+        assertThat(stringCaptor.getValue())
+                .doesNotContain("putEntry")
+                .contains("public " + srcClassName + " build() { " + srcClassName + " " + srcClassFieldName + " = new " + srcClassName
+                        + "(entries == null ? null : java.util.Collections.unmodifiableMap(entries));this.entries = null;return " + srcClassFieldName + "; }");
+    }
+
+    private void givenDefaultConstructor() {
+        PsiParameterList psiParameterList = mock(PsiParameterList.class);
+        given(bestConstructor.getParameterList()).willReturn(psiParameterList);
+        given(psiParameterList.getParameters()).willReturn(EMPTY_PSI_PARAMETERS);
+    }
+
+    private void mockRenderingWithSourceClassMethods() {
+        PsiClass dummyClass = mock(PsiClass.class);
+        given(elementFactory.createClassFromText(stringCaptor.capture(), eq(srcClass))).willReturn(dummyClass);
+        given(dummyClass.getInnerClasses()).willReturn(new PsiClass[]{mock(PsiClass.class)});
+        PsiMethod sourceClassMethod = mock(PsiMethod.class, withSettings().lenient());
+        given(sourceClassMethod.getModifierList()).willReturn(mock(PsiModifierList.class));
+        given(elementFactory.createMethodFromText(anyString(), eq(srcClass))).willReturn(sourceClassMethod);
+    }
+
+    private PsiField mockField(String name, String type) {
+        PsiField psiField = mock(PsiField.class);
+        PsiType psiType = mock(PsiType.class);
+        given(psiField.getName()).willReturn(name);
+        given(psiField.getType()).willReturn(psiType);
+        given(psiType.getCanonicalText()).willReturn(type);
+        return psiField;
+    }
+
+    private PsiField mockCollectionField(String name, String interfaceName, String... typeArguments) {
+        PsiField psiField = mock(PsiField.class);
+        PsiClassType psiType = mock(PsiClassType.class);
+        PsiClassType rawType = mock(PsiClassType.class);
+        PsiType[] parameters = new PsiType[typeArguments.length];
+        for (int i = 0; i < typeArguments.length; i++) {
+            parameters[i] = mock(PsiType.class);
+            given(parameters[i].getCanonicalText()).willReturn(typeArguments[i]);
+        }
+        given(psiField.getName()).willReturn(name);
+        given(psiField.getType()).willReturn(psiType);
+        given(psiType.getCanonicalText()).willReturn(interfaceName + "<" + String.join(", ", typeArguments) + ">");
+        given(psiType.rawType()).willReturn(rawType);
+        given(psiType.getParameters()).willReturn(parameters);
+        given(rawType.getCanonicalText()).willReturn(interfaceName);
+        return psiField;
+    }
+
     private PsiParameter createPsiParameter(PsiType parameterType) {
         PsiParameter psiParameter = mock(PsiParameter.class);
         given(psiParameter.getType()).willReturn(parameterType);
         return psiParameter;
     }
 
-    private void assertFieldsAreSet(BuilderPsiClassBuilder result) {
-        assertThat(result).isSameAs(psiClassBuilder);
-        assertThat(getField(psiClassBuilder, "elementFactory")).isEqualTo(elementFactory);
-        assertThat(getField(psiClassBuilder, "srcClass")).isEqualTo(srcClass);
-        assertThat(getField(psiClassBuilder, "builderClassName")).isEqualTo(builderClassName);
-        assertThat(getField(psiClassBuilder, "srcClassName")).isEqualTo(srcClassName);
-        assertThat(getField(psiClassBuilder, "srcClassFieldName")).isEqualTo(srcClassFieldName);
-        assertThat(getField(psiClassBuilder, "psiFieldsForSetters")).isEqualTo(psiFieldsForSetters);
-        assertThat(getField(psiClassBuilder, "psiFieldsForConstructor")).isEqualTo(psiFieldsForConstructor);
-        assertThat(getField(psiClassBuilder, "allSelectedPsiFields")).isEqualTo(allSelectedPsiFields);
-        assertThat(getField(psiClassBuilder, "bestConstructor")).isEqualTo(bestConstructor);
-        assertThat(getField(psiClassBuilder, "builderClass")).isEqualTo(builderClass);
+    private void assertFieldsAreSet(GenerationSession result) {
+        assertThat(getField(result, "elementFactory")).isEqualTo(elementFactory);
+        assertThat(getField(result, "srcClass")).isEqualTo(srcClass);
+        assertThat(getField(result, "builderClassName")).isEqualTo(builderClassName);
+        assertThat(getField(result, "srcClassName")).isEqualTo(srcClassName);
+        assertThat(getField(result, "srcClassFieldName")).isEqualTo(srcClassFieldName);
+        assertThat(getField(result, "psiFieldsForSetters")).isEqualTo(psiFieldsForSetters);
+        assertThat(getField(result, "psiFieldsForConstructor")).isEqualTo(psiFieldsForConstructor);
+        assertThat(getField(result, "allSelectedPsiFields")).isEqualTo(allSelectedPsiFields);
+        assertThat(getField(result, "bestConstructor")).isEqualTo(bestConstructor);
+        assertThat(getField(result, "builderClass")).isEqualTo(builderClass);
     }
 }
@@ -10,7 +10,6 @@ import com.intellij.psi.PsiParameterList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
@@ -18,12 +17,11 @@ import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class ButMethodCreatorTest {
 
-    @InjectMocks private ButMethodCreator butMethodCreator;
+    private ButMethodCreator butMethodCreator;
     @Mock private PsiElementFactory psiElementFactory;
     @Mock private CodeStyleSettings settings;
     @Mock private PsiClass builderClass;
@@ -42,7 +40,7 @@ public class ButMethodCreatorTest {
     public void mockCodeStyleManager() {
         given(settings.getFieldNamePrefix()).willReturn("m_");
         given(settings.getParameterNamePrefix()).willReturn("p_");
-        setField(butMethodCreator, "codeStyleSettings", settings);
+        butMethodCreator = new ButMethodCreator(psiElementFactory, new NameNormalizer(settings));
     }
 
     private void initOtherCommonMocks() {
@@ -0,0 +1,143 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.PsiWildcardType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+
+import static org.apache.commons.lang.StringUtils.EMPTY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mock.Strictness.LENIENT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+public class CollectionAccumulatorTest {
+
+    @Mock(strictness = LENIENT) private CodeStyleSettings codeStyleSettings;
+    @Mock private PsiField psiField;
+
+    private NameNormalizer nameNormalizer;
+
+    @BeforeEach
+    public void setUp() {
+        given(codeStyleSettings.getFieldNamePrefix()).willReturn("m_");
+        given(codeStyleSettings.getParameterNamePrefix()).willReturn(EMPTY);
+        nameNormalizer = new NameNormalizer(codeStyleSettings);
+    }
+
+    @Test
+    void shouldDeriveSingularNames() {
+        // then
+        assertThat(CollectionAccumulator.singularOf("items")).isEqualTo("item");
+        assertThat(CollectionAccumulator.singularOf("entries")).isEqualTo("entry");
+        assertThat(CollectionAccumulator.singularOf("addresses")).isEqualTo("address");
+        assertThat(CollectionAccumulator.singularOf("boxes")).isEqualTo("box");
+        assertThat(CollectionAccumulator.singularOf("matches")).isEqualTo("match");
+        assertThat(CollectionAccumulator.singularOf("class")).isEqualTo("class");
+        assertThat(CollectionAccumulator.singularOf("data")).isEqualTo("data");
+    }
+
+    @Test
+    void shouldRenderListAccumulatorNamedAfterFieldWithoutPrefix() {
+        // given
+        given(psiField.getName()).willReturn("m_items");
+        givenType("java.util.List", mockType("java.lang.String"));
+
+        // when
+        CollectionAccumulator result = CollectionAccumulator.of(psiField, nameNormalizer);
+
+        // then
+        assertThat(result.isMap()).isFalse();
+        assertThat(result.getAddMethodName()).isEqualTo("addItem");
+        assertThat(result.getAddMethodParameters()).isEqualTo("java.lang.String item");
+        assertThat(result.getAddStatement()).isEqualTo("this.m_items.add(item);");
+        assertThat(result.getInitializationStatement("16")).isEqualTo("if (this.m_items == null) { this.m_items = new java.util.ArrayList<>(16); }");
+        assertThat(result.getHandoffExpression(CollectionHandoff.SHARE, true)).isEqualTo("m_items");
+        assertThat(result.getHandoffExpression(CollectionHandoff.COPY_ON_BUILD, true)).isEqualTo("m_items == null ? null : java.util.List.copyOf(m_items)");
+        assertThat(result.getHandoffExpression(CollectionHandoff.COPY_ON_BUILD, false))
+                .isEqualTo("m_items == null ? null : java.util.Collections.unmodifiableList(new java.util.ArrayList<>(m_items))");
+        assertThat(result.getHandoffExpression(CollectionHandoff.TRANSFER, true)).isEqualTo("m_items == null ? null : java.util.Collections.unmodifiableList(m_items)");
+        assertThat(result.getReleaseStatement()).isEqualTo("this.m_items = null;");
+    }
+
+    @Test
+    void shouldRenderMapAccumulatorWithPutMethod() {
+        // given
+        given(psiField.getName()).willReturn("entries");
+        givenType("java.util.Map", mockType("java.lang.String"), mockType("java.lang.Integer"));
+
+        // when
+        CollectionAccumulator result = CollectionAccumulator.of(psiField, nameNormalizer);
+
+        // then
+        assertThat(result.isMap()).isTrue();
+        assertThat(result.getAddMethodName()).isEqualTo("putEntry");
+        assertThat(result.getAddMethodParameters()).isEqualTo("java.lang.String key, java.lang.Integer value");
+        assertThat(result.getAddStatement()).isEqualTo("this.entries.put(key, value);");
+        assertThat(result.copyOf("entries")).isEqualTo("entries == null ? null : new java.util.LinkedHashMap<>(entries)");
+        assertThat(result.getHandoffExpression(CollectionHandoff.COPY_ON_BUILD, true))
+                .isEqualTo("entries == null ? null : java.util.Collections.unmodifiableMap(new java.util.LinkedHashMap<>(entries))");
+    }
+
+    @Test
+    void shouldNotNameAddMethodParameterAfterKeyword() {
+        // given
+        given(psiField.getName()).willReturn("classes");
+        givenType("java.util.Set", mockType("java.lang.Class"));
+
+        // when
+        CollectionAccumulator result = CollectionAccumulator.of(psiField, nameNormalizer);
+
+        // then
+        assertThat(result.getAddMethodName()).isEqualTo("addClass");
+        assertThat(result.getAddMethodParameters()).isEqualTo("java.lang.Class element");
+    }
+
+    @Test
+    void shouldNotAccumulateWildcardCollection() {
+        // given
+        givenType("java.util.List", mock(PsiWildcardType.class));
+
+        // when
+        CollectionAccumulator result = CollectionAccumulator.of(psiField, nameNormalizer);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void shouldNotAccumulateCollectionImplementation() {
+        // given
+        givenType("java.util.ArrayList", mockType("java.lang.String"));
+
+        // when
+        CollectionAccumulator result = CollectionAccumulator.of(psiField, nameNormalizer);
+
+        // then
+        assertThat(result).isNull();
+    }
+
+    private void givenType(String interfaceName, PsiType... parameters) {
+        PsiClassType type = mock(PsiClassType.class, withSettings().lenient());
+        PsiClassType rawType = mock(PsiClassType.class, withSettings().lenient());
+        given(psiField.getType()).willReturn(type);
+        given(type.rawType()).willReturn(rawType);
+        given(type.getParameters()).willReturn(parameters);
+        given(rawType.getCanonicalText()).willReturn(interfaceName);
+    }
+
+    private PsiType mockType(String canonicalText) {
+        PsiType type = mock(PsiType.class, withSettings().lenient());
+        given(type.getCanonicalText()).willReturn(canonicalText);
+        return type;
+    }
+}
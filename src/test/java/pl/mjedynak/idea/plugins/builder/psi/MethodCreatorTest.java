@@ -14,13 +14,11 @@ import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
 import static org.apache.commons.lang.StringUtils.EMPTY;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
 public class MethodCreatorTest {
 
     private MethodCreator methodCreator;
-    @Mock private MethodNameCreator methodNameCreator;
     @Mock private CodeStyleSettings codeStyleSettings;
     @Mock private PsiElementFactory elementFactory;
     @Mock private PsiField psiField;
@@ -31,18 +29,15 @@ public class MethodCreatorTest {
 
     @BeforeEach
     public void mockCodeStyleManager() {
-        methodCreator = new MethodCreator(elementFactory, "BuilderClassName");
-        setField(methodCreator, "codeStyleSettings", codeStyleSettings);
-        setField(methodCreator, "methodNameCreator", methodNameCreator);
         given(codeStyleSettings.getFieldNamePrefix()).willReturn(EMPTY);
         given(codeStyleSettings.getParameterNamePrefix()).willReturn(EMPTY);
+        methodCreator = new MethodCreator(elementFactory, "BuilderClassName", new NameNormalizer(codeStyleSettings));
     }
 
     private void initOtherCommonMocks() {
         given(psiField.getName()).willReturn("name");
         given(type.getPresentableText()).willReturn("String");
         given(psiField.getType()).willReturn(type);
-        given(methodNameCreator.createMethodName("with", "name")).willReturn("withName");
     }
 
     @Test
@@ -63,7 +58,6 @@ public class MethodCreatorTest {
     void shouldCreateMethodForSingleField() {
         // given
         initOtherCommonMocks();
-        given(methodNameCreator.createMethodName("set", "name")).willReturn("setName");
         given(elementFactory.createMethodFromText("public BuilderClassName withName(String name) { className.setName(name); return this; }", psiField)).willReturn(method);
         String methodPrefix = "with";
 
@@ -74,4 +68,35 @@ public class MethodCreatorTest {
         assertThat(result).isEqualTo(method);
     }
 
+    @Test
+    void shouldStripFieldPrefixLiterallyEvenIfItContainsRegexMetacharacters() {
+        // given
+        given(codeStyleSettings.getFieldNamePrefix()).willReturn("$_");
+        methodCreator = new MethodCreator(elementFactory, "BuilderClassName", new NameNormalizer(codeStyleSettings));
+        given(psiField.getName()).willReturn("$_name");
+        given(type.getPresentableText()).willReturn("String");
+        given(psiField.getType()).willReturn(type);
+        given(elementFactory.createMethodFromText("public BuilderClassName withName(String name) { this.$_name = name; return this; }", psiField)).willReturn(method);
+
+        // when
+        PsiMethod result = methodCreator.createMethod(psiField, "with", srcClassFieldName, false);
+
+        // then
+        assertThat(result).isEqualTo(method);
+    }
+
+    @Test
+    void shouldCreateStageMethodReturningNextStage() {
+        // given
+        given(psiField.getName()).willReturn("name");
+        given(type.getCanonicalText()).willReturn("java.lang.String");
+        given(psiField.getType()).willReturn(type);
+
+        // when
+        String result = methodCreator.createStageMethodText(psiField, "with", "AgeStage");
+
+        // then
+        assertThat(result).isEqualTo("public AgeStage withName(java.lang.String name) { this.name = name; return this; }");
+    }
+
 }
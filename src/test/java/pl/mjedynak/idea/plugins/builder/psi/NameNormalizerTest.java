@@ -0,0 +1,65 @@
+package pl.mjedynak.idea.plugins.builder.psi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.NameNormalizer.FieldNames;
+import pl.mjedynak.idea.plugins.builder.settings.CodeStyleSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class NameNormalizerTest {
+
+    @Mock private CodeStyleSettings settings;
+
+    private NameNormalizer nameNormalizer;
+
+    @BeforeEach
+    public void setUp() {
+        given(settings.getFieldNamePrefix()).willReturn("m.");
+        given(settings.getParameterNamePrefix()).willReturn("p_");
+        nameNormalizer = new NameNormalizer(settings);
+    }
+
+    @Test
+    void shouldDeriveAllNamesFromFieldName() {
+        // when
+        FieldNames result = nameNormalizer.of("m.userName");
+
+        // then
+        assertThat(result.getName()).isEqualTo("m.userName");
+        assertThat(result.getNameWithoutPrefix()).isEqualTo("userName");
+        assertThat(result.getCapitalizedName()).isEqualTo("UserName");
+        assertThat(result.getParameterName()).isEqualTo("p_userName");
+        assertThat(result.getSetterName()).isEqualTo("setUserName");
+        assertThat(result.getGetterName()).isEqualTo("getUserName");
+        assertThat(result.getBuilderMethodName("with")).isEqualTo("withUserName");
+        assertThat(result.getBuilderMethodName("")).isEqualTo("userName");
+    }
+
+    @Test
+    void shouldStripPrefixesLiterallyAndOnlyAtTheStart() {
+        // then
+        assertThat(nameNormalizer.of("mXuser").getNameWithoutPrefix()).isEqualTo("mXuser");
+        assertThat(nameNormalizer.of("userm.Name").getNameWithoutPrefix()).isEqualTo("userm.Name");
+        assertThat(nameNormalizer.stripParameterPrefix("p_p_age")).isEqualTo("p_age");
+    }
+
+    @Test
+    void shouldResolvePrefixesOnceAndMemoizeFieldNames() {
+        // when
+        FieldNames first = nameNormalizer.of("m.age");
+        FieldNames second = nameNormalizer.of("m.age");
+
+        // then
+        assertThat(second).isSameAs(first);
+        verify(settings, times(1)).getFieldNamePrefix();
+        verify(settings, times(1)).getParameterNamePrefix();
+    }
+}
@@ -10,8 +10,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.factory.PsiElementClassMemberFactory;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiClassAnalysis;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
 import pl.mjedynak.idea.plugins.builder.verifier.PsiFieldVerifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -19,6 +22,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class PsiFieldSelectorTest {
@@ -26,14 +32,17 @@ public class PsiFieldSelectorTest {
     @InjectMocks private PsiFieldSelector psiFieldSelector;
     @Mock(strictness = LENIENT) private PsiElementClassMemberFactory psiElementClassMemberFactory;
     @Mock(strictness = LENIENT) private PsiFieldVerifier psiFieldVerifier;
-    @Mock private PsiClass psiClass;
+    @Mock(strictness = LENIENT) private PsiClass psiClass;
     @Mock private PsiField psiField;
+    @Mock private PsiClassAccessors accessors;
+    @Mock private PsiClassAnalysisCache psiClassAnalysisCache;
 
     @BeforeEach
     public void setUp() {
         PsiField[] fieldsArray = new PsiField[1];
         fieldsArray[0] = psiField;
         given(psiClass.getAllFields()).willReturn(fieldsArray);
+        given(psiClassAnalysisCache.getAnalysis(psiClass)).willReturn(new PsiClassAnalysis(accessors));
         given(psiElementClassMemberFactory.createPsiElementClassMember(any(PsiField.class))).willReturn(mock(PsiElementClassMember.class));
     }
 
@@ -83,11 +92,55 @@ public class PsiFieldSelectorTest {
         doTest(true, true, false, false, true, true, 0);
     }
 
+    @Test
+    void shouldReuseSelectionForSameClassAndFlags() {
+        // given
+        given(psiFieldVerifier.isSetInSetterMethod(psiField, accessors)).willReturn(true);
+
+        // when
+        psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, false, false, false);
+        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, false, false, false);
+
+        // then
+        assertThat(result).hasSize(1);
+        verify(psiClass, times(1)).getAllFields();
+        verify(psiFieldVerifier, times(1)).isSetInSetterMethod(psiField, accessors);
+    }
+
+    @Test
+    void shouldSelectRecordComponentsWithoutScanningAccessors() {
+        // given
+        PsiField otherComponentField = mock(PsiField.class);
+        given(psiClass.isRecord()).willReturn(true);
+        given(psiFieldVerifier.getRecordFields(psiClass)).willReturn(Arrays.asList(psiField, otherComponentField));
+
+        // when
+        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, false, false, false);
+
+        // then
+        assertThat(result).hasSize(2);
+        verify(psiClass, never()).getAllFields();
+        verify(psiFieldVerifier, never()).isSetInSetterMethod(any(PsiField.class), any(PsiClassAccessors.class));
+        verify(psiFieldVerifier, never()).isSetInConstructor(any(PsiField.class), any(PsiClassAccessors.class));
+    }
+
+    @Test
+    void shouldNotSelectRecordComponentsForSingleFieldBuilder() {
+        // given
+        given(psiClass.isRecord()).willReturn(true);
+
+        // when
+        List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, false, true, false);
+
+        // then
+        assertThat(result).isEmpty();
+    }
+
     private void doTest(boolean isSetInConstructor, boolean isSetInSetter, boolean hasGetter, boolean isInnerBuilder, boolean useSingleField, boolean hasButMethod, int size) {
         // given
-        given(psiFieldVerifier.isSetInConstructor(psiField, psiClass)).willReturn(isSetInConstructor);
-        given(psiFieldVerifier.isSetInSetterMethod(psiField, psiClass)).willReturn(isSetInSetter);
-        given(psiFieldVerifier.hasGetterMethod(psiField, psiClass)).willReturn(hasGetter);
+        given(psiFieldVerifier.isSetInConstructor(psiField, accessors)).willReturn(isSetInConstructor);
+        given(psiFieldVerifier.isSetInSetterMethod(psiField, accessors)).willReturn(isSetInSetter);
+        given(psiFieldVerifier.hasGetterMethod(psiField, accessors)).willReturn(hasGetter);
 
         // when
         List<PsiElementClassMember> result = psiFieldSelector.selectFieldsToIncludeInBuilder(psiClass, isInnerBuilder, useSingleField, hasButMethod);
@@ -0,0 +1,65 @@
+package pl.mjedynak.idea.plugins.builder.psi.model;
+
+import com.google.common.collect.Lists;
+import com.intellij.psi.PsiField;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.verifier.PsiClassAccessors;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class PsiClassAnalysisTest {
+
+    @Mock private PsiClassAccessors accessors;
+    @Mock private PsiField psiField1;
+    @Mock private PsiField psiField2;
+    @Mock private PsiFieldsForBuilder fieldsForBuilder1;
+    @Mock private PsiFieldsForBuilder fieldsForBuilder2;
+    @Mock private Supplier<PsiFieldsForBuilder> analysis1;
+    @Mock private Supplier<PsiFieldsForBuilder> analysis2;
+
+    @Test
+    void shouldReuseAnalysisOfLatestSelection() {
+        // given
+        PsiClassAnalysis psiClassAnalysis = new PsiClassAnalysis(accessors);
+        given(analysis1.get()).willReturn(fieldsForBuilder1);
+
+        // when
+        PsiFieldsForBuilder first = psiClassAnalysis.getFieldsForBuilder(Lists.newArrayList(psiField1, psiField2), analysis1);
+        PsiFieldsForBuilder second = psiClassAnalysis.getFieldsForBuilder(Lists.newArrayList(psiField1, psiField2), analysis1);
+
+        // then
+        assertThat(first).isSameAs(fieldsForBuilder1);
+        assertThat(second).isSameAs(fieldsForBuilder1);
+        verify(analysis1, times(1)).get();
+    }
+
+    @Test
+    void shouldKeepOnlyLatestSelection() {
+        // given
+        PsiClassAnalysis psiClassAnalysis = new PsiClassAnalysis(accessors);
+        List<PsiField> firstSelection = Lists.newArrayList(psiField1);
+        List<PsiField> secondSelection = Lists.newArrayList(psiField1, psiField2);
+        given(analysis1.get()).willReturn(fieldsForBuilder1);
+        given(analysis2.get()).willReturn(fieldsForBuilder2);
+        psiClassAnalysis.getFieldsForBuilder(firstSelection, analysis1);
+        psiClassAnalysis.getFieldsForBuilder(secondSelection, analysis2);
+
+        // when
+        PsiFieldsForBuilder result = psiClassAnalysis.getFieldsForBuilder(firstSelection, analysis1);
+
+        // then
+        assertThat(result).isSameAs(fieldsForBuilder1);
+        verify(analysis1, times(2)).get();
+        verify(analysis2, times(1)).get();
+    }
+}
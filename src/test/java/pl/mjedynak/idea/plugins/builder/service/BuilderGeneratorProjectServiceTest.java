@@ -0,0 +1,31 @@
+package pl.mjedynak.idea.plugins.builder.service;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BuilderGeneratorProjectServiceTest extends BasePlatformTestCase {
+
+    public void testShouldKeepHandlersOfProjectBetweenLookups() {
+        // given
+        BuilderGeneratorProjectService service = BuilderGeneratorProjectService.getInstance(getProject());
+
+        // when
+        BuilderGeneratorProjectService result = BuilderGeneratorProjectService.getInstance(getProject());
+
+        // then
+        assertThat(result).isSameAs(service);
+        assertThat(result.getGenerateBuilderActionHandler()).isSameAs(service.getGenerateBuilderActionHandler());
+        assertThat(result.getGoToBuilderActionHandler()).isSameAs(service.getGoToBuilderActionHandler());
+        assertThat(result.getBatchBuilderGenerator()).isSameAs(service.getBatchBuilderGenerator());
+    }
+
+    public void testShouldShareStatelessCollaboratorsAcrossProjects() {
+        // when
+        BuilderGeneratorApplicationService result = BuilderGeneratorApplicationService.getInstance();
+
+        // then
+        assertThat(result).isSameAs(BuilderGeneratorApplicationService.getInstance());
+        assertThat(result.getBuilderFinder()).isNotNull();
+    }
+}
@@ -0,0 +1,48 @@
+package pl.mjedynak.idea.plugins.builder.starter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerateBuildersStarterTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    void shouldReadClassNamesSkippingBlankLinesAndComments() throws IOException {
+        // given
+        Path file = tempDir.resolve("classes.txt");
+        Files.write(file, Arrays.asList("# domain", " com.example.Order ", "", "com.example.Customer"));
+
+        // when
+        List<String> result = GenerateBuildersStarter.readClassNames(file);
+
+        // then
+        assertThat(result).containsExactly("com.example.Order", "com.example.Customer");
+    }
+
+    @Test
+    void shouldDescribeTimingInMilliseconds() {
+        // when
+        String result = GenerateBuildersStarter.describeTiming("com.example.Order", 12_345_678L);
+
+        // then
+        assertThat(result).isEqualTo("com.example.Order: 12.3 ms");
+    }
+
+    @Test
+    void shouldUseGenerateBuildersCommand() {
+        // when
+        String result = new GenerateBuildersStarter().getCommandName();
+
+        // then
+        assertThat(result).isEqualTo("generate-builders");
+    }
+}
@@ -0,0 +1,89 @@
+package pl.mjedynak.idea.plugins.builder.timing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerationTimingsTest {
+
+    private final GenerationTimings generationTimings = new GenerationTimings();
+
+    @Test
+    void shouldComputePercentilesAndClassSizesPerPhase() {
+        // given
+        for (int i = 1; i <= 100; i++) {
+            generationTimings.record(GenerationPhase.SELECT_FIELDS, "Order", i, millis(i));
+        }
+        generationTimings.record(GenerationPhase.WRITE_ACTION, "Order", 7, millis(3));
+
+        // when
+        List<PhaseStatistics> result = generationTimings.getStatistics();
+
+        // then
+        assertThat(result).extracting(PhaseStatistics::getPhase).containsExactly(GenerationPhase.SELECT_FIELDS, GenerationPhase.WRITE_ACTION);
+        PhaseStatistics selectFields = result.get(0);
+        assertThat(selectFields.getSampleCount()).isEqualTo(100);
+        assertThat(selectFields.getP50Nanos()).isEqualTo(millis(50));
+        assertThat(selectFields.getP95Nanos()).isEqualTo(millis(95));
+        assertThat(selectFields.getMaxNanos()).isEqualTo(millis(100));
+        assertThat(selectFields.getMedianClassSize()).isEqualTo(50);
+        assertThat(selectFields.getMaxClassSize()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldCreateOwnInstanceOutsideOfApplication() {
+        // when
+        GenerationTimings result = GenerationTimings.getInstance();
+
+        // then
+        assertThat(result).isNotNull().isNotSameAs(GenerationTimings.getInstance());
+    }
+
+    @Test
+    void shouldKeepOnlyMostRecentSamples() {
+        // given
+        generationTimings.record(GenerationPhase.BUILD_PSI, "Order", 1, millis(1000));
+        for (int i = 0; i < GenerationTimings.WINDOW_SIZE; i++) {
+            generationTimings.record(GenerationPhase.BUILD_PSI, "Order", 1, millis(1));
+        }
+
+        // when
+        List<PhaseStatistics> result = generationTimings.getStatistics();
+
+        // then
+        assertThat(result.get(0).getSampleCount()).isEqualTo(GenerationTimings.WINDOW_SIZE);
+        assertThat(result.get(0).getMaxNanos()).isEqualTo(millis(1));
+    }
+
+    @Test
+    void shouldDescribeStatistics() {
+        // given
+        generationTimings.record(GenerationPhase.FIND_CLASS_TO_GO, "Order", 12, millis(4));
+
+        // when
+        String result = GenerationTimings.describe(generationTimings.getStatistics());
+
+        // then
+        assertThat(result).startsWith("Finding builder or source class: n=1, p50=4.0 ms, p95=4.0 ms, max=4.0 ms, fields p50=12 max=12");
+    }
+
+    @Test
+    void shouldDescribeMissingStatisticsAfterReset() {
+        // given
+        generationTimings.record(GenerationPhase.FIND_CLASS_TO_GO, "Order", 12, millis(4));
+        generationTimings.reset();
+
+        // when
+        String result = GenerationTimings.describe(generationTimings.getStatistics());
+
+        // then
+        assertThat(result).isEqualTo(GenerationTimings.NO_SAMPLES);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -20,6 +20,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
@@ -206,6 +208,42 @@ public class PsiFieldVerifierTest {
         assertThat(result).isFalse();
     }
 
+    @Test
+    void shouldWalkMethodsOnlyOnceWhenVerifyingSeveralFieldsWithSameAccessors() {
+        // given
+        given(psiClass.getAllMethods()).willReturn(methods);
+        given(method.getModifierList()).willReturn(modifierList);
+        given(psiField.getName()).willReturn("field");
+        given(method.getName()).willReturn("setField");
+        PsiClassAccessors accessors = psiFieldVerifier.accessorsOf(psiClass);
+
+        // when
+        boolean isSetInSetter = psiFieldVerifier.isSetInSetterMethod(psiField, accessors);
+        boolean hasGetter = psiFieldVerifier.hasGetterMethod(psiField, accessors);
+
+        // then
+        assertThat(isSetInSetter).isTrue();
+        assertThat(hasGetter).isFalse();
+        verify(psiClass, times(1)).getAllMethods();
+    }
+
+    @Test
+    void shouldVerifyThatFieldIsSetInGivenConstructorUsingAccessors() {
+        // given
+        prepareBehaviourForReturningParameter();
+        given(parameter.getType()).willReturn(psiType);
+        given(psiField.getType()).willReturn(psiType);
+        given(parameter.getName()).willReturn(name);
+        given(psiField.getName()).willReturn(name);
+        PsiClassAccessors accessors = psiFieldVerifier.accessorsOf(psiClass);
+
+        // when
+        boolean result = psiFieldVerifier.checkConstructor(psiField, constructor, accessors);
+
+        // then
+        assertThat(result).isTrue();
+    }
+
     private void prepareBehaviourForReturningParameter() {
         given(psiClass.getConstructors()).willReturn(constructors);
         given(constructor.getParameterList()).willReturn(parameterList);
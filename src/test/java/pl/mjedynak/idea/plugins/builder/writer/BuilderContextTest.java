@@ -0,0 +1,53 @@
+package pl.mjedynak.idea.plugins.builder.writer;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.mjedynak.idea.plugins.builder.psi.model.PsiFieldsForBuilder;
+import pl.mjedynak.idea.plugins.builder.settings.CollectionHandoff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class BuilderContextTest {
+
+    @Mock private Project project;
+    @Mock private PsiFieldsForBuilder psiFieldsForBuilder;
+    @Mock private PsiDirectory targetDirectory;
+    @Mock private PsiClass srcClass;
+
+    @Test
+    void shouldBeEqualWhenOptionsAreEqual() {
+        // given
+        BuilderContext context = aContext(GenerationOptions.builder().inner(true).collectionHandoff(CollectionHandoff.TRANSFER).build());
+        BuilderContext sameContext = aContext(GenerationOptions.builder().inner(true).collectionHandoff(CollectionHandoff.TRANSFER).build());
+
+        // when
+        boolean equal = context.equals(sameContext);
+
+        // then
+        assertThat(equal).isTrue();
+        assertThat(context.hashCode()).isEqualTo(sameContext.hashCode());
+    }
+
+    @Test
+    void shouldNotBeEqualWhenOnlyOptionsDiffer() {
+        // given
+        BuilderContext context = aContext(GenerationOptions.builder().inner(true).build());
+        BuilderContext contextWithOtherOptions = aContext(GenerationOptions.builder().inner(false).build());
+
+        // when
+        boolean equal = context.equals(contextWithOtherOptions);
+
+        // then
+        assertThat(equal).isFalse();
+    }
+
+    private BuilderContext aContext(GenerationOptions options) {
+        return new BuilderContext(project, psiFieldsForBuilder, targetDirectory, "PersonBuilder", srcClass, "with", options);
+    }
+}
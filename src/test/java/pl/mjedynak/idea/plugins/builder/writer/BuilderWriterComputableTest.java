@@ -13,14 +13,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.gui.helper.GuiHelper;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
+import pl.mjedynak.idea.plugins.builder.psi.GenerationSession;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
+import pl.mjedynak.idea.plugins.builder.timing.GenerationTimings;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mock.Strictness.LENIENT;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +37,7 @@ public class BuilderWriterComputableTest {
     @Mock private PsiHelper psiHelper;
     @Mock private GuiHelper guiHelper;
     @Mock private BuilderPsiClassBuilder builderPsiClassBuilder;
+    @Mock private GenerationSession session;
     @Mock private Project project;
     @Mock private PsiClass srcClass;
     @Mock(strictness = LENIENT) private PsiClass builderClass;
@@ -40,6 +45,7 @@ public class BuilderWriterComputableTest {
     @Mock private PsiElement psiElement;
     @Mock(strictness = LENIENT) private BuilderContext context;
     @Mock private PsiClass existingBuilder;
+    @Mock private GenerationTimings generationTimings;
 
     @BeforeEach
     public void setUp() {
@@ -49,12 +55,13 @@ public class BuilderWriterComputableTest {
         given(context.isInner()).willReturn(false);
         setField(builderWriterComputable, "psiHelper", psiHelper);
         setField(builderWriterComputable, "guiHelper", guiHelper);
+        setField(builderWriterComputable, "generationTimings", generationTimings);
     }
 
     @Test
     void shouldIncludeCurrentPlaceAsChangePlaceAndNavigateToCreatedBuilder() {
         // given
-        given(builderPsiClassBuilder.aBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(session);
         mockBuilder();
 
         // when
@@ -72,7 +79,7 @@ public class BuilderWriterComputableTest {
         // given
         given(context.isInner()).willReturn(true);
         given(context.getPsiClassFromEditor()).willReturn(srcClass);
-        given(builderPsiClassBuilder.anInnerBuilder(context)).willReturn(builderPsiClassBuilder);
+        given(builderPsiClassBuilder.anInnerBuilder(context)).willReturn(session);
         mockBuilder();
 
         // when
@@ -84,6 +91,81 @@ public class BuilderWriterComputableTest {
         assertThat((PsiClass) result).isEqualTo(builderClass);
     }
 
+    @Test
+    void shouldAddReuseMethodsToReusableBuilder() {
+        // given
+        given(context.isReusable()).willReturn(true);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(session);
+        mockBuilder();
+
+        // when
+        builderWriterComputable.compute();
+
+        // then
+        verify(session).withReuseMethods();
+    }
+
+    @Test
+    void shouldAddInnerBuilderRenderedInSinglePassWithOneInsertion() {
+        // given
+        PsiClass addedBuilder = mock(PsiClass.class);
+        given(context.isSinglePass()).willReturn(true);
+        given(context.isInner()).willReturn(true);
+        given(context.getPsiClassFromEditor()).willReturn(srcClass);
+        given(builderPsiClassBuilder.buildFromText(context)).willReturn(builderClass);
+        given(srcClass.add(builderClass)).willReturn(addedBuilder);
+
+        // when
+        PsiElement result = builderWriterComputable.compute();
+
+        // then
+        verify(guiHelper).includeCurrentPlaceAsChangePlace(project);
+        verify(psiHelper).shortenClassReferencesAndReformat(addedBuilder);
+        verify(builderPsiClassBuilder, never()).anInnerBuilder(context);
+        assertThat(result).isEqualTo(addedBuilder);
+    }
+
+    @Test
+    void shouldPatchExistingBuilderInsteadOfRecreatingIt() {
+        // given
+        given(context.isPatchExisting()).willReturn(true);
+        given(builderPsiClassBuilder.patch(context, existingBuilder)).willReturn(builderClass);
+        given(builderClass.getContainingFile()).willReturn(psiFile);
+        given(builderClass.getLBrace()).willReturn(psiElement);
+
+        // when
+        PsiElement result = builderWriterComputable.compute();
+
+        // then
+        verify(existingBuilder, never()).delete();
+        verify(builderPsiClassBuilder, never()).aBuilder(context);
+        verify(guiHelper).positionCursor(project, psiFile, psiElement);
+        assertThat(result).isEqualTo(builderClass);
+    }
+
+    @Test
+    void shouldNeitherIncludeChangePlaceNorNavigateWhenWritingInBatch() {
+        // given
+        builderWriterComputable = new BuilderWriterComputable(builderPsiClassBuilder, context, existingBuilder, false);
+        setField(builderWriterComputable, "psiHelper", psiHelper);
+        setField(builderWriterComputable, "guiHelper", guiHelper);
+        setField(builderWriterComputable, "generationTimings", generationTimings);
+        given(builderPsiClassBuilder.aBuilder(context)).willReturn(session);
+        given(session.withFields()).willReturn(session);
+        given(session.withPrivateConstructor()).willReturn(session);
+        given(session.withPublicConstructorGenerator()).willReturn(session);
+        given(session.withSetMethods(METHOD_PREFIX)).willReturn(session);
+        given(session.build()).willReturn(builderClass);
+
+        // when
+        PsiElement result = builderWriterComputable.compute();
+
+        // then
+        verify(existingBuilder).delete();
+        verifyNoInteractions(guiHelper);
+        assertThat(result).isEqualTo(builderClass);
+    }
+
     @Test
     void shouldInvokeBuilderWriterErrorRunnableWhenExceptionOccurs() {
         // given
@@ -99,11 +181,11 @@ public class BuilderWriterComputableTest {
     }
 
     private void mockBuilder() {
-        given(builderPsiClassBuilder.withFields()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withPrivateConstructor()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withInitializingMethod()).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.withSetMethods(METHOD_PREFIX)).willReturn(builderPsiClassBuilder);
-        given(builderPsiClassBuilder.build()).willReturn(builderClass);
+        given(session.withFields()).willReturn(session);
+        given(session.withPrivateConstructor()).willReturn(session);
+        given(session.withPublicConstructorGenerator()).willReturn(session);
+        given(session.withSetMethods(METHOD_PREFIX)).willReturn(session);
+        given(session.build()).willReturn(builderClass);
         given(builderClass.getContainingFile()).willReturn(psiFile);
         given(builderClass.getLBrace()).willReturn(psiElement);
     }
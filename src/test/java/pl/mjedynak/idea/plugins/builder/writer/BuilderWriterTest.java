@@ -1,5 +1,6 @@
 package pl.mjedynak.idea.plugins.builder.writer;
 
+import com.intellij.openapi.application.Application;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiClass;
@@ -12,7 +13,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import pl.mjedynak.idea.plugins.builder.psi.BuilderPsiClassBuilder;
 import pl.mjedynak.idea.plugins.builder.psi.PsiHelper;
 
+import java.util.Collections;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
@@ -46,4 +50,23 @@ public class BuilderWriterTest {
         assertThat(getField(builderWriterRunnableArgumentCaptor.getValue(), "context")).isEqualTo(context);
         assertThat(getField(builderWriterRunnableArgumentCaptor.getValue(), "existingBuilder")).isEqualTo(existingBuilder);
     }
+
+    @Test
+    void shouldWriteBatchOfBuildersInOneWriteActionWithinGivenCommandGroup() {
+        // given
+        CommandProcessor commandProcessor = mock(CommandProcessor.class);
+        Application application = mock(Application.class);
+        Object commandGroupId = new Object();
+        given(psiHelper.getCommandProcessor()).willReturn(commandProcessor);
+        given(psiHelper.getApplication()).willReturn(application);
+
+        // when
+        builderWriter.writeBuilders(project, Collections.singletonMap(context, existingBuilder), commandGroupId);
+
+        // then
+        ArgumentCaptor<Runnable> commandCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(commandProcessor).executeCommand(eq(project), commandCaptor.capture(), eq(BuilderWriter.CREATE_BUILDERS_STRING), eq(commandGroupId));
+        commandCaptor.getValue().run();
+        verify(application).runWriteAction(any(Runnable.class));
+    }
 }